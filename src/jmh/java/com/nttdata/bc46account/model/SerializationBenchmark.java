@@ -0,0 +1,104 @@
+package com.nttdata.bc46account.model;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Serialización Jackson de Account (con historial) y Movement, como en las respuestas REST
+ * y los eventos del outbox.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SerializationBenchmark {
+
+  private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper().findAndRegisterModules();
+
+  private Movement movement;
+
+  @Setup
+  public void setUp() {
+    movement = movement(0);
+  }
+
+  /**
+   * Cuenta con un historial de movementCount movimientos.
+   */
+  @State(Scope.Benchmark)
+  public static class AccountState {
+
+    @Param({"0", "100", "1000"})
+    int movementCount;
+
+    Account account;
+    String accountJson;
+
+    @Setup
+    public void setUp() throws JsonProcessingException {
+      List<Movement> movements = new ArrayList<>(movementCount);
+      for (int i = 0; i < movementCount; i++) {
+        movements.add(movement(i));
+      }
+      account = new Account();
+      account.setIdAccount("A0001");
+      account.setAccountType("personal");
+      account.setIdProduct("P001");
+      account.setIdCustomer("C0001");
+      account.setAccountNumber("19100000000001");
+      account.setCci("00219100000000001000");
+      account.setAvailableBalance(150_050L);
+      account.setHolderAccount(List.of(new Persona("Ana Torres", "45879612", "titular")));
+      account.setAuthorizedSigner(List.of());
+      account.setBankMovements(movements);
+      account.setCreationDatetime(LocalDateTime.now());
+      accountJson = OBJECT_MAPPER.writeValueAsString(account);
+    }
+  }
+
+  @Benchmark
+  public String writeAccount(AccountState state) throws JsonProcessingException {
+    return OBJECT_MAPPER.writeValueAsString(state.account);
+  }
+
+  @Benchmark
+  public Account readAccount(AccountState state) throws JsonProcessingException {
+    return OBJECT_MAPPER.readValue(state.accountJson, Account.class);
+  }
+
+  @Benchmark
+  public String writeMovement() throws JsonProcessingException {
+    return OBJECT_MAPPER.writeValueAsString(movement);
+  }
+
+  private static Movement movement(int i) {
+    Movement movement = new Movement();
+    movement.setIdMovement(String.format("M%08d", i));
+    movement.setIdAccount("A0001");
+    movement.setOperation("TRANSFERIR_DINERO");
+    movement.setMovementType("TRAN.CTAS.TERC");
+    movement.setSourceAccount("19100000000001");
+    movement.setTargetAccount("19100000000002");
+    movement.setMoneda("PEN");
+    movement.setMonto(-2_550L);
+    movement.setCreationDatetime(LocalDateTime.now().minusMinutes(i));
+    return movement;
+  }
+}
@@ -0,0 +1,47 @@
+package com.nttdata.bc46account.service;
+
+import com.nttdata.bc46account.repository.inmemory.InMemoryAccountRepository;
+import com.nttdata.bc46account.repository.inmemory.InMemorySequenceRepository;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Generación de idAccount (generateCustomId). Con blockSize=1 cada id va a la secuencia,
+ * como lo haría un contador sin bloques; con bloques la mayoría se entrega desde memoria.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@Threads(4)
+public class AccountIdGeneratorBenchmark {
+
+  @Param({"1", "50", "500"})
+  long blockSize;
+
+  private AccountIdGenerator generator;
+
+  @Setup
+  public void setUp() {
+    generator = new AccountIdGenerator(new InMemorySequenceRepository(),
+        new InMemoryAccountRepository(), blockSize);
+  }
+
+  @Benchmark
+  public String nextId() {
+    return generator.nextId().block();
+  }
+}
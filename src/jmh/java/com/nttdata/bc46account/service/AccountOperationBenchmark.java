@@ -0,0 +1,83 @@
+package com.nttdata.bc46account.service;
+
+import com.nttdata.bc46account.model.Account;
+import com.nttdata.bc46account.model.Movement;
+import com.nttdata.bc46account.repository.inmemory.InMemoryAccountRepository;
+import com.nttdata.bc46account.repository.inmemory.InMemoryMovementRepository;
+import com.nttdata.bc46account.repository.inmemory.InMemoryOutboxEventRepository;
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Costo del pipeline de addOperationToAccount (validación, actualización de saldo, registro del
+ * movimiento y del evento en el outbox) sobre repositorios en memoria.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class AccountOperationBenchmark {
+
+  /** Saldo en céntimos suficiente para todas las operaciones de una iteración. */
+  private static final long INITIAL_BALANCE = 16_777_216L;
+
+  private AccountImpl accountService;
+
+  @Setup(Level.Iteration)
+  public void setUp() {
+    InMemoryAccountRepository accountRepository = new InMemoryAccountRepository();
+    accountService = TestAccountServices.accountImpl(accountRepository,
+        new InMemoryMovementRepository(), new InMemoryOutboxEventRepository());
+    accountRepository.save(account("A0001", "19100000000001")).block();
+    accountRepository.save(account("A0002", "19100000000002")).block();
+  }
+
+  @Benchmark
+  public Movement transfer() {
+    return accountService.addOperationToAccount("A0001",
+        movement("TRANSFERIR_DINERO", "19100000000002")).block();
+  }
+
+  @Benchmark
+  public Movement withdrawal() {
+    return accountService.addOperationToAccount("A0001", movement("COBRAR_GIROS", null))
+        .block();
+  }
+
+  private static Account account(String idAccount, String accountNumber) {
+    Account account = new Account();
+    account.setIdAccount(idAccount);
+    account.setAccountType("personal");
+    account.setIdProduct("P002");
+    account.setIdCustomer("C0001");
+    account.setAccountNumber(accountNumber);
+    account.setCci("002" + accountNumber + "000");
+    account.setAvailableBalance(INITIAL_BALANCE);
+    return account;
+  }
+
+  private static Movement movement(String operation, String targetAccount) {
+    Movement movement = new Movement();
+    movement.setOperation(operation);
+    movement.setMovementType("Retiro");
+    movement.setSourceAccount("19100000000001");
+    movement.setTargetAccount(targetAccount);
+    movement.setMoneda("PEN");
+    movement.setMonto(1L);
+    movement.setCreationDatetime(LocalDateTime.now());
+    return movement;
+  }
+}
@@ -0,0 +1,83 @@
+package com.nttdata.bc46account.service;
+
+
+import com.nttdata.bc46account.model.Account;
+import com.nttdata.bc46account.model.Movement;
+import com.nttdata.bc46account.model.MovementPage;
+import com.nttdata.bc46account.repository.inmemory.InMemoryAccountRepository;
+import com.nttdata.bc46account.repository.inmemory.InMemoryMovementRepository;
+import com.nttdata.bc46account.repository.inmemory.InMemoryOutboxEventRepository;
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Lectura del historial de movimientos a través del servicio, con distintos tamaños de
+ * historial. newestMovements (primera página de findMovementsByAccount) y findById (que
+ * solo trae la página más reciente) deben mantenerse planos al crecer movementCount:
+ * ninguno recorre ni ordena el historial completo.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MovementReadBenchmark {
+
+  private static final String ID_ACCOUNT = "A0001";
+
+  @Param({"100", "1000", "10000"})
+  int movementCount;
+
+  private AccountImpl accountService;
+
+  @Setup
+  public void setUp() {
+    InMemoryAccountRepository accountRepository = new InMemoryAccountRepository();
+    InMemoryMovementRepository movementRepository = new InMemoryMovementRepository();
+    accountService = TestAccountServices.accountImpl(accountRepository, movementRepository,
+        new InMemoryOutboxEventRepository());
+
+    Account account = new Account();
+    account.setIdAccount(ID_ACCOUNT);
+    account.setIdProduct("P001");
+    account.setIdCustomer("C0001");
+    account.setAccountNumber("19100000000001");
+    account.setCci("00219100000000001000");
+    account.setAvailableBalance(0L);
+    accountRepository.save(account).block();
+
+    LocalDateTime start = LocalDateTime.now().minusDays(movementCount);
+    for (int i = 0; i < movementCount; i++) {
+      Movement movement = new Movement();
+      movement.setIdMovement(String.format("M%08d", i));
+      movement.setIdAccount(ID_ACCOUNT);
+      movement.setOperation("DEPOSITAR");
+      movement.setMonto(1L);
+      movement.setCreationDatetime(start.plusMinutes(i * 7L % 1440).plusDays(i));
+      movementRepository.insert(movement).block();
+    }
+  }
+
+  @Benchmark
+  public Account findById() {
+    return accountService.findById(ID_ACCOUNT).block();
+  }
+
+  @Benchmark
+  public MovementPage newestMovements() {
+    return accountService.findMovementsByAccount(ID_ACCOUNT, null, null, null, null, 20)
+        .block();
+  }
+}
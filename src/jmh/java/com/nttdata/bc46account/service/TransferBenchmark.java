@@ -0,0 +1,111 @@
+package com.nttdata.bc46account.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.nttdata.bc46account.model.Account;
+import com.nttdata.bc46account.model.Movement;
+import com.nttdata.bc46account.producer.MovementEventOutbox;
+import com.nttdata.bc46account.repository.inmemory.InMemoryAccountRepository;
+import com.nttdata.bc46account.repository.inmemory.InMemoryMovementRepository;
+import com.nttdata.bc46account.repository.inmemory.InMemoryOutboxEventRepository;
+import com.nttdata.bc46account.repository.inmemory.InMemoryPendingTransferRepository;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Transferencias por segundo sostenidas entre pares aleatorios de cuentas, en ambos
+ * sentidos, con varios hilos a la vez. transactions=true mide el camino transaccional
+ * (sin el costo de la transacción de Mongo); false, el de dos fases con PendingTransfer.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Threads(4)
+@Fork(1)
+public class TransferBenchmark {
+
+  /** Saldo en céntimos suficiente para todas las operaciones de una iteración. */
+  private static final long INITIAL_BALANCE = 1_000_000_000L;
+
+  @Param({"true", "false"})
+  public boolean transactions;
+
+  /** Cantidad de cuentas: con pocas cuentas casi todas las transferencias compiten. */
+  @Param({"2", "64"})
+  public int accounts;
+
+  private AccountImpl accountService;
+
+  @Setup(Level.Iteration)
+  public void setUp() {
+    InMemoryAccountRepository accountRepository = new InMemoryAccountRepository();
+    InMemoryMovementRepository movementRepository = new InMemoryMovementRepository();
+    InMemoryOutboxEventRepository outboxEventRepository = new InMemoryOutboxEventRepository();
+    accountService = TestAccountServices.accountImpl(accountRepository, movementRepository,
+        outboxEventRepository);
+    MovementEventOutbox outbox = new MovementEventOutbox(outboxEventRepository, null,
+        new ObjectMapper().findAndRegisterModules(), "topic-movimientos-cuentas",
+        Duration.ofSeconds(30), false, Duration.ofSeconds(2));
+    accountService.transferEngine = new TransferEngine(accountRepository, movementRepository,
+        new InMemoryPendingTransferRepository(), outbox, accountService.transactionalOperator,
+        accountService.operationMetrics, transactions, 3, Duration.ofSeconds(30));
+    for (int i = 0; i < accounts; i++) {
+      accountRepository.save(account(i)).block();
+    }
+  }
+
+  @Benchmark
+  public Movement transfer() {
+    ThreadLocalRandom random = ThreadLocalRandom.current();
+    int source = random.nextInt(accounts);
+    int target = (source + 1 + random.nextInt(accounts - 1)) % accounts;
+    return accountService.addOperationToAccount(idAccount(source), movement(target)).block();
+  }
+
+  private static String idAccount(int i) {
+    return String.format("A%04d", i);
+  }
+
+  private static String accountNumber(int i) {
+    return String.format("191%011d", i);
+  }
+
+  private static Account account(int i) {
+    Account account = new Account();
+    account.setIdAccount(idAccount(i));
+    account.setAccountType("personal");
+    account.setIdProduct("P002");
+    account.setIdCustomer("C" + i);
+    account.setAccountNumber(accountNumber(i));
+    account.setCci("002" + accountNumber(i) + "000");
+    account.setAvailableBalance(INITIAL_BALANCE);
+    return account;
+  }
+
+  private static Movement movement(int target) {
+    Movement movement = new Movement();
+    movement.setOperation("TRANSFERIR_DINERO");
+    movement.setMovementType("Tran.Ctas.Terc");
+    movement.setTargetAccount(accountNumber(target));
+    movement.setMoneda("PEN");
+    movement.setMonto(1L);
+    movement.setCreationDatetime(LocalDateTime.now());
+    return movement;
+  }
+}
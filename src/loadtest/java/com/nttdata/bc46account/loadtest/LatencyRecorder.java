@@ -0,0 +1,90 @@
+package com.nttdata.bc46account.loadtest;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+/**
+ * Latencias por operación en histogramas HdrHistogram (microsegundos, hasta 60 s).
+ * La latencia se mide desde el instante en que la solicitud debía enviarse según la tasa,
+ * no desde que se envió: si el servicio se satura, la espera también cuenta.
+ */
+public class LatencyRecorder {
+
+  private static final long HIGHEST_MICROS = TimeUnit.SECONDS.toMicros(60);
+
+  private final Map<Workload.Operation, Histogram> histograms =
+      new EnumMap<>(Workload.Operation.class);
+  private final Map<Workload.Operation, LongAdder> errors =
+      new EnumMap<>(Workload.Operation.class);
+
+  public LatencyRecorder() {
+    for (Workload.Operation operation : Workload.Operation.values()) {
+      histograms.put(operation, new ConcurrentHistogram(HIGHEST_MICROS, 3));
+      errors.put(operation, new LongAdder());
+    }
+  }
+
+  public void record(Workload.Operation operation, long intendedStartNanos, boolean success) {
+    long micros = TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - intendedStartNanos);
+    histograms.get(operation).recordValue(Math.min(Math.max(micros, 1), HIGHEST_MICROS));
+    if (!success) {
+      errors.get(operation).increment();
+    }
+  }
+
+  /** Resultado de la ventana medida. */
+  public Report report(double seconds) {
+    Histogram total = new Histogram(HIGHEST_MICROS, 3);
+    long totalErrors = 0;
+    List<String> lines = new ArrayList<>();
+    lines.add(String.format("%-24s %9s %9s %9s %9s %9s %8s", "operation", "requests",
+        "rps", "p50 ms", "p99 ms", "p999 ms", "errors"));
+    for (Workload.Operation operation : Workload.Operation.values()) {
+      Histogram histogram = histograms.get(operation);
+      long operationErrors = errors.get(operation).sum();
+      total.add(histogram);
+      totalErrors += operationErrors;
+      lines.add(line(operation.name(), histogram, operationErrors, seconds));
+    }
+    lines.add(line("TOTAL", total, totalErrors, seconds));
+    return new Report(lines, total.getTotalCount() / seconds, millis(total, 50),
+        millis(total, 99), millis(total, 99.9),
+        total.getTotalCount() == 0 ? 0 : (double) totalErrors / total.getTotalCount());
+  }
+
+  private static String line(String name, Histogram histogram, long errors, double seconds) {
+    return String.format("%-24s %9d %9.1f %9.2f %9.2f %9.2f %8d", name,
+        histogram.getTotalCount(), histogram.getTotalCount() / seconds, millis(histogram, 50),
+        millis(histogram, 99), millis(histogram, 99.9), errors);
+  }
+
+  private static double millis(Histogram histogram, double percentile) {
+    return histogram.getValueAtPercentile(percentile) / 1000.0;
+  }
+
+  /** Resumen de la corrida. */
+  public static class Report {
+    final List<String> lines;
+    final double rps;
+    final double p50Millis;
+    final double p99Millis;
+    final double p999Millis;
+    final double errorRate;
+
+    Report(List<String> lines, double rps, double p50Millis, double p99Millis,
+           double p999Millis, double errorRate) {
+      this.lines = lines;
+      this.rps = rps;
+      this.p50Millis = p50Millis;
+      this.p99Millis = p99Millis;
+      this.p999Millis = p999Millis;
+      this.errorRate = errorRate;
+    }
+  }
+}
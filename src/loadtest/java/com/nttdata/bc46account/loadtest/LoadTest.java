@@ -0,0 +1,117 @@
+package com.nttdata.bc46account.loadtest;
+
+import com.nttdata.bc46account.Bc46AccountApplication;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Flux;
+
+/**
+ * Prueba de carga del servicio de cuentas (perfil Maven loadtest).
+ * Sin loadtest.base-url levanta el servicio en proceso con el perfil inmemory, siembra cuentas
+ * y envía la mezcla de Workload a tasa fija (carga abierta) durante el calentamiento y la
+ * ventana medida. Reporta p50/p99/p999 y RPS sostenido, y termina con código 1 si se excede
+ * algún umbral de regresión.
+ */
+@Slf4j
+public class LoadTest {
+
+  /** Cada tick envía rate/100 solicitudes; la latencia cuenta desde el inicio del tick. */
+  private static final Duration TICK = Duration.ofMillis(10);
+  private static final Path RESULT = Path.of("target", "loadtest-result.txt");
+
+  public static void main(String[] args) throws IOException {
+    LoadTestConfig config = new LoadTestConfig();
+    ConfigurableApplicationContext context = null;
+    String baseUrl = config.getBaseUrl();
+    if (baseUrl.isEmpty()) {
+      /** devtools reiniciaría la aplicación en otro hilo; aquí no aporta nada. */
+      System.setProperty("spring.devtools.restart.enabled", "false");
+      context = new SpringApplicationBuilder(Bc46AccountApplication.class)
+          .profiles("inmemory")
+          .properties("server.port=0", "logging.level.com.nttdata=WARN")
+          .run();
+      baseUrl = "http://localhost:"
+          + context.getEnvironment().getProperty("local.server.port");
+    }
+    log.info("Load test against {} at {} req/s", baseUrl, config.getRate());
+
+    int status;
+    try {
+      Workload workload = new Workload(WebClient.create(baseUrl), config);
+      workload.seed().block();
+      run(workload, config, new LatencyRecorder(), config.getWarmup());
+      LatencyRecorder recorder = new LatencyRecorder();
+      long start = System.nanoTime();
+      run(workload, config, recorder, config.getDuration());
+      double seconds = (System.nanoTime() - start) / 1e9;
+      status = report(recorder.report(seconds), config);
+    } finally {
+      if (context != null) {
+        context.close();
+      }
+    }
+    System.exit(status);
+  }
+
+  private static void run(Workload workload, LoadTestConfig config, LatencyRecorder recorder,
+                          Duration duration) {
+    long ticks = duration.toMillis() / TICK.toMillis();
+    double perTick = config.getRate() * TICK.toMillis() / 1000.0;
+    long start = System.nanoTime() + TICK.toNanos();
+    /** Si el servicio no da abasto, los ticks se encolan en vez de frenar la tasa (carga
+     * abierta) y su espera en la cola se suma a la latencia medida. */
+    Flux.interval(TICK)
+        .take(ticks)
+        .onBackpressureBuffer()
+        .concatMap(tick -> {
+          long intendedStart = start + tick * TICK.toNanos();
+          /** Reparte el resto fraccional para sostener la tasa exacta en promedio. */
+          int count = (int) (Math.floor((tick + 1) * perTick) - Math.floor(tick * perTick));
+          return Flux.range(0, count).map(i -> intendedStart);
+        })
+        .flatMap(intendedStart -> {
+          Workload.Operation operation = workload.nextOperation();
+          return workload.execute(operation)
+              .doOnNext(success -> recorder.record(operation, intendedStart, success));
+        }, config.getMaxInFlight())
+        .then()
+        .block();
+  }
+
+  private static int report(LatencyRecorder.Report report, LoadTestConfig config)
+      throws IOException {
+    List<String> lines = new ArrayList<>(report.lines);
+    List<String> failures = new ArrayList<>();
+    check(failures, report.p99Millis > config.getMaxP99Millis(), "p99 %.2f ms > %.2f ms",
+        report.p99Millis, config.getMaxP99Millis());
+    check(failures, report.p999Millis > config.getMaxP999Millis(), "p999 %.2f ms > %.2f ms",
+        report.p999Millis, config.getMaxP999Millis());
+    check(failures, report.rps < config.getMinRps(), "rps %.1f < %.1f",
+        report.rps, config.getMinRps());
+    check(failures, report.errorRate > config.getMaxErrorRate(), "error rate %.4f > %.4f",
+        report.errorRate, config.getMaxErrorRate());
+    lines.add("");
+    lines.add(failures.isEmpty() ? "RESULT: PASS" : "RESULT: FAIL");
+    failures.forEach(failure -> lines.add("  threshold exceeded: " + failure));
+
+    lines.forEach(System.out::println);
+    Files.createDirectories(RESULT.getParent());
+    Files.write(RESULT, lines);
+    return failures.isEmpty() ? 0 : 1;
+  }
+
+  private static void check(List<String> failures, boolean exceeded, String format,
+                            Object... values) {
+    if (exceeded) {
+      failures.add(String.format(format, values));
+    }
+  }
+}
@@ -0,0 +1,54 @@
+package com.nttdata.bc46account.loadtest;
+
+import java.time.Duration;
+import lombok.Getter;
+
+/**
+ * Parámetros de la prueba de carga, leídos de propiedades del sistema (-Dloadtest.*).
+ * Los valores por defecto del perfil loadtest están en el pom.
+ */
+@Getter
+public class LoadTestConfig {
+
+  /** URL de un servicio ya levantado; vacía para levantarlo en proceso con el perfil inmemory. */
+  private final String baseUrl = property("loadtest.base-url", "");
+  /** Solicitudes por segundo que se intentan enviar (carga abierta). */
+  private final int rate = Integer.parseInt(property("loadtest.rate", "500"));
+  private final int maxInFlight = Integer.parseInt(property("loadtest.max-in-flight", "256"));
+  private final Duration warmup = Duration.parse(property("loadtest.warmup", "PT10S"));
+  private final Duration duration = Duration.parse(property("loadtest.duration", "PT30S"));
+  /** Cuentas creadas antes de la prueba, repartidas en clientes empresariales. */
+  private final int accounts = Integer.parseInt(property("loadtest.accounts", "1000"));
+  private final int accountsPerCustomer =
+      Integer.parseInt(property("loadtest.accounts-per-customer", "5"));
+  /** Sesgo: hotTraffic de las operaciones recae sobre las primeras hotAccounts cuentas. */
+  private final int hotAccounts = Integer.parseInt(property("loadtest.hot-accounts", "10"));
+  private final double hotTraffic = Double.parseDouble(property("loadtest.hot-traffic", "0.8"));
+  /** Mezcla en porcentajes: findById,findAccountsByCustomer,saveAccount,transfer,withdrawal. */
+  private final int[] mix = parseMix(property("loadtest.mix", "35,15,5,25,20"));
+  /** Umbrales de regresión; la corrida falla si alguno se excede. */
+  private final double maxP99Millis = Double.parseDouble(property("loadtest.max-p99-ms", "250"));
+  private final double maxP999Millis =
+      Double.parseDouble(property("loadtest.max-p999-ms", "1000"));
+  private final double minRps = Double.parseDouble(property("loadtest.min-rps", "450"));
+  private final double maxErrorRate =
+      Double.parseDouble(property("loadtest.max-error-rate", "0.01"));
+
+  private static String property(String name, String defaultValue) {
+    String value = System.getProperty(name);
+    return value == null || value.isBlank() ? defaultValue : value.trim();
+  }
+
+  private static int[] parseMix(String mix) {
+    String[] parts = mix.split(",");
+    if (parts.length != Workload.Operation.values().length) {
+      throw new IllegalArgumentException("loadtest.mix debe tener "
+          + Workload.Operation.values().length + " porcentajes: " + mix);
+    }
+    int[] weights = new int[parts.length];
+    for (int i = 0; i < parts.length; i++) {
+      weights[i] = Integer.parseInt(parts[i].trim());
+    }
+    return weights;
+  }
+}
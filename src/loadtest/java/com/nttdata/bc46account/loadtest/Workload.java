@@ -0,0 +1,160 @@
+package com.nttdata.bc46account.loadtest;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Mezcla de solicitudes de la prueba de carga sobre la API de cuentas.
+ * Las cuentas sembradas son empresariales (P002) para poder tener varias por cliente;
+ * las altas de la carga usan clientes personales nuevos para no chocar con los duplicados.
+ */
+@Slf4j
+public class Workload {
+
+  /** Operaciones de la mezcla, en el orden de loadtest.mix. */
+  public enum Operation {
+    FIND_BY_ID,
+    FIND_ACCOUNTS_BY_CUSTOMER,
+    SAVE_ACCOUNT,
+    TRANSFER,
+    WITHDRAWAL
+  }
+
+  private static final String API = "/api/accounts";
+  /** Saldo inicial de las cuentas sembradas, suficiente para toda la corrida. */
+  private static final String SEED_BALANCE = "100000000.00";
+
+  private final WebClient webClient;
+  private final LoadTestConfig config;
+  private final int[] cumulativeMix;
+  private final List<SeedAccount> accounts = new ArrayList<>();
+  private final AtomicLong sequence = new AtomicLong();
+
+  public Workload(WebClient webClient, LoadTestConfig config) {
+    this.webClient = webClient;
+    this.config = config;
+    int[] mix = config.getMix();
+    this.cumulativeMix = new int[mix.length];
+    int sum = 0;
+    for (int i = 0; i < mix.length; i++) {
+      sum += mix[i];
+      cumulativeMix[i] = sum;
+    }
+  }
+
+  /** Crea las cuentas de la prueba antes de empezar a medir. */
+  public Mono<Void> seed() {
+    return Flux.range(0, config.getAccounts())
+        .flatMap(i -> webClient.post().uri(API + "/saveAccount")
+            .bodyValue(Map.of("accountType", "empresarial", "idProduct", "P002",
+                "idCustomer", customerOf(i), "accountNumber", accountNumber(i),
+                "cci", cci(i), "availableBalance", SEED_BALANCE,
+                "holderAccount", List.of(Map.of("nombre", "Titular " + i,
+                    "dni", String.format("%08d", i), "rol", "titular"))))
+            .retrieve()
+            .bodyToMono(Map.class)
+            .map(body -> new SeedAccount((String) body.get("idAccount"), customerOf(i),
+                accountNumber(i))), 32)
+        .collectList()
+        .doOnNext(seeded -> {
+          seeded.sort((a, b) -> a.accountNumber.compareTo(b.accountNumber));
+          accounts.addAll(seeded);
+          log.info("Seeded {} accounts", seeded.size());
+        })
+        .then();
+  }
+
+  public Operation nextOperation() {
+    int pick = ThreadLocalRandom.current().nextInt(cumulativeMix[cumulativeMix.length - 1]);
+    for (int i = 0; i < cumulativeMix.length; i++) {
+      if (pick < cumulativeMix[i]) {
+        return Operation.values()[i];
+      }
+    }
+    return Operation.FIND_BY_ID;
+  }
+
+  /** Ejecuta una solicitud; emite true si la respuesta fue exitosa. */
+  public Mono<Boolean> execute(Operation operation) {
+    int index = pickAccount();
+    SeedAccount account = accounts.get(index);
+    switch (operation) {
+      case FIND_BY_ID:
+        return exchange(webClient.get().uri(API + "/findById/{id}", account.idAccount));
+      case FIND_ACCOUNTS_BY_CUSTOMER:
+        return exchange(webClient.get()
+            .uri(API + "/findAccountsByCustomer/{idCustomer}", account.idCustomer));
+      case SAVE_ACCOUNT:
+        long n = config.getAccounts() + sequence.incrementAndGet();
+        return exchange(webClient.post().uri(API + "/saveAccount")
+            .bodyValue(Map.of("accountType", "personal", "idProduct", "P001",
+                "idCustomer", "LN" + n, "accountNumber", accountNumber(n), "cci", cci(n),
+                "availableBalance", "0.00")));
+      case TRANSFER:
+        int targetIndex = pickAccount();
+        SeedAccount target = accounts.get(targetIndex == index
+            ? (index + 1) % accounts.size() : targetIndex);
+        return exchange(webClient.post()
+            .uri(API + "/addOperationToAccount/{id}", account.idAccount)
+            .bodyValue(Map.of("operation", "TRANSFERIR_DINERO", "movementType",
+                "Tran.Ctas.Terc", "moneda", "PEN", "monto", "1.00",
+                "targetAccount", target.accountNumber)));
+      default:
+        return exchange(webClient.post()
+            .uri(API + "/addOperationToAccount/{id}", account.idAccount)
+            .bodyValue(Map.of("operation", "COBRAR_GIROS", "movementType", "Retiro",
+                "moneda", "PEN", "monto", "0.50")));
+    }
+  }
+
+  /** Con probabilidad hotTraffic elige entre las cuentas calientes; si no, entre todas. */
+  private int pickAccount() {
+    ThreadLocalRandom random = ThreadLocalRandom.current();
+    int hot = Math.min(config.getHotAccounts(), accounts.size());
+    int bound = hot > 0 && random.nextDouble() < config.getHotTraffic() ? hot : accounts.size();
+    return random.nextInt(bound);
+  }
+
+  private Mono<Boolean> exchange(WebClient.RequestHeadersSpec<?> request) {
+    return request.retrieve()
+        .onStatus(HttpStatus::isError, response -> Mono.empty())
+        .toBodilessEntity()
+        .map(ResponseEntity::getStatusCode)
+        .map(HttpStatus::is2xxSuccessful)
+        .onErrorReturn(false);
+  }
+
+  private String customerOf(long index) {
+    return "LC" + index / config.getAccountsPerCustomer();
+  }
+
+  private static String accountNumber(long index) {
+    return String.format("19%012d", index);
+  }
+
+  private static String cci(long index) {
+    return String.format("002%014d000", index);
+  }
+
+  /** Cuenta sembrada con los datos que usa la mezcla. */
+  private static class SeedAccount {
+    final String idAccount;
+    final String idCustomer;
+    final String accountNumber;
+
+    SeedAccount(String idAccount, String idCustomer, String accountNumber) {
+      this.idAccount = idAccount;
+      this.idCustomer = idCustomer;
+      this.accountNumber = accountNumber;
+    }
+  }
+}
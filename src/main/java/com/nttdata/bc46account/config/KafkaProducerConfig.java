@@ -1,31 +1,61 @@
 package com.nttdata.bc46account.config;
 
 
-import com.fasterxml.jackson.databind.ObjectMapper;
-import java.util.HashMap;
 import java.util.Map;
 import org.apache.kafka.clients.producer.ProducerConfig;
+import org.apache.kafka.common.serialization.StringSerializer;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.kafka.KafkaProperties;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
-import org.springframework.kafka.core.DefaultKafkaProducerFactory;
-import org.springframework.kafka.core.KafkaTemplate;
-import org.springframework.kafka.core.ProducerFactory;
-import org.springframework.kafka.support.serializer.JsonSerializer;
+import org.springframework.context.annotation.Profile;
+import reactor.core.scheduler.Schedulers;
+import reactor.kafka.sender.KafkaSender;
+import reactor.kafka.sender.SenderOptions;
+import reactor.kafka.sender.internals.ProducerFactory;
 
+/**
+ * Ntt Data - Top Employer 2023.
+ * Todos los derechos Reservados.
+ * Productor reactivo de Kafka. La conexión y los parámetros se toman de spring.kafka.producer.*;
+ * si no se configuran se usan valores orientados a throughput con entrega segura.
+ */
 @Configuration
+@Profile("!inmemory")
 public class KafkaProducerConfig {
+
   @Bean
-  public ProducerFactory<Object, String> producerFactory(ObjectMapper objectMapper) {
-    Map<String, Object> config = new HashMap<>();
-    config.put(ProducerConfig.BOOTSTRAP_SERVERS_CONFIG, "localhost:9092"); // Reemplaza con la URL de Kafka
-    config.put(ProducerConfig.KEY_SERIALIZER_CLASS_CONFIG, JsonSerializer.class);
-    config.put(ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, JsonSerializer.class);
+  public SenderOptions<String, String> senderOptions(
+      KafkaProperties kafkaProperties,
+      @Value("${account.kafka.producer.max-in-flight:1024}") int maxInFlight) {
+    Map<String, Object> config = kafkaProperties.buildProducerProperties();
+    config.putIfAbsent(ProducerConfig.ACKS_CONFIG, "all");
+    config.putIfAbsent(ProducerConfig.ENABLE_IDEMPOTENCE_CONFIG, true);
+    config.putIfAbsent(ProducerConfig.LINGER_MS_CONFIG, 5);
+    config.putIfAbsent(ProducerConfig.BATCH_SIZE_CONFIG, 64 * 1024);
+    config.putIfAbsent(ProducerConfig.COMPRESSION_TYPE_CONFIG, "lz4");
+    /** El payload del outbox ya es JSON: se envía como texto, sin volver a serializarlo. */
+    config.put(ProducerConfig.KEY_SERIALIZER_CLASS_CONFIG, StringSerializer.class);
+    config.put(ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, StringSerializer.class);
 
-    return new DefaultKafkaProducerFactory<>(config);
+    /** Los envíos ya corren en el hilo propio de KafkaSender; las confirmaciones se emiten en
+     * parallel para que marcar el outbox y las métricas no ocupen el hilo de red del
+     * productor, que atiende a todos los envíos. */
+    return SenderOptions.<String, String>create(config)
+        .maxInFlight(maxInFlight)
+        .stopOnError(false)
+        .scheduler(Schedulers.parallel());
   }
 
-  @Bean(name = "kafkaTemplate")
-  public KafkaTemplate<Object, String> kafkaTemplate(ObjectMapper objectMapper) {
-    return new KafkaTemplate<>(producerFactory(objectMapper));
+  /**
+   * Con Sleuth se usa su ProducerFactory, que agrega a cada record las cabeceras de la traza
+   * activa; así el span de la solicitud continúa en Kafka.
+   **/
+  @Bean(destroyMethod = "close")
+  public KafkaSender<String, String> kafkaSender(SenderOptions<String, String> senderOptions,
+                                                 ObjectProvider<ProducerFactory> producerFactory) {
+    return KafkaSender.create(producerFactory.getIfAvailable(() -> ProducerFactory.INSTANCE),
+        senderOptions);
   }
 }
@@ -0,0 +1,91 @@
+package com.nttdata.bc46account.config;
+
+import com.nttdata.bc46account.model.Account;
+import com.nttdata.bc46account.model.BalanceSnapshot;
+import com.nttdata.bc46account.model.IdempotencyRecord;
+import com.nttdata.bc46account.model.Movement;
+import com.nttdata.bc46account.model.MovementArchive;
+import com.nttdata.bc46account.model.OutboxEvent;
+import com.nttdata.bc46account.model.PendingTransfer;
+import java.time.Duration;
+import java.util.List;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Profile;
+import org.springframework.core.annotation.Order;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.index.IndexResolver;
+import org.springframework.data.mongodb.core.index.MongoPersistentEntityIndexResolver;
+import org.springframework.data.mongodb.core.mapping.MongoMappingContext;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Ntt Data - Top Employer 2023.
+ * Todos los derechos Reservados.
+ * Crea al iniciar los índices declarados con anotaciones en los documentos,
+ * ya que Spring Boot no los crea automáticamente (auto-index-creation=false).
+ * Corre antes que las migraciones y bloquea el arranque hasta terminar. Cada índice se crea
+ * por separado: uno que falla se registra en el log sin impedir los siguientes, pero si falta
+ * un índice único (número de cuenta, CCI) el arranque falla, porque sin él se podrían
+ * registrar cuentas duplicadas. Si Mongo no responde dentro de account.mongo.index-timeout
+ * el arranque también falla, en lugar de quedar esperando.
+ * Se desactiva con account.mongo.ensure-indexes=false (pruebas de contexto sin Mongo).
+ */
+@Component
+@Profile("!inmemory")
+@ConditionalOnProperty(name = "account.mongo.ensure-indexes", havingValue = "true",
+    matchIfMissing = true)
+@Order(0)
+@Slf4j
+public class MongoIndexInitializer implements ApplicationRunner {
+
+  static final List<Class<?>> INDEXED_DOCUMENTS = List.of(Account.class, Movement.class,
+      OutboxEvent.class, IdempotencyRecord.class, BalanceSnapshot.class,
+      PendingTransfer.class, MovementArchive.class);
+
+  private final ReactiveMongoTemplate mongoTemplate;
+  private final IndexResolver indexResolver;
+  private final Duration timeout;
+
+  public MongoIndexInitializer(ReactiveMongoTemplate mongoTemplate,
+                               MongoMappingContext mappingContext,
+                               @Value("${account.mongo.index-timeout:PT2M}") Duration timeout) {
+    this.mongoTemplate = mongoTemplate;
+    this.indexResolver = new MongoPersistentEntityIndexResolver(mappingContext);
+    this.timeout = timeout;
+  }
+
+  @Override
+  public void run(ApplicationArguments args) {
+    List<String> missingUnique = ensureIndexes().block(timeout);
+    if (!missingUnique.isEmpty()) {
+      throw new IllegalStateException("No se pudieron crear los índices únicos "
+          + missingUnique);
+    }
+  }
+
+  /**
+   * Crea todos los índices, continuando ante errores. Retorna los índices únicos que no se
+   * pudieron crear.
+   */
+  Mono<List<String>> ensureIndexes() {
+    return Flux.fromIterable(INDEXED_DOCUMENTS)
+        .concatMap(type -> Flux.fromIterable(indexResolver.resolveIndexFor(type))
+            .concatMap(index -> mongoTemplate.indexOps(type).ensureIndex(index)
+                .doOnNext(name -> log.info("Mongo index {} ensured", name))
+                .then(Mono.<String>empty())
+                .onErrorResume(error -> {
+                  String name = type.getSimpleName() + "."
+                      + index.getIndexOptions().get("name");
+                  log.error("Could not create Mongo index {}", name, error);
+                  return Boolean.TRUE.equals(index.getIndexOptions().get("unique"))
+                      ? Mono.just(name) : Mono.empty();
+                })))
+        .collectList();
+  }
+}
@@ -0,0 +1,34 @@
+package com.nttdata.bc46account.config;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.mongodb.ReactiveMongoDatabaseFactory;
+import org.springframework.data.mongodb.ReactiveMongoTransactionManager;
+import org.springframework.transaction.ReactiveTransactionManager;
+import org.springframework.transaction.reactive.TransactionalOperator;
+
+/**
+ * Ntt Data - Top Employer 2023.
+ * Todos los derechos Reservados.
+ * Las transacciones de Mongo requieren un replica set; con una instancia standalone
+ * se desactivan con account.mongo.transactions.enabled=false.
+ */
+@Configuration
+public class MongoTransactionConfig {
+
+  @Bean
+  public ReactiveTransactionManager transactionManager(
+      ObjectProvider<ReactiveMongoDatabaseFactory> databaseFactory,
+      @Value("${account.mongo.transactions.enabled:true}") boolean enabled) {
+    /** Con el perfil inmemory no hay Mongo: las transacciones quedan desactivadas. */
+    return enabled ? new ReactiveMongoTransactionManager(databaseFactory.getObject())
+        : new NoOpReactiveTransactionManager();
+  }
+
+  @Bean
+  public TransactionalOperator transactionalOperator(ReactiveTransactionManager transactionManager) {
+    return TransactionalOperator.create(transactionManager);
+  }
+}
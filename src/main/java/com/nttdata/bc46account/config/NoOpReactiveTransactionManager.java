@@ -0,0 +1,39 @@
+package com.nttdata.bc46account.config;
+
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.reactive.AbstractReactiveTransactionManager;
+import org.springframework.transaction.reactive.GenericReactiveTransaction;
+import org.springframework.transaction.reactive.TransactionSynchronizationManager;
+import reactor.core.publisher.Mono;
+
+/**
+ * Ntt Data - Top Employer 2023.
+ * Todos los derechos Reservados.
+ * Administrador de transacciones que no hace nada; se usa cuando Mongo no soporta
+ * transacciones (instancia standalone) o en almacenamientos en memoria.
+ */
+public class NoOpReactiveTransactionManager extends AbstractReactiveTransactionManager {
+
+  @Override
+  protected Object doGetTransaction(TransactionSynchronizationManager synchronizationManager) {
+    return new Object();
+  }
+
+  @Override
+  protected Mono<Void> doBegin(TransactionSynchronizationManager synchronizationManager,
+                               Object transaction, TransactionDefinition definition) {
+    return Mono.empty();
+  }
+
+  @Override
+  protected Mono<Void> doCommit(TransactionSynchronizationManager synchronizationManager,
+                                GenericReactiveTransaction status) {
+    return Mono.empty();
+  }
+
+  @Override
+  protected Mono<Void> doRollback(TransactionSynchronizationManager synchronizationManager,
+                                  GenericReactiveTransaction status) {
+    return Mono.empty();
+  }
+}
@@ -1,12 +1,21 @@
 package com.nttdata.bc46account.controller;
 
 import com.nttdata.bc46account.model.Account;
+import com.nttdata.bc46account.model.AccountStatement;
+import com.nttdata.bc46account.model.AccountSummary;
+import com.nttdata.bc46account.model.AccountUpdate;
+import com.nttdata.bc46account.model.BulkOperationResult;
+import com.nttdata.bc46account.model.CustomerPortfolio;
 import com.nttdata.bc46account.model.Movement;
+import com.nttdata.bc46account.model.MovementPage;
+import com.nttdata.bc46account.model.OperationType;
 import com.nttdata.bc46account.service.AccountService;
 import java.time.LocalDateTime;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import reactor.core.publisher.Flux;
@@ -26,37 +35,114 @@ public class AccountController {
 
 
   /**
-   * Consultar todas las cuentas bancarias existentes.
+   * Consultar todas las cuentas bancarias existentes, sin sus movimientos
+   * (se consultan con /findMovementsByAccount).
    **/
   @GetMapping("/findAll")
   public Flux<Account> findAll() {
     log.info("All bank accounts were consulted");
-    return bankAccountService.findAll()
-        .doOnNext(bankAccount -> bankAccount.toString());
+    return bankAccountService.findAll();
   }
 
   /**
-   * Consultar cuentas bancarias por idCustomer.
+   * Consultar todas las cuentas bancarias como flujo (NDJSON o SSE según el header Accept).
+   * Cada cuenta se envía apenas se lee de Mongo y la lectura avanza al ritmo del cliente.
+   * No incluye los movimientos bancarios.
+   **/
+  @GetMapping(value = "/streamAll",
+      produces = {MediaType.APPLICATION_NDJSON_VALUE, MediaType.TEXT_EVENT_STREAM_VALUE})
+  public Flux<Account> streamAll() {
+    log.info("All bank accounts were streamed");
+    return bankAccountService.streamAll();
+  }
+
+  /**
+   * Consultar cuentas bancarias por idCustomer, sin sus movimientos.
    **/
   @GetMapping("/findAccountsByCustomer/{idCustomer}")
   /*  @CircuitBreaker(name = "accounts", fallbackMethod = "getAccountsByCustomerFallback")*/
   public Flux<Account> findByIdCustomer(@PathVariable("idCustomer") String idCustomer) {
-    log.info("The accounts were consulted by idCustomer " + idCustomer);
+    log.info("The accounts were consulted by idCustomer {}", idCustomer);
     return bankAccountService.findByIdCustomer(idCustomer);
   }
 
   /**
-   * Consultar cuenta bancaria por idAccount.
+   * Consultar el resumen (id, número, producto, tipo y saldo) de todas las cuentas.
+   **/
+  @GetMapping("/findAllSummaries")
+  public Flux<AccountSummary> findAllSummaries() {
+    log.info("All bank account summaries were consulted");
+    return bankAccountService.findAllSummaries();
+  }
+
+  /**
+   * Consultar el resumen de las cuentas bancarias de un idCustomer.
+   **/
+  @GetMapping("/findAccountSummariesByCustomer/{idCustomer}")
+  public Flux<AccountSummary> findSummariesByIdCustomer(
+      @PathVariable("idCustomer") String idCustomer) {
+    log.info("The account summaries were consulted by idCustomer {}", idCustomer);
+    return bankAccountService.findSummariesByIdCustomer(idCustomer);
+  }
+
+  /**
+   * Consultar el resumen del cliente: saldo y cantidad de cuentas por producto y fecha del
+   * último movimiento, leído del modelo customer_portfolio.
+   **/
+  @GetMapping("/findPortfolioByCustomer/{idCustomer}")
+  public Mono<CustomerPortfolio> findPortfolioByCustomer(
+      @PathVariable("idCustomer") String idCustomer) {
+    log.info("The portfolio was consulted by idCustomer {}", idCustomer);
+    return bankAccountService.findPortfolioByCustomer(idCustomer);
+  }
+
+  /**
+   * Consultar cuenta bancaria por idAccount, con sus últimos movimientos.
    **/
   @GetMapping("/findById/{id}")
   public Mono<ResponseEntity<Account>> findById(@PathVariable("id") String id) {
-    log.info("Bank account consulted by id " + id);
+    log.info("Bank account consulted by id {}", id);
     return bankAccountService.findById(id)
         .map(ResponseEntity::ok)
         .switchIfEmpty(Mono.error(() -> new RuntimeException("No se encontró la cuenta bancaria")));
 
   }
 
+  /**
+   * Consultar el historial de movimientos de una cuenta por páginas,
+   * del más reciente al más antiguo.
+   * - cursor: valor nextCursor de la página anterior (omitir en la primera página).
+   * - from / to: rango de fechas opcional (ISO, ej. 2023-10-01T00:00:00).
+   * - operation: filtro opcional por OperationType.
+   * - size: cantidad de movimientos por página (por defecto 20, máximo 100).
+   **/
+  @GetMapping("/findMovementsByAccount/{idAccount}")
+  public Mono<MovementPage> findMovementsByAccount(
+      @PathVariable("idAccount") String idAccount,
+      @RequestParam(required = false) String cursor,
+      @RequestParam(required = false)
+      @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+      @RequestParam(required = false)
+      @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+      @RequestParam(required = false) OperationType operation,
+      @RequestParam(required = false) Integer size) {
+    log.info("Bank movements consulted by idAccount {}", idAccount);
+    return bankAccountService.findMovementsByAccount(idAccount, cursor, from, to, operation, size);
+  }
+
+  /**
+   * Estado de cuenta del periodo [from, to) (ISO, ej. 2023-10-01T00:00:00):
+   * saldo inicial, movimientos del más antiguo al más reciente y saldo final.
+   **/
+  @GetMapping("/findStatementByAccount/{idAccount}")
+  public Mono<AccountStatement> findStatementByAccount(
+      @PathVariable("idAccount") String idAccount,
+      @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+      @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to) {
+    log.info("Account statement consulted by idAccount {} from {} to {}", idAccount, from, to);
+    return bankAccountService.getStatement(idAccount, from, to);
+  }
+
   /**
    * Crear una cuenta bancaria de un producto relacionado.
    * Requerimientos permitidos para generar una cuenta bancaria:
@@ -77,10 +163,10 @@ public class AccountController {
    * Editar datos de una cuenta bancaria(se restringe la edición de llaves compuestas).
    **/
   @PutMapping("/updateAccountById/{idAccount}")
-  public Mono<ResponseEntity<Account>> update(@RequestBody Account bankAccount,
+  public Mono<ResponseEntity<Account>> update(@RequestBody AccountUpdate accountUpdate,
                                               @PathVariable("idAccount") String idAccount) {
     log.info("A bank account was changed");
-    return bankAccountService.updateAccount(bankAccount, idAccount)
+    return bankAccountService.updateAccount(accountUpdate, idAccount)
         .map(ResponseEntity::ok)
         .defaultIfEmpty(ResponseEntity.badRequest().build());
   }
@@ -108,10 +194,26 @@ public class AccountController {
    **/
   @PostMapping("/addOperationToAccount/{idAccount}")
   public Mono<ResponseEntity<Movement>> save(@PathVariable String idAccount,
-                                             @RequestBody Movement movement) {
+                                             @RequestBody Movement movement,
+                                             @RequestHeader(value = "Idempotency-Key",
+                                                 required = false) String idempotencyKey) {
     log.info("A bank movement was inserted");
     movement.setCreationDatetime(LocalDateTime.now());
-    return bankAccountService.addOperationToAccount(idAccount, movement)
+    return bankAccountService.addOperationToAccount(idAccount, movement, idempotencyKey)
         .map(bc -> new ResponseEntity<>(bc, HttpStatus.CREATED));
   }
+
+  /**
+   * Registrar movimientos de varias cuentas en una sola solicitud (arreglo JSON o NDJSON).
+   * Cada movimiento indica su idAccount; se responde un resultado por movimiento, en el
+   * mismo orden, a medida que se aplica cada lote.
+   **/
+  @PostMapping(value = "/addOperationsToAccounts",
+      consumes = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE},
+      produces = {MediaType.APPLICATION_NDJSON_VALUE, MediaType.APPLICATION_JSON_VALUE})
+  public Flux<BulkOperationResult> addOperations(@RequestBody Flux<Movement> movements) {
+    log.info("A bulk of bank movements was submitted");
+    return bankAccountService.addOperations(movements
+        .doOnNext(movement -> movement.setCreationDatetime(LocalDateTime.now())));
+  }
 }
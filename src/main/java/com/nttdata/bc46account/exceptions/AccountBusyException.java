@@ -0,0 +1,8 @@
+package com.nttdata.bc46account.exceptions;
+
+public class AccountBusyException extends RuntimeException {
+  public AccountBusyException(String idAccount) {
+    super("La cuenta " + idAccount + " tiene demasiadas operaciones en espera."
+        + " Intente nuevamente.");
+  }
+}
@@ -37,4 +37,62 @@ public class GlobalExceptionHandler {
     return new ResponseEntity<>(body, HttpStatus.BAD_REQUEST);
   }
 
-}
\ No newline at end of file
+  @ExceptionHandler(InvalidMovementQueryException.class)
+  public ResponseEntity<Object> handleInvalidMovementQueryException(
+      InvalidMovementQueryException ex) {
+    Map<String, Object> body = new LinkedHashMap<>();
+    body.put("code", "INVALID_MOVEMENT_QUERY");
+    body.put("message", ex.getMessage());
+
+    return new ResponseEntity<>(body, HttpStatus.BAD_REQUEST);
+  }
+
+  @ExceptionHandler(OperationInProgressException.class)
+  public ResponseEntity<Object> handleOperationInProgressException(
+      OperationInProgressException ex) {
+    Map<String, Object> body = new LinkedHashMap<>();
+    body.put("code", "OPERATION_IN_PROGRESS");
+    body.put("message", ex.getMessage());
+
+    return new ResponseEntity<>(body, HttpStatus.CONFLICT);
+  }
+
+  @ExceptionHandler(AccountBusyException.class)
+  public ResponseEntity<Object> handleAccountBusyException(AccountBusyException ex) {
+    Map<String, Object> body = new LinkedHashMap<>();
+    body.put("code", "ACCOUNT_BUSY");
+    body.put("message", ex.getMessage());
+
+    return new ResponseEntity<>(body, HttpStatus.TOO_MANY_REQUESTS);
+  }
+
+  @ExceptionHandler(InsufficientFundsException.class)
+  public ResponseEntity<Object> handleInsufficientFundsException(
+      InsufficientFundsException ex) {
+    Map<String, Object> body = new LinkedHashMap<>();
+    body.put("code", "INSUFFICIENT_FUNDS");
+    body.put("message", ex.getMessage());
+
+    return new ResponseEntity<>(body, HttpStatus.BAD_REQUEST);
+  }
+
+  @ExceptionHandler(TargetAccountNotFoundException.class)
+  public ResponseEntity<Object> handleTargetAccountNotFoundException(
+      TargetAccountNotFoundException ex) {
+    Map<String, Object> body = new LinkedHashMap<>();
+    body.put("code", "TARGET_ACCOUNT_NOT_FOUND");
+    body.put("message", ex.getMessage());
+
+    return new ResponseEntity<>(body, HttpStatus.BAD_REQUEST);
+  }
+
+  @ExceptionHandler(InvalidOperationException.class)
+  public ResponseEntity<Object> handleInvalidOperationException(InvalidOperationException ex) {
+    Map<String, Object> body = new LinkedHashMap<>();
+    body.put("code", "INVALID_OPERATION");
+    body.put("message", ex.getMessage());
+
+    return new ResponseEntity<>(body, HttpStatus.BAD_REQUEST);
+  }
+
+}
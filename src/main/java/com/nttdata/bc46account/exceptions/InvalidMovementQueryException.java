@@ -0,0 +1,7 @@
+package com.nttdata.bc46account.exceptions;
+
+public class InvalidMovementQueryException extends RuntimeException {
+  public InvalidMovementQueryException(String message) {
+    super(message);
+  }
+}
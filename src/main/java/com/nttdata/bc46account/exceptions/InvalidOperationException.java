@@ -0,0 +1,7 @@
+package com.nttdata.bc46account.exceptions;
+
+public class InvalidOperationException extends RuntimeException {
+  public InvalidOperationException(String message) {
+    super(message);
+  }
+}
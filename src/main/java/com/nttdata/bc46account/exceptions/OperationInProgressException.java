@@ -0,0 +1,7 @@
+package com.nttdata.bc46account.exceptions;
+
+public class OperationInProgressException extends RuntimeException {
+  public OperationInProgressException(String idempotencyKey) {
+    super("La operación con clave " + idempotencyKey + " aún está en proceso.");
+  }
+}
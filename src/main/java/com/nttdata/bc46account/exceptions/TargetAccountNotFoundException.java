@@ -0,0 +1,12 @@
+package com.nttdata.bc46account.exceptions;
+
+/**
+ * Ntt Data - Top Employer 2023.
+ * Todos los derechos Reservados.
+ * La cuenta destino de una transferencia no existe; la operación no se aplica.
+ */
+public class TargetAccountNotFoundException extends InvalidOperationException {
+  public TargetAccountNotFoundException(String accountNumber) {
+    super("No existe la cuenta destino " + accountNumber + ".");
+  }
+}
@@ -0,0 +1,37 @@
+package com.nttdata.bc46account.migration;
+
+import com.nttdata.bc46account.service.CustomerPortfolios;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+/**
+ * Ntt Data - Top Employer 2023.
+ * Todos los derechos Reservados.
+ * Reconstruye la colección customer_portfolio desde las cuentas y sus movimientos: para
+ * poblarla por primera vez o corregirla si se perdieron incrementos.
+ * Se activa con account.migration.customer-portfolios=true; puede re-ejecutarse.
+ * Corre después de las migraciones de movimientos y montos, que cambian lo que suma.
+ */
+@Component
+@Order(3)
+@ConditionalOnProperty(name = "account.migration.customer-portfolios", havingValue = "true")
+@Slf4j
+public class CustomerPortfolioRebuild implements ApplicationRunner {
+
+  private final CustomerPortfolios customerPortfolios;
+
+  public CustomerPortfolioRebuild(CustomerPortfolios customerPortfolios) {
+    this.customerPortfolios = customerPortfolios;
+  }
+
+  @Override
+  public void run(ApplicationArguments args) {
+    customerPortfolios.rebuildAll()
+        .subscribe(count -> log.info("{} customer portfolios rebuilt", count),
+            error -> log.error("Customer portfolio rebuild failed", error));
+  }
+}
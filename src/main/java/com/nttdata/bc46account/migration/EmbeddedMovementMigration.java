@@ -0,0 +1,105 @@
+package com.nttdata.bc46account.migration;
+
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+import static org.springframework.data.mongodb.core.query.Query.query;
+
+import com.mongodb.client.result.UpdateResult;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.annotation.Order;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Ntt Data - Top Employer 2023.
+ * Todos los derechos Reservados.
+ * Mueve los movimientos embebidos en account.bankMovements a la colección movement.
+ * Los movimientos antiguos sin creationDatetime (las piernas de origen nunca la tenían)
+ * toman la del movimiento anterior de la misma cuenta o, si no hay, la fecha de alta de la
+ * cuenta: sin fecha no se pueden paginar, archivar ni incluir en estados de cuenta.
+ * Se activa con account.migration.embedded-movements=true y puede re-ejecutarse sin duplicar.
+ * Corre primero entre las migraciones (MinorUnitsMigration convierte los montos ya en la
+ * colección movement) y bloquea el arranque hasta terminar: la instancia no queda lista para
+ * recibir tráfico con movimientos a medio migrar.
+ */
+@Component
+@Order(1)
+@ConditionalOnProperty(name = "account.migration.embedded-movements", havingValue = "true")
+@Slf4j
+public class EmbeddedMovementMigration implements ApplicationRunner {
+
+  private static final String ACCOUNT_COLLECTION = "account";
+  private static final String MOVEMENT_COLLECTION = "movement";
+  private static final String EMBEDDED_FIELD = "bankMovements";
+  private static final String DATETIME_FIELD = "creationDatetime";
+
+  private final ReactiveMongoTemplate mongoTemplate;
+
+  public EmbeddedMovementMigration(ReactiveMongoTemplate mongoTemplate) {
+    this.mongoTemplate = mongoTemplate;
+  }
+
+  @Override
+  public void run(ApplicationArguments args) {
+    mongoTemplate.find(query(where(EMBEDDED_FIELD).exists(true)), Document.class,
+            ACCOUNT_COLLECTION)
+        .concatMap(this::migrate)
+        .count()
+        .doOnNext(count -> log.info("Embedded movements migrated for {} accounts", count))
+        .then(backfillDates())
+        .doOnNext(count -> log.info("creationDatetime backfilled for {} movements", count))
+        .doOnError(error -> log.error("Embedded movement migration failed", error))
+        .block();
+  }
+
+  private Mono<Void> migrate(Document account) {
+    Object idAccount = account.get("_id");
+    List<Document> embedded = account.getList(EMBEDDED_FIELD, Document.class,
+        Collections.emptyList());
+
+    /** El arreglo embebido está en orden de registro: sin fecha se usa la anterior. */
+    List<Document> movements = new ArrayList<>();
+    Object previous = account.get(DATETIME_FIELD);
+    for (Document movement : embedded) {
+      Document copy = new Document(movement).append("idAccount", idAccount);
+      if (copy.get(DATETIME_FIELD) == null && previous != null) {
+        copy.put(DATETIME_FIELD, previous);
+      }
+      previous = copy.get(DATETIME_FIELD);
+      movements.add(copy);
+    }
+
+    /** save hace upsert por _id, así una re-ejecución no duplica movimientos. */
+    return Flux.fromIterable(movements)
+        .concatMap(movement -> mongoTemplate.save(movement, MOVEMENT_COLLECTION))
+        .then(mongoTemplate.updateFirst(query(where("_id").is(idAccount)),
+            new Update().unset(EMBEDDED_FIELD), ACCOUNT_COLLECTION))
+        .then();
+  }
+
+  /**
+   * Movimientos que ya están en la colección sin creationDatetime (migrados por una versión
+   * anterior o insertados sin fecha): toman la fecha de alta de su cuenta.
+   */
+  private Mono<Long> backfillDates() {
+    return mongoTemplate.findDistinct(query(where(DATETIME_FIELD).is(null)), "idAccount",
+            MOVEMENT_COLLECTION, Object.class)
+        .concatMap(idAccount -> mongoTemplate.findById(idAccount, Document.class,
+                ACCOUNT_COLLECTION)
+            .mapNotNull(account -> account.get(DATETIME_FIELD))
+            .flatMap(creationDatetime -> mongoTemplate.updateMulti(
+                query(where("idAccount").is(idAccount).and(DATETIME_FIELD).is(null)),
+                new Update().set(DATETIME_FIELD, creationDatetime), MOVEMENT_COLLECTION))
+            .map(UpdateResult::getModifiedCount))
+        .reduce(0L, Long::sum);
+  }
+}
@@ -0,0 +1,65 @@
+package com.nttdata.bc46account.migration;
+
+import com.mongodb.client.model.Filters;
+import java.util.List;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.BsonType;
+import org.bson.Document;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.annotation.Order;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Ntt Data - Top Employer 2023.
+ * Todos los derechos Reservados.
+ * Convierte los montos guardados como Float (double en Mongo) a céntimos en un long:
+ * account.availableBalance, movement.monto y el movimiento guardado en idempotency.
+ * Se activa con account.migration.minor-units=true; solo toca documentos que aún tienen
+ * double, por lo que puede re-ejecutarse sin convertir dos veces.
+ * Corre después de EmbeddedMovementMigration, para convertir también los movimientos que
+ * esta pasa a la colección movement, y bloquea el arranque hasta terminar.
+ */
+@Component
+@Order(2)
+@ConditionalOnProperty(name = "account.migration.minor-units", havingValue = "true")
+@Slf4j
+public class MinorUnitsMigration implements ApplicationRunner {
+
+  /** Colección y campo a convertir. */
+  private static final List<List<String>> AMOUNT_FIELDS = List.of(
+      List.of("account", "availableBalance"),
+      List.of("movement", "monto"),
+      List.of("idempotency", "movement.monto"));
+
+  private final ReactiveMongoTemplate mongoTemplate;
+
+  public MinorUnitsMigration(ReactiveMongoTemplate mongoTemplate) {
+    this.mongoTemplate = mongoTemplate;
+  }
+
+  @Override
+  public void run(ApplicationArguments args) {
+    Flux.fromIterable(AMOUNT_FIELDS)
+        .concatMap(field -> migrate(field.get(0), field.get(1)))
+        .doOnError(error -> log.error("Minor units migration failed", error))
+        .doOnComplete(() -> log.info("Minor units migration finished"))
+        .blockLast();
+  }
+
+  private Mono<Void> migrate(String collection, String field) {
+    /** Sin $round, 0.29 (28.999999999999996 céntimos en double) quedaría en 28. */
+    Document toMinorUnits = new Document("$toLong", new Document("$round",
+        List.of(new Document("$multiply", List.of("$" + field, 100)), 0)));
+    List<Document> pipeline = List.of(new Document("$set", new Document(field, toMinorUnits)));
+    return mongoTemplate.execute(collection, mongoCollection -> mongoCollection
+            .updateMany(Filters.type(field, BsonType.DOUBLE), pipeline))
+        .doOnNext(result -> log.info("{} {} documents converted to minor units in {}",
+            result.getModifiedCount(), field, collection))
+        .then();
+  }
+}
@@ -1,9 +1,15 @@
 package com.nttdata.bc46account.model;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import java.time.LocalDateTime;
 import java.util.List;
 import lombok.*;
 import org.springframework.data.annotation.Id;
 import org.springframework.data.annotation.Transient;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.Indexed;
 import org.springframework.data.mongodb.core.mapping.Document;
 
 /**
@@ -17,6 +23,7 @@ import org.springframework.data.mongodb.core.mapping.Document;
 @NonNull
 @Builder
 @Document(collection = "account")
+@CompoundIndex(name = "customer_product", def = "{'idCustomer': 1, 'idProduct': 1}")
 public class Account extends BaseAuditDto {
 
   @Id
@@ -27,12 +34,21 @@ public class Account extends BaseAuditDto {
   @NonNull
   private String idCustomer;
   @NonNull
+  @Indexed(name = "account_number_unique", unique = true)
   private String accountNumber; //numero de cuenta (14 digits)
   @NonNull
+  @Indexed(name = "cci_unique", unique = true)
   private String cci; //numero de cuenta interbancaria (20 digits)
-  private Float availableBalance; //saldo disponible
+  @JsonSerialize(using = Money.Serializer.class)
+  @JsonDeserialize(using = Money.Deserializer.class)
+  private long availableBalance; //saldo disponible, en céntimos
   private List<Persona> holderAccount; //titular de la cuenta 1.*
   private List<Persona> authorizedSigner; //firmante autorizado 0.4
-  private List<Movement> bankMovements; //lista de movimientos bancarios
+  @JsonIgnore
+  private List<String> pendingTransfers; //transferencias en dos fases aplicadas y sin cerrar
+  @JsonIgnore
+  private LocalDateTime archivedBefore; //movimientos anteriores movidos a movement_archive
+  @Transient
+  private List<Movement> bankMovements; //últimos movimientos, solo en findById (solo lectura)
 
 }
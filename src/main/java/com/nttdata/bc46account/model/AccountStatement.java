@@ -0,0 +1,34 @@
+package com.nttdata.bc46account.model;
+
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import java.time.LocalDateTime;
+import java.util.List;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * Ntt Data - Top Employer 2023.
+ * Todos los derechos Reservados.
+ * Estado de cuenta del periodo [from, to).
+ */
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+public class AccountStatement {
+
+  private String idAccount;
+  private LocalDateTime from;
+  private LocalDateTime to;
+  @JsonSerialize(using = Money.Serializer.class)
+  @JsonDeserialize(using = Money.Deserializer.class)
+  private long openingBalance; //saldo antes del primer movimiento del periodo
+  @JsonSerialize(using = Money.Serializer.class)
+  @JsonDeserialize(using = Money.Deserializer.class)
+  private long closingBalance; //saldo después del último movimiento del periodo
+  private List<Movement> movements; //movimientos del periodo del más antiguo al más reciente
+
+}
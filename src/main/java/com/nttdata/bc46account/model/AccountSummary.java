@@ -0,0 +1,31 @@
+package com.nttdata.bc46account.model;
+
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import org.springframework.data.annotation.Id;
+
+/**
+ * Ntt Data - Top Employer 2023.
+ * Todos los derechos Reservados.
+ * Vista liviana de una cuenta: sin movimientos, titulares ni firmantes.
+ */
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+public class AccountSummary {
+
+  @Id
+  private String idAccount;
+  private String accountNumber; //numero de cuenta (14 digits)
+  private String idProduct;
+  private String accountType; //tipo de cuenta: personal | empresarial
+  @JsonSerialize(using = Money.Serializer.class)
+  @JsonDeserialize(using = Money.Deserializer.class)
+  private long availableBalance; //saldo disponible, en céntimos
+
+}
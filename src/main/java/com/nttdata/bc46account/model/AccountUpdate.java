@@ -0,0 +1,29 @@
+package com.nttdata.bc46account.model;
+
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import java.util.List;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * Ntt Data - Top Employer 2023.
+ * Todos los derechos Reservados.
+ * Campos editables de una cuenta en updateAccountById. availableBalance es nulo si el
+ * cliente no lo envía: el saldo se conserva y no se registra ningún ajuste.
+ */
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+public class AccountUpdate {
+
+  @JsonSerialize(using = Money.Serializer.class)
+  @JsonDeserialize(using = Money.Deserializer.class)
+  private Long availableBalance; //saldo fijado, en céntimos; null lo conserva
+  private List<Persona> holderAccount; //titular de la cuenta 1.*
+  private List<Persona> authorizedSigner; //firmante autorizado 0.4
+
+}
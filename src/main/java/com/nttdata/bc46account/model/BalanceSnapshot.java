@@ -0,0 +1,42 @@
+package com.nttdata.bc46account.model;
+
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import java.time.LocalDateTime;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+/**
+ * Ntt Data - Top Employer 2023.
+ * Todos los derechos Reservados.
+ * Saldo de una cuenta en un instante: incluye todos los movimientos con creationDatetime
+ * anterior a asOf. Un estado de cuenta parte del snapshot más cercano y solo suma los
+ * movimientos entre ese snapshot y el periodo consultado.
+ */
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+@Document(collection = "balance_snapshot")
+@CompoundIndex(name = "account_latest_snapshot", def = "{'idAccount': 1, 'asOf': -1}")
+public class BalanceSnapshot {
+
+  @Id
+  private String idSnapshot; //idAccount + "|" + asOf
+  private String idAccount;
+  private LocalDateTime asOf;
+  @JsonSerialize(using = Money.Serializer.class)
+  @JsonDeserialize(using = Money.Deserializer.class)
+  private long balance; //en céntimos
+  private LocalDateTime creationDatetime;
+
+  public static BalanceSnapshot of(String idAccount, LocalDateTime asOf, long balance) {
+    return new BalanceSnapshot(idAccount + "|" + asOf, idAccount, asOf, balance,
+        LocalDateTime.now());
+  }
+}
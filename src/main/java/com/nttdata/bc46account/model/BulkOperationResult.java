@@ -0,0 +1,35 @@
+package com.nttdata.bc46account.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * Ntt Data - Top Employer 2023.
+ * Todos los derechos Reservados.
+ * Resultado de un movimiento enviado en una operación masiva; index es su posición
+ * en la solicitud.
+ */
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+public class BulkOperationResult {
+
+  private long index;
+  private String idAccount;
+  private boolean success;
+  private Movement movement; //movimiento registrado en la cuenta, si success
+  private String code; //código de error, si no success
+  private String message;
+
+  public static BulkOperationResult success(long index, Movement movement) {
+    return new BulkOperationResult(index, movement.getIdAccount(), true, movement, null, null);
+  }
+
+  public static BulkOperationResult failure(long index, String idAccount, String code,
+                                            String message) {
+    return new BulkOperationResult(index, idAccount, false, null, code, message);
+  }
+}
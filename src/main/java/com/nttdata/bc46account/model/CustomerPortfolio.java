@@ -0,0 +1,74 @@
+package com.nttdata.bc46account.model;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+/**
+ * Ntt Data - Top Employer 2023.
+ * Todos los derechos Reservados.
+ * Resumen de las cuentas de un cliente (modelo de lectura): saldo y cantidad de cuentas por
+ * producto y fecha del último movimiento. Se actualiza con cada alta, baja y movimiento, y
+ * se reconstruye desde las colecciones account y movement con CustomerPortfolios.rebuild.
+ */
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+@Document(collection = "customer_portfolio")
+public class CustomerPortfolio {
+
+  @Id
+  private String idCustomer;
+  private Map<String, ProductPosition> products = new LinkedHashMap<>(); //por idProduct
+  private int accountCount;
+  @JsonSerialize(using = Money.Serializer.class)
+  @JsonDeserialize(using = Money.Deserializer.class)
+  private long totalBalance; //en céntimos
+  private LocalDateTime lastMovementDatetime;
+  private LocalDateTime updateDatetime;
+  @JsonIgnore
+  private long version; //aumenta con cada cambio; rebuild solo reemplaza la versión que leyó
+
+  public static CustomerPortfolio empty(String idCustomer) {
+    CustomerPortfolio portfolio = new CustomerPortfolio();
+    portfolio.setIdCustomer(idCustomer);
+    return portfolio;
+  }
+
+  /** Suma al resumen los cambios de una cuenta del producto idProduct. */
+  public void apply(String idProduct, int accounts, long balance, LocalDateTime movementAt) {
+    ProductPosition position = products.computeIfAbsent(idProduct, id -> new ProductPosition());
+    position.setAccountCount(position.getAccountCount() + accounts);
+    position.setBalance(position.getBalance() + balance);
+    accountCount += accounts;
+    totalBalance += balance;
+    if (movementAt != null
+        && (lastMovementDatetime == null || movementAt.isAfter(lastMovementDatetime))) {
+      lastMovementDatetime = movementAt;
+    }
+  }
+
+  /**
+   * Cuentas y saldo de un producto del cliente.
+   */
+  @Getter
+  @Setter
+  @AllArgsConstructor
+  @NoArgsConstructor
+  public static class ProductPosition {
+    private int accountCount;
+    @JsonSerialize(using = Money.Serializer.class)
+    @JsonDeserialize(using = Money.Deserializer.class)
+    private long balance; //en céntimos
+  }
+}
@@ -0,0 +1,43 @@
+package com.nttdata.bc46account.model;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * Ntt Data - Top Employer 2023.
+ * Todos los derechos Reservados.
+ * Estado de publicación en Kafka del evento de un movimiento, tal como quedó al responder
+ * la operación: PUBLISHED con la partición y offset confirmados, o PENDING si lo publicará
+ * el relay del outbox.
+ */
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class EventDelivery {
+
+  public static final String PUBLISHED = "PUBLISHED";
+  public static final String PENDING = "PENDING";
+
+  private String status;
+  private Integer partition;
+  private Long offset;
+
+  public static EventDelivery published(int partition, long offset) {
+    return new EventDelivery(PUBLISHED, partition, offset);
+  }
+
+  public static EventDelivery pending() {
+    return new EventDelivery(PENDING, null, null);
+  }
+
+  @JsonIgnore
+  public boolean isPublished() {
+    return PUBLISHED.equals(status);
+  }
+}
@@ -0,0 +1,38 @@
+package com.nttdata.bc46account.model;
+
+import java.time.LocalDateTime;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.Indexed;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+/**
+ * Ntt Data - Top Employer 2023.
+ * Todos los derechos Reservados.
+ * Resultado de una operación enviada con Idempotency-Key. Mientras la operación está en
+ * curso movement es nulo y owner identifica al intento que tiene reservada la clave; el
+ * movimiento se guarda en la misma transacción que cambia el saldo. Mongo elimina el
+ * registro al llegar a expiresAt.
+ */
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+@Document(collection = "idempotency")
+public class IdempotencyRecord {
+
+  @Id
+  private String idRecord; //idAccount + "|" + clave enviada por el cliente
+  private Movement movement; //movimiento devuelto la primera vez
+  private String owner; //intento que reservó la clave
+  private LocalDateTime creationDatetime; //momento de la reserva
+  @Indexed(name = "expires_ttl", expireAfter = "0s")
+  private LocalDateTime expiresAt;
+
+  public boolean isCompleted() {
+    return movement != null;
+  }
+}
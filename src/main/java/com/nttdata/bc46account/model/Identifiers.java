@@ -0,0 +1,21 @@
+package com.nttdata.bc46account.model;
+
+import org.bson.types.ObjectId;
+
+/**
+ * Ntt Data - Top Employer 2023.
+ * Todos los derechos Reservados.
+ * Identificadores de movimientos y eventos. Usa el formato ObjectId (segundos, valor aleatorio
+ * del proceso y contador atómico): a diferencia de UUID.randomUUID no lee SecureRandom en
+ * cada llamada, por lo que no bloquea el event loop, y los ids de una instancia crecen en
+ * el orden en que se generan.
+ */
+public final class Identifiers {
+
+  private Identifiers() {
+  }
+
+  public static String next() {
+    return new ObjectId().toHexString();
+  }
+}
@@ -0,0 +1,96 @@
+package com.nttdata.bc46account.model;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.exc.InvalidFormatException;
+import com.fasterxml.jackson.databind.deser.std.StdDeserializer;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+import java.io.IOException;
+import java.math.BigDecimal;
+
+/**
+ * Ntt Data - Top Employer 2023.
+ * Todos los derechos Reservados.
+ * Montos en unidades mínimas (céntimos) guardados en un long: las sumas son exactas y la
+ * aritmética no crea objetos. En JSON (REST y eventos de Kafka) se siguen leyendo y
+ * escribiendo como decimales con dos cifras, por ejemplo 25.50.
+ */
+public final class Money {
+
+  public static final int SCALE = 2;
+  private static final long FACTOR = 100;
+
+  private Money() {
+  }
+
+  /**
+   * Convierte un decimal a unidades mínimas; falla si tiene más de dos decimales
+   * o no cabe en un long.
+   */
+  public static long fromDecimal(BigDecimal amount) {
+    return amount.movePointRight(SCALE).longValueExact();
+  }
+
+  public static BigDecimal toDecimal(long minorUnits) {
+    return BigDecimal.valueOf(minorUnits, SCALE);
+  }
+
+  /**
+   * Convierte un monto antiguo guardado como Float/Double, redondeando al céntimo.
+   */
+  public static long fromDouble(double amount) {
+    return Math.round(amount * FACTOR);
+  }
+
+  public static long add(long left, long right) {
+    return Math.addExact(left, right);
+  }
+
+  public static String format(long minorUnits) {
+    long units = Math.abs(minorUnits / FACTOR);
+    long cents = Math.abs(minorUnits % FACTOR);
+    return (minorUnits < 0 ? "-" : "") + units + (cents < 10 ? ".0" : ".") + cents;
+  }
+
+  /**
+   * Escribe unidades mínimas como número decimal.
+   */
+  public static class Serializer extends StdSerializer<Long> {
+    private static final long serialVersionUID = 1L;
+
+    public Serializer() {
+      super(Long.class);
+    }
+
+    @Override
+    public void serialize(Long value, JsonGenerator gen, SerializerProvider provider)
+        throws IOException {
+      gen.writeNumber(format(value));
+    }
+  }
+
+  /**
+   * Lee un número decimal (o texto numérico) como unidades mínimas.
+   */
+  public static class Deserializer extends StdDeserializer<Long> {
+    private static final long serialVersionUID = 1L;
+
+    public Deserializer() {
+      super(Long.class);
+    }
+
+    @Override
+    public Long deserialize(JsonParser parser, DeserializationContext context)
+        throws IOException {
+      String text = parser.getText().trim();
+      try {
+        return fromDecimal(new BigDecimal(text));
+      } catch (ArithmeticException | NumberFormatException e) {
+        throw InvalidFormatException.from(parser, "El monto debe ser un número con como máximo "
+            + SCALE + " decimales", text, Long.class);
+      }
+    }
+  }
+}
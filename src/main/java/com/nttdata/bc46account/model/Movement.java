@@ -1,6 +1,10 @@
 package com.nttdata.bc46account.model;
 
 import com.fasterxml.jackson.annotation.JsonFormat;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
 import java.io.Serializable;
 import java.time.LocalDateTime;
 import lombok.AllArgsConstructor;
@@ -9,6 +13,8 @@ import lombok.NoArgsConstructor;
 import lombok.Setter;
 import org.springframework.data.annotation.CreatedDate;
 import org.springframework.data.annotation.Id;
+import org.springframework.data.annotation.Transient;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
 import org.springframework.data.mongodb.core.mapping.Document;
 
 @Getter
@@ -16,18 +22,27 @@ import org.springframework.data.mongodb.core.mapping.Document;
 @AllArgsConstructor
 @NoArgsConstructor
 @Document(collection = "movement")
+@CompoundIndex(name = "account_newest_first",
+    def = "{'idAccount': 1, 'creationDatetime': -1, '_id': -1}")
 public class Movement implements Serializable {
   @Id
   private String idMovement;
+  private String idAccount; //cuenta a la que pertenece el movimiento
   private String operation; //Operaciones: Transferir dinero, Pagar servicios
   private String movementType; //Depósito, Retiro, Pago, Tran.Ctas.Prop, Tran.Ctas.Terc
   private String sourceAccount;
   private String targetAccount;
   private String moneda;
-  private Float monto;
+  @JsonSerialize(using = Money.Serializer.class)
+  @JsonDeserialize(using = Money.Deserializer.class)
+  private long monto; //en céntimos
   @JsonFormat(shape = JsonFormat.Shape.STRING, pattern = "yyyy-MM-dd HH:mm:ss",
       timezone = "America/Lima")
   @CreatedDate
   private LocalDateTime creationDatetime;
+  @Transient
+  @JsonInclude(JsonInclude.Include.NON_NULL)
+  @JsonProperty(access = JsonProperty.Access.READ_ONLY)
+  private EventDelivery delivery; //publicación del evento, solo en la respuesta de la operación
 
 }
@@ -0,0 +1,39 @@
+package com.nttdata.bc46account.model;
+
+import java.time.LocalDateTime;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+/**
+ * Ntt Data - Top Employer 2023.
+ * Todos los derechos Reservados.
+ * Movimientos archivados de una cuenta en un día: un documento por cuenta y día con los
+ * movimientos comprimidos (MovementArchiveCodec). count y total permiten sumar días
+ * completos sin descomprimirlos.
+ */
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+@Document(collection = "movement_archive")
+@CompoundIndex(name = "account_newest_day_first", def = "{'idAccount': 1, 'day': -1}")
+public class MovementArchive {
+
+  @Id
+  private String idArchive; //idAccount|día
+  private String idAccount;
+  private LocalDateTime day; //inicio del día archivado
+  private int count;
+  private long total; //suma de los montos, en céntimos
+  private byte[] movements; //movimientos comprimidos, del más antiguo al más reciente
+  private LocalDateTime updateDatetime;
+
+  public static String idOf(String idAccount, LocalDateTime day) {
+    return idAccount + '|' + day.toLocalDate();
+  }
+}
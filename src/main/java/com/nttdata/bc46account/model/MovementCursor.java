@@ -0,0 +1,49 @@
+package com.nttdata.bc46account.model;
+
+import com.nttdata.bc46account.exceptions.InvalidMovementQueryException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * Ntt Data - Top Employer 2023.
+ * Todos los derechos Reservados.
+ * Cursor opaco del historial de movimientos: fecha de creación e id del último
+ * movimiento entregado, codificados en Base64 URL-safe.
+ */
+@Getter
+@AllArgsConstructor
+public class MovementCursor {
+
+  private static final String SEPARATOR = "|";
+
+  private final LocalDateTime creationDatetime;
+  private final String idMovement;
+
+  /**
+   * Cursor que continúa después de movement, o null si el movimiento no tiene fecha de
+   * creación: los movimientos sin fecha quedan al final y no se puede seguir paginando.
+   */
+  public static String encode(Movement movement) {
+    if (movement.getCreationDatetime() == null) {
+      return null;
+    }
+    String raw = movement.getCreationDatetime() + SEPARATOR + movement.getIdMovement();
+    return Base64.getUrlEncoder().withoutPadding()
+        .encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+  }
+
+  public static MovementCursor decode(String cursor) {
+    try {
+      String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+      int separator = raw.indexOf(SEPARATOR);
+      return new MovementCursor(LocalDateTime.parse(raw.substring(0, separator)),
+          raw.substring(separator + 1));
+    } catch (IllegalArgumentException | IndexOutOfBoundsException | DateTimeParseException e) {
+      throw new InvalidMovementQueryException("El cursor de movimientos es inválido.");
+    }
+  }
+}
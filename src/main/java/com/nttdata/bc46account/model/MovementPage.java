@@ -0,0 +1,22 @@
+package com.nttdata.bc46account.model;
+
+import java.util.List;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * Ntt Data - Top Employer 2023.
+ * Todos los derechos Reservados.
+ */
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+public class MovementPage {
+
+  private List<Movement> movements; //movimientos del más reciente al más antiguo
+  private String nextCursor; //null cuando no hay más movimientos
+
+}
@@ -0,0 +1,24 @@
+package com.nttdata.bc46account.model;
+
+import java.time.LocalDateTime;
+import lombok.Builder;
+import lombok.Getter;
+
+/**
+ * Ntt Data - Top Employer 2023.
+ * Todos los derechos Reservados.
+ * Criterios de una página del historial de movimientos (keyset por fecha e id).
+ */
+@Getter
+@Builder
+public class MovementPageRequest {
+
+  private final String idAccount;
+  private final LocalDateTime afterDatetime; //fecha del último movimiento de la página anterior
+  private final String afterIdMovement; //id del último movimiento de la página anterior
+  private final LocalDateTime from; //fecha mínima (inclusive)
+  private final LocalDateTime to; //fecha máxima (inclusive)
+  private final OperationType operation;
+  private final int size;
+
+}
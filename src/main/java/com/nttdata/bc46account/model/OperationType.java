@@ -1,9 +1,25 @@
 package com.nttdata.bc46account.model;
 
+import java.util.HashMap;
+import java.util.Map;
+
 public enum OperationType {
   TRANSFERIR_DINERO,
   PAGAR_SERVICIOS,
   COBRAR_GIROS,
-  DEPOSITAR
+  DEPOSITAR,
+  AJUSTAR_SALDO; //diferencia de saldo fijada por updateAccount; no es una operación del API
+
+  private static final Map<String, OperationType> BY_NAME = new HashMap<>();
+
+  static {
+    for (OperationType operationType : values()) {
+      BY_NAME.put(operationType.name(), operationType);
+    }
+  }
 
+  /** OperationType con ese nombre, o null si no existe; a diferencia de valueOf no lanza. */
+  public static OperationType fromName(String name) {
+    return name == null ? null : BY_NAME.get(name);
+  }
 }
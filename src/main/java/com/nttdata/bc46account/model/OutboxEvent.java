@@ -0,0 +1,45 @@
+package com.nttdata.bc46account.model;
+
+import java.time.LocalDateTime;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.Indexed;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+/**
+ * Ntt Data - Top Employer 2023.
+ * Todos los derechos Reservados.
+ * Evento pendiente de publicar en Kafka, escrito en la misma transacción que el movimiento.
+ */
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+@Document(collection = "outbox")
+@CompoundIndex(name = "pending_oldest_first", def = "{'published': 1, 'creationDatetime': 1}")
+@CompoundIndex(name = "key_pending_oldest_first",
+    def = "{'eventKey': 1, 'published': 1, 'creationDatetime': 1}")
+public class OutboxEvent {
+
+  @Id
+  private String idEvent;
+  private String topic;
+  private String eventKey; //idAccount: mantiene el orden de los eventos de una cuenta
+  private String operation; //OperationType del movimiento
+  private String payload; //evento serializado en JSON
+  private boolean published;
+  private int attempts; //intentos de publicación fallidos
+  private String lastError;
+  private String lockedBy; //instancia que tiene reservado el evento
+  private LocalDateTime lockedUntil;
+  private Integer partition; //partición y offset confirmados por Kafka
+  private Long offset;
+  private LocalDateTime creationDatetime;
+  @Indexed(name = "published_ttl", expireAfter = "7d")
+  private LocalDateTime publishedDatetime;
+
+}
@@ -0,0 +1,43 @@
+package com.nttdata.bc46account.model;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.Indexed;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+/**
+ * Ntt Data - Top Employer 2023.
+ * Todos los derechos Reservados.
+ * Transferencia en dos fases en curso, usada cuando Mongo no tiene transacciones. Se registra
+ * antes de tocar los saldos y se elimina al cerrarse; si la instancia cae a mitad de camino,
+ * PendingTransferRecovery la completa o la descarta. Solo la procesa quien la tiene reservada
+ * (lockedBy) mientras no venza lockedUntil.
+ */
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+@Document(collection = "pending_transfer")
+public class PendingTransfer {
+
+  public static final String PENDING = "PENDING";
+  public static final String APPLIED = "APPLIED";
+
+  @Id
+  private String idTransfer; //idMovement de la pierna de origen
+  private String sourceAccount; //idAccount que se debita
+  private String targetAccount; //idAccount que se abona
+  private long amount; //en céntimos
+  private List<Movement> movements; //movimientos de origen y de destino
+  private String state; //PENDING: registrada; APPLIED: ambos saldos actualizados
+  private String lockedBy; //quien la está procesando: la solicitud que la registró o recovery
+  private LocalDateTime lockedUntil;
+  @Indexed(name = "oldest_first")
+  private LocalDateTime creationDatetime;
+
+}
@@ -0,0 +1,25 @@
+package com.nttdata.bc46account.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+/**
+ * Ntt Data - Top Employer 2023.
+ * Todos los derechos Reservados.
+ */
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+@Document(collection = "sequence")
+public class Sequence {
+
+  @Id
+  private String name; //nombre de la secuencia (ej. account)
+  private long value; //último valor entregado a alguna instancia
+
+}
@@ -1,35 +1,70 @@
 package com.nttdata.bc46account.producer;
 
 
-import com.fasterxml.jackson.core.JsonProcessingException;
-import com.fasterxml.jackson.databind.ObjectMapper;
-import com.nttdata.bc46account.model.Movement;
+import com.nttdata.bc46account.model.OutboxEvent;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.kafka.KafkaClientMetrics;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.beans.factory.annotation.Qualifier;
-import org.springframework.kafka.core.KafkaTemplate;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.springframework.context.annotation.Profile;
 import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.kafka.sender.KafkaSender;
+import reactor.kafka.sender.SenderRecord;
+import reactor.util.function.Tuple2;
+import reactor.util.function.Tuples;
 
 @Service
+@Profile("!inmemory")
 @Slf4j
-public class EventKafkaProducer {
+public class EventKafkaProducer implements MovementEventPublisher {
 
-  private final KafkaTemplate<Object, String> kafkaTemplate;
-  private final ObjectMapper objectMapper;
+  private final KafkaSender<String, String> kafkaSender;
+  private final MeterRegistry meterRegistry;
+  private final Map<String, Timer> timers = new ConcurrentHashMap<>();
 
-  public EventKafkaProducer(@Qualifier("kafkaTemplate") KafkaTemplate<Object, String> kafkaTemplate, ObjectMapper objectMapper) {
-    this.kafkaTemplate = kafkaTemplate;
-    this.objectMapper = objectMapper;
+  public EventKafkaProducer(KafkaSender<String, String> kafkaSender, MeterRegistry meterRegistry) {
+    this.kafkaSender = kafkaSender;
+    this.meterRegistry = meterRegistry;
+    /** Expone las métricas nativas del productor (record-send-rate, batch-size-avg, etc.). */
+    kafkaSender.doOnProducer(producer -> {
+      new KafkaClientMetrics(producer).bindTo(meterRegistry);
+      return true;
+    }).subscribe(bound -> { }, error -> log.warn("Kafka producer metrics not bound", error));
   }
 
-  public void enviarMovimiento(Movement movement) {
-    /**Publica el evento en el topic de kafka */
-    try {
-      String movementJson = objectMapper.writeValueAsString(movement);
+  /**
+   * Publica los eventos del outbox en sus topics de kafka, usando idAccount como key para
+   * conservar el orden por cuenta. Los envíos se agrupan en lotes en el productor y cada
+   * evento emite su resultado cuando el broker confirma (o rechaza) la escritura.
+   **/
+  @Override
+  public Flux<Delivery> publicar(Flux<OutboxEvent> events) {
+    return kafkaSender.send(events.map(event -> SenderRecord.create(
+            new ProducerRecord<>(event.getTopic(), event.getEventKey(), event.getPayload()),
+            Tuples.of(event, System.nanoTime()))))
+        .map(result -> {
+          Tuple2<OutboxEvent, Long> sent = result.correlationMetadata();
+          long latency = System.nanoTime() - sent.getT2();
+          publishTimer(sent.getT1().getOperation(),
+              result.exception() == null ? "success" : "failure")
+              .record(latency, TimeUnit.NANOSECONDS);
+          return new Delivery(sent.getT1(), result.recordMetadata(), result.exception());
+        });
+  }
 
-      log.info("producing account movement message {}", movement);
-      this.kafkaTemplate.send("topic-movimientos-cuentas", movementJson);
-    } catch (JsonProcessingException e) {
-      log.error("Error al serializar el movimiento a JSON", e);
-    }
+  private Timer publishTimer(String operation, String outcome) {
+    String tag = operation == null ? "none" : operation;
+    return timers.computeIfAbsent(tag + ':' + outcome,
+        key -> Timer.builder("account.kafka.publish")
+            .description("Latencia desde el envío hasta la confirmación del broker")
+            .tag("operation", tag)
+            .tag("outcome", outcome)
+            .publishPercentileHistogram()
+            .register(meterRegistry));
   }
 }
@@ -0,0 +1,46 @@
+package com.nttdata.bc46account.producer;
+
+import com.nttdata.bc46account.model.OutboxEvent;
+import java.util.concurrent.atomic.AtomicLong;
+import org.apache.kafka.clients.producer.RecordMetadata;
+import org.apache.kafka.common.TopicPartition;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Sinks;
+
+/**
+ * Ntt Data - Top Employer 2023.
+ * Todos los derechos Reservados.
+ * Reemplaza a Kafka con el perfil inmemory: confirma cada evento al instante con un offset
+ * local y lo reemite por events() a los suscriptores que haya en el proceso. Si no hay
+ * suscriptores, o alguno va atrasado, el evento se descarta para ellos sin frenar al outbox.
+ */
+@Component
+@Profile("inmemory")
+public class InProcessEventPublisher implements MovementEventPublisher {
+
+  private final Sinks.Many<OutboxEvent> sink = Sinks.many().multicast().directBestEffort();
+  private final AtomicLong offsets = new AtomicLong();
+
+  @Override
+  public Flux<Delivery> publicar(Flux<OutboxEvent> events) {
+    return events.map(event -> {
+      long offset = offsets.getAndIncrement();
+      sink.tryEmitNext(event);
+      RecordMetadata metadata = new RecordMetadata(new TopicPartition(event.getTopic(), 0),
+          offset, 0, System.currentTimeMillis(), -1, -1);
+      return new Delivery(event, metadata, null);
+    });
+  }
+
+  /** Eventos publicados a partir de la suscripción. */
+  public Flux<OutboxEvent> events() {
+    return sink.asFlux();
+  }
+
+  /** Cantidad de eventos publicados desde el inicio. */
+  public long publishedCount() {
+    return offsets.get();
+  }
+}
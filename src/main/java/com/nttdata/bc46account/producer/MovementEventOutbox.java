@@ -0,0 +1,184 @@
+package com.nttdata.bc46account.producer;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.nttdata.bc46account.model.EventDelivery;
+import com.nttdata.bc46account.model.Identifiers;
+import com.nttdata.bc46account.model.Movement;
+import com.nttdata.bc46account.model.OutboxEvent;
+import com.nttdata.bc46account.repository.OutboxEventRepository;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.UUID;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Ntt Data - Top Employer 2023.
+ * Todos los derechos Reservados.
+ * Registra los eventos de movimientos en la colección outbox dentro de la misma transacción
+ * que actualiza el saldo, y los publica en Kafka reservándolos antes para que dos instancias
+ * no publiquen el mismo evento.
+ */
+@Component
+@Slf4j
+public class MovementEventOutbox {
+
+  private final OutboxEventRepository outboxEventRepository;
+  private final MovementEventPublisher movementEventPublisher;
+  private final ObjectMapper objectMapper;
+  private final String topic;
+  private final Duration lease;
+  private final boolean publishOnCommit;
+  private final Duration publishTimeout;
+  private final String owner = UUID.randomUUID().toString();
+
+  public MovementEventOutbox(OutboxEventRepository outboxEventRepository,
+                             MovementEventPublisher movementEventPublisher,
+                             ObjectMapper objectMapper,
+                             @Value("${account.outbox.topic:topic-movimientos-cuentas}")
+                             String topic,
+                             @Value("${account.outbox.lease:PT30S}") Duration lease,
+                             @Value("${account.outbox.publish-on-commit:true}")
+                             boolean publishOnCommit,
+                             @Value("${account.outbox.publish-timeout:PT2S}")
+                             Duration publishTimeout) {
+    this.outboxEventRepository = outboxEventRepository;
+    this.movementEventPublisher = movementEventPublisher;
+    this.objectMapper = objectMapper;
+    this.topic = topic;
+    this.lease = lease;
+    this.publishOnCommit = publishOnCommit;
+    this.publishTimeout = publishTimeout;
+  }
+
+  public Mono<OutboxEvent> append(Movement movement) {
+    return Mono.fromCallable(() -> toEvent(movement))
+        .flatMap(outboxEventRepository::insert);
+  }
+
+  /**
+   * Igual que append, pero si el evento del movimiento ya existe (lo registró un paso repetido
+   * de una transferencia en dos fases) retorna el existente en lugar de fallar.
+   **/
+  public Mono<OutboxEvent> appendIfAbsent(Movement movement) {
+    return append(movement).onErrorResume(DuplicateKeyException.class,
+        duplicate -> outboxEventRepository.findById(movement.getIdMovement()));
+  }
+
+  /**
+   * Registra los eventos de varios movimientos con un solo insert; quedan para el relay.
+   **/
+  public Flux<OutboxEvent> appendAll(List<Movement> movements) {
+    return Flux.fromIterable(movements)
+        .map(this::toEventUnchecked)
+        .collectList()
+        .flatMapMany(outboxEventRepository::insert);
+  }
+
+  /**
+   * Intenta publicar de inmediato un evento ya confirmado en Mongo, sin esperar al relay.
+   * Lo deja al relay, sin propagar el error a la operación, si falla, si el broker no lo
+   * confirma dentro de publishTimeout o si la cuenta tiene eventos anteriores sin publicar
+   * (publicarlo antes que ellos rompería el orden por cuenta).
+   **/
+  public Mono<EventDelivery> publishNow(String idEvent) {
+    if (!publishOnCommit) {
+      return Mono.just(EventDelivery.pending());
+    }
+    return outboxEventRepository.claim(idEvent, owner, lease)
+        .flatMap(claimed -> outboxEventRepository.hasOlderPending(claimed)
+            .flatMap(older -> older
+                ? outboxEventRepository.release(idEvent, owner).thenReturn(EventDelivery.pending())
+                : publish(Flux.just(claimed)).next()))
+        .timeout(publishTimeout)
+        .defaultIfEmpty(EventDelivery.pending())
+        .onErrorResume(error -> {
+          log.warn("Outbox event {} left for the relay: {}", idEvent, error.toString());
+          return Mono.just(EventDelivery.pending());
+        });
+  }
+
+  /**
+   * Reserva hasta max eventos pendientes en una sola actualización, del más antiguo al más
+   * reciente. Cada lote lleva su propia marca, así no se confunde con los eventos que
+   * publishNow reserva en paralelo para esta instancia.
+   **/
+  public Flux<OutboxEvent> claimPending(int max) {
+    return Flux.defer(() -> outboxEventRepository.claimBatch(owner + "/" + Identifiers.next(),
+        lease, max));
+  }
+
+  /**
+   * Publica eventos reservados y registra el resultado de cada uno: partición y offset si el
+   * broker lo confirmó, o el error para reintentarlo en el siguiente ciclo del relay. Las
+   * cuentas se publican en paralelo y los eventos de una cuenta de a uno, en orden: tras un
+   * fallo, los siguientes de esa cuenta se liberan sin publicar para no adelantarse a él.
+   **/
+  public Flux<EventDelivery> publish(Flux<OutboxEvent> claimed) {
+    return claimed
+        .collect(LinkedHashMap<String, List<OutboxEvent>>::new, (byAccount, event) -> byAccount
+            .computeIfAbsent(String.valueOf(event.getEventKey()), key -> new ArrayList<>())
+            .add(event))
+        .flatMapMany(byAccount -> Flux.fromIterable(byAccount.values()))
+        .flatMap(this::publishInOrder);
+  }
+
+  private Flux<EventDelivery> publishInOrder(List<OutboxEvent> events) {
+    boolean[] failed = {false};
+    return Flux.fromIterable(events)
+        .concatMap(event -> failed[0]
+            ? outboxEventRepository.release(event.getIdEvent(), event.getLockedBy())
+                .thenReturn(EventDelivery.pending())
+            : movementEventPublisher.publicar(Flux.just(event))
+                .concatMap(delivery -> {
+                  failed[0] = !delivery.isSuccess();
+                  return record(delivery);
+                }));
+  }
+
+  private Mono<EventDelivery> record(MovementEventPublisher.Delivery delivery) {
+    OutboxEvent event = delivery.getEvent();
+    if (delivery.isSuccess()) {
+      int partition = delivery.getMetadata().partition();
+      long offset = delivery.getMetadata().offset();
+      return outboxEventRepository.markPublished(event.getIdEvent(), partition, offset)
+          .thenReturn(EventDelivery.published(partition, offset));
+    }
+    log.warn("Outbox event {} could not be published: {}", event.getIdEvent(),
+        delivery.getException().getMessage());
+    return outboxEventRepository.markFailed(event.getIdEvent(),
+        delivery.getException().getMessage()).thenReturn(EventDelivery.pending());
+  }
+
+  private OutboxEvent toEventUnchecked(Movement movement) {
+    try {
+      return toEvent(movement);
+    } catch (JsonProcessingException e) {
+      throw new IllegalStateException(e);
+    }
+  }
+
+  /**
+   * El evento toma el id del movimiento: se publica conociendo solo el movimiento y registrarlo
+   * dos veces choca por clave en lugar de duplicarlo.
+   **/
+  private OutboxEvent toEvent(Movement movement) throws JsonProcessingException {
+    OutboxEvent event = new OutboxEvent();
+    event.setIdEvent(movement.getIdMovement() != null
+        ? movement.getIdMovement() : Identifiers.next());
+    event.setTopic(topic);
+    event.setEventKey(movement.getIdAccount());
+    event.setOperation(movement.getOperation());
+    event.setPayload(objectMapper.writeValueAsString(movement));
+    event.setCreationDatetime(LocalDateTime.now());
+    return event;
+  }
+}
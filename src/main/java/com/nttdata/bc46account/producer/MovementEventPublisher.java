@@ -0,0 +1,36 @@
+package com.nttdata.bc46account.producer;
+
+import com.nttdata.bc46account.model.OutboxEvent;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import org.apache.kafka.clients.producer.RecordMetadata;
+import reactor.core.publisher.Flux;
+
+/**
+ * Ntt Data - Top Employer 2023.
+ * Todos los derechos Reservados.
+ * Destino de los eventos del outbox: Kafka (EventKafkaProducer) o, con el perfil inmemory,
+ * un sink en proceso (InProcessEventPublisher).
+ */
+public interface MovementEventPublisher {
+
+  /**
+   * Publica los eventos y emite, por cada uno, el resultado de su entrega.
+   **/
+  Flux<Delivery> publicar(Flux<OutboxEvent> events);
+
+  /**
+   * Resultado de publicar un evento: metadata del broker o la excepción del envío.
+   **/
+  @Getter
+  @AllArgsConstructor
+  class Delivery {
+    private final OutboxEvent event;
+    private final RecordMetadata metadata;
+    private final Exception exception;
+
+    public boolean isSuccess() {
+      return exception == null;
+    }
+  }
+}
@@ -0,0 +1,78 @@
+package com.nttdata.bc46account.producer;
+
+import com.nttdata.bc46account.model.EventDelivery;
+import java.time.Duration;
+import javax.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Ntt Data - Top Employer 2023.
+ * Todos los derechos Reservados.
+ * Publica periódicamente en Kafka, por lotes, los eventos que siguen pendientes en el outbox:
+ * los que no se pudieron publicar al confirmar la operación y los de instancias caídas cuya
+ * reserva venció. La entrega es al menos una vez: los consumidores deben descartar
+ * duplicados por idMovement.
+ */
+@Component
+@ConditionalOnProperty(name = "account.outbox.relay.enabled", havingValue = "true",
+    matchIfMissing = true)
+@Slf4j
+public class OutboxRelay {
+
+  private final MovementEventOutbox movementEventOutbox;
+  private final int batchSize;
+  private final Duration pollInterval;
+  private Disposable relay;
+
+  public OutboxRelay(MovementEventOutbox movementEventOutbox,
+                     @Value("${account.outbox.relay.batch-size:100}") int batchSize,
+                     @Value("${account.outbox.relay.poll-interval:PT0.5S}") Duration pollInterval) {
+    this.movementEventOutbox = movementEventOutbox;
+    this.batchSize = batchSize;
+    this.pollInterval = pollInterval;
+  }
+
+  @EventListener(ApplicationReadyEvent.class)
+  public void start() {
+    relay = Flux.interval(pollInterval)
+        .onBackpressureDrop()
+        .concatMap(tick -> relayPending()
+            .onErrorResume(error -> {
+              log.error("Outbox relay cycle failed", error);
+              return Mono.empty();
+            }), 1)
+        .subscribe();
+  }
+
+  @PreDestroy
+  public void stop() {
+    if (relay != null) {
+      relay.dispose();
+    }
+  }
+
+  /**
+   * Publica lotes hasta vaciar el outbox. Retorna la cantidad de eventos publicados.
+   **/
+  public Mono<Long> relayPending() {
+    return relayBatch()
+        .expand(published -> published == batchSize ? relayBatch() : Mono.empty())
+        .reduce(0L, Long::sum);
+  }
+
+  private Mono<Long> relayBatch() {
+    return movementEventOutbox.claimPending(batchSize)
+        .collectList()
+        .flatMapMany(claimed -> movementEventOutbox.publish(Flux.fromIterable(claimed)))
+        .filter(EventDelivery::isPublished)
+        .count();
+  }
+}
@@ -1,6 +1,7 @@
 package com.nttdata.bc46account.repository;
 
 import com.nttdata.bc46account.model.Account;
+import com.nttdata.bc46account.model.AccountSummary;
 import org.springframework.data.mongodb.repository.Query;
 import org.springframework.data.mongodb.repository.ReactiveMongoRepository;
 import org.springframework.stereotype.Repository;
@@ -12,10 +13,21 @@ import reactor.core.publisher.Mono;
  * Todos los derechos Reservados.
  */
 @Repository
-public interface AccountRepository extends ReactiveMongoRepository<Account, String> {
+public interface AccountRepository extends ReactiveMongoRepository<Account, String>,
+    AccountRepositoryCustom {
   Flux<Account> findByIdCustomer(String idCustomer);
 
   Mono<Account> findByAccountNumber(String accountNumber);
 
   Mono<Boolean> existsByIdCustomerAndIdProduct(String idCustomer, String idProduct);
+
+  /** Campos leídos de Mongo para AccountSummary. */
+  String SUMMARY_FIELDS = "{ 'accountNumber': 1, 'idProduct': 1, 'accountType': 1,"
+      + " 'availableBalance': 1 }";
+
+  @Query(value = "{}", fields = SUMMARY_FIELDS)
+  Flux<AccountSummary> findAllSummaries();
+
+  @Query(value = "{ 'idCustomer': ?0 }", fields = SUMMARY_FIELDS)
+  Flux<AccountSummary> findSummariesByIdCustomer(String idCustomer);
 }
@@ -0,0 +1,67 @@
+package com.nttdata.bc46account.repository;
+
+import com.nttdata.bc46account.model.Account;
+import com.nttdata.bc46account.model.AccountUpdate;
+import java.time.LocalDateTime;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Ntt Data - Top Employer 2023.
+ * Todos los derechos Reservados.
+ */
+public interface AccountRepositoryCustom {
+
+  /**
+   * Suma (o resta, si es negativo) el monto, en céntimos, al saldo disponible de la cuenta,
+   * actualizando únicamente el campo availableBalance.
+   * Retorna true si la cuenta existía y fue modificada.
+   **/
+  Mono<Boolean> incrementBalance(String idAccount, long amount);
+
+  /**
+   * Descuenta el monto del saldo solo si la cuenta tiene saldo suficiente.
+   * La validación y el descuento se aplican en una única actualización atómica,
+   * por lo que débitos concurrentes sobre la misma cuenta no pueden sobregirarla.
+   * Retorna false si la cuenta no existe o no tiene saldo suficiente.
+   **/
+  Mono<Boolean> debitIfSufficient(String idAccount, long amount);
+
+  /**
+   * Aplica al saldo una pierna de la transferencia en dos fases idTransfer y la marca en
+   * pendingTransfers, en una única actualización. Una pierna ya marcada no se vuelve a
+   * aplicar; un débito (amount negativo) solo se aplica si el saldo alcanza.
+   * Retorna true si el saldo fue modificado.
+   **/
+  Mono<Boolean> applyTransferLeg(String idAccount, String idTransfer, long amount);
+
+  /**
+   * Indica si la pierna de la transferencia idTransfer ya se aplicó a la cuenta.
+   **/
+  Mono<Boolean> hasTransferLeg(String idAccount, String idTransfer);
+
+  /**
+   * Quita la marca de la transferencia idTransfer de la cuenta una vez cerrada.
+   **/
+  Mono<Void> clearTransferLeg(String idAccount, String idTransfer);
+
+  /**
+   * Reemplaza solo holderAccount, authorizedSigner y, si viene, availableBalance por los de
+   * details y actualiza updateDatetime, sin tocar el resto del documento (marcas de
+   * transferencias, archivedBefore) que otros procesos pueden estar modificando.
+   * Retorna la cuenta tal como estaba antes de actualizarla, o vacío si no existe.
+   **/
+  Mono<Account> updateDetails(String idAccount, AccountUpdate details);
+
+  /**
+   * Registra que los movimientos de la cuenta anteriores a archivedBefore pasan al archivo.
+   * Solo adelanta la marca: una fecha anterior a la registrada no la modifica.
+   **/
+  Mono<Void> markArchivedBefore(String idAccount, LocalDateTime archivedBefore);
+
+  /**
+   * Recorre todas las cuentas pidiendo a Mongo lotes de batchSize documentos,
+   * de modo que solo se solicita el siguiente lote cuando el consumidor lo demanda.
+   **/
+  Flux<Account> streamAll(int batchSize);
+}
@@ -0,0 +1,95 @@
+package com.nttdata.bc46account.repository;
+
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+import static org.springframework.data.mongodb.core.query.Query.query;
+
+import com.nttdata.bc46account.model.Account;
+import com.nttdata.bc46account.model.AccountUpdate;
+import java.time.LocalDateTime;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Ntt Data - Top Employer 2023.
+ * Todos los derechos Reservados.
+ */
+public class AccountRepositoryCustomImpl implements AccountRepositoryCustom {
+
+  private final ReactiveMongoTemplate mongoTemplate;
+
+  public AccountRepositoryCustomImpl(ReactiveMongoTemplate mongoTemplate) {
+    this.mongoTemplate = mongoTemplate;
+  }
+
+  @Override
+  public Mono<Boolean> incrementBalance(String idAccount, long amount) {
+    return mongoTemplate.updateFirst(query(where("_id").is(idAccount)),
+            new Update().inc("availableBalance", amount), Account.class)
+        .map(result -> result.getModifiedCount() > 0);
+  }
+
+  @Override
+  public Mono<Boolean> debitIfSufficient(String idAccount, long amount) {
+    return mongoTemplate.updateFirst(
+            query(where("_id").is(idAccount).and("availableBalance").gte(amount)),
+            new Update().inc("availableBalance", -amount), Account.class)
+        .map(result -> result.getModifiedCount() > 0);
+  }
+
+  @Override
+  public Mono<Boolean> applyTransferLeg(String idAccount, String idTransfer, long amount) {
+    Criteria criteria = where("_id").is(idAccount).and("pendingTransfers").ne(idTransfer);
+    if (amount < 0) {
+      criteria = criteria.and("availableBalance").gte(-amount);
+    }
+    return mongoTemplate.updateFirst(query(criteria),
+            new Update().inc("availableBalance", amount).push("pendingTransfers", idTransfer),
+            Account.class)
+        .map(result -> result.getModifiedCount() > 0);
+  }
+
+  @Override
+  public Mono<Boolean> hasTransferLeg(String idAccount, String idTransfer) {
+    return mongoTemplate.exists(
+        query(where("_id").is(idAccount).and("pendingTransfers").is(idTransfer)), Account.class);
+  }
+
+  @Override
+  public Mono<Void> clearTransferLeg(String idAccount, String idTransfer) {
+    return mongoTemplate.updateFirst(query(where("_id").is(idAccount)),
+            new Update().pull("pendingTransfers", idTransfer), Account.class)
+        .then();
+  }
+
+  @Override
+  public Mono<Account> updateDetails(String idAccount, AccountUpdate details) {
+    return Mono.defer(() -> {
+      Update update = new Update().set("holderAccount", details.getHolderAccount())
+          .set("authorizedSigner", details.getAuthorizedSigner())
+          .set("updateDatetime", LocalDateTime.now());
+      if (details.getAvailableBalance() != null) {
+        update.set("availableBalance", details.getAvailableBalance());
+      }
+      return mongoTemplate.findAndModify(query(where("_id").is(idAccount)), update,
+          FindAndModifyOptions.options().returnNew(false), Account.class);
+    });
+  }
+
+  @Override
+  public Mono<Void> markArchivedBefore(String idAccount, LocalDateTime archivedBefore) {
+    return mongoTemplate.updateFirst(query(where("_id").is(idAccount)),
+            new Update().max("archivedBefore", archivedBefore), Account.class)
+        .then();
+  }
+
+  @Override
+  public Flux<Account> streamAll(int batchSize) {
+    return mongoTemplate.find(new Query().cursorBatchSize(batchSize), Account.class)
+        .limitRate(batchSize);
+  }
+}
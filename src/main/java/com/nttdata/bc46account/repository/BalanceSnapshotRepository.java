@@ -0,0 +1,24 @@
+package com.nttdata.bc46account.repository;
+
+import com.nttdata.bc46account.model.BalanceSnapshot;
+import java.time.LocalDateTime;
+import org.springframework.data.mongodb.repository.ReactiveMongoRepository;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Mono;
+
+/**
+ * Ntt Data - Top Employer 2023.
+ * Todos los derechos Reservados.
+ */
+@Repository
+public interface BalanceSnapshotRepository
+    extends ReactiveMongoRepository<BalanceSnapshot, String> {
+
+  /** Último snapshot de la cuenta tomado en asOf o antes. */
+  Mono<BalanceSnapshot> findFirstByIdAccountAndAsOfLessThanEqualOrderByAsOfDesc(
+      String idAccount, LocalDateTime asOf);
+
+  /** Primer snapshot de la cuenta posterior a asOf. */
+  Mono<BalanceSnapshot> findFirstByIdAccountAndAsOfGreaterThanOrderByAsOfAsc(
+      String idAccount, LocalDateTime asOf);
+}
@@ -0,0 +1,30 @@
+package com.nttdata.bc46account.repository;
+
+import com.nttdata.bc46account.model.CustomerPortfolio;
+import java.time.LocalDateTime;
+import reactor.core.publisher.Mono;
+
+/**
+ * Ntt Data - Top Employer 2023.
+ * Todos los derechos Reservados.
+ */
+public interface CustomerPortfolioRepositoryCustom {
+
+  /**
+   * Suma accounts y balance (en céntimos) al producto idProduct y a los totales del cliente,
+   * y adelanta lastMovementDatetime si movementAt es posterior, en una única actualización
+   * que además incrementa version. No crea el resumen: retorna false si el cliente aún no
+   * tiene uno.
+   **/
+  Mono<Boolean> applyDelta(String idCustomer, String idProduct, int accounts, long balance,
+                           LocalDateTime movementAt);
+
+  /**
+   * Reemplaza el resumen por portfolio solo si sigue en expectedVersion (ningún incremento
+   * llegó desde que se leyó) y lo deja en expectedVersion + 1. Retorna false si cambió.
+   **/
+  Mono<Boolean> replaceIfVersion(CustomerPortfolio portfolio, long expectedVersion);
+
+  /** Elimina el resumen solo si sigue en expectedVersion. Retorna false si cambió. */
+  Mono<Boolean> deleteIfVersion(String idCustomer, long expectedVersion);
+}
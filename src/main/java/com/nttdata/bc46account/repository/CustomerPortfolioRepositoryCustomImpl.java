@@ -0,0 +1,72 @@
+package com.nttdata.bc46account.repository;
+
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+import static org.springframework.data.mongodb.core.query.Query.query;
+
+import com.nttdata.bc46account.model.CustomerPortfolio;
+import java.time.LocalDateTime;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Update;
+import reactor.core.publisher.Mono;
+
+/**
+ * Ntt Data - Top Employer 2023.
+ * Todos los derechos Reservados.
+ */
+public class CustomerPortfolioRepositoryCustomImpl implements CustomerPortfolioRepositoryCustom {
+
+  private final ReactiveMongoTemplate mongoTemplate;
+
+  public CustomerPortfolioRepositoryCustomImpl(ReactiveMongoTemplate mongoTemplate) {
+    this.mongoTemplate = mongoTemplate;
+  }
+
+  @Override
+  public Mono<Boolean> applyDelta(String idCustomer, String idProduct, int accounts,
+                                  long balance, LocalDateTime movementAt) {
+    Update update = new Update()
+        .inc("products." + idProduct + ".accountCount", accounts)
+        .inc("products." + idProduct + ".balance", balance)
+        .inc("accountCount", accounts)
+        .inc("totalBalance", balance)
+        .inc("version", 1)
+        .set("updateDatetime", LocalDateTime.now());
+    if (movementAt != null) {
+      update.max("lastMovementDatetime", movementAt);
+    }
+    return mongoTemplate.updateFirst(query(where("_id").is(idCustomer)), update,
+            CustomerPortfolio.class)
+        .map(result -> result.getMatchedCount() > 0);
+  }
+
+  @Override
+  public Mono<Boolean> replaceIfVersion(CustomerPortfolio portfolio, long expectedVersion) {
+    return mongoTemplate.updateFirst(
+            query(where("_id").is(portfolio.getIdCustomer()).andOperator(
+                versionIs(expectedVersion))),
+            new Update().set("products", portfolio.getProducts())
+                .set("accountCount", portfolio.getAccountCount())
+                .set("totalBalance", portfolio.getTotalBalance())
+                .set("lastMovementDatetime", portfolio.getLastMovementDatetime())
+                .set("updateDatetime", portfolio.getUpdateDatetime())
+                .set("version", expectedVersion + 1),
+            CustomerPortfolio.class)
+        .map(result -> result.getMatchedCount() > 0);
+  }
+
+  @Override
+  public Mono<Boolean> deleteIfVersion(String idCustomer, long expectedVersion) {
+    return mongoTemplate.remove(
+            query(where("_id").is(idCustomer).andOperator(versionIs(expectedVersion))),
+            CustomerPortfolio.class)
+        .map(result -> result.getDeletedCount() > 0);
+  }
+
+  /** Los resúmenes anteriores al campo version no lo tienen: cuentan como versión 0. */
+  private static Criteria versionIs(long version) {
+    return version == 0
+        ? new Criteria().orOperator(where("version").is(0L), where("version").exists(false))
+        : where("version").is(version);
+  }
+}
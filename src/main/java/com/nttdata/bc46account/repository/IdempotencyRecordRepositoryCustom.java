@@ -0,0 +1,28 @@
+package com.nttdata.bc46account.repository;
+
+import com.nttdata.bc46account.model.Movement;
+import java.time.LocalDateTime;
+import reactor.core.publisher.Mono;
+
+/**
+ * Ntt Data - Top Employer 2023.
+ * Todos los derechos Reservados.
+ */
+public interface IdempotencyRecordRepositoryCustom {
+
+  /**
+   * Guarda el movimiento de una clave reservada por owner. Retorna false si la clave ya no
+   * está reservada por owner (otro intento la tomó o ya se completó).
+   **/
+  Mono<Boolean> complete(String idRecord, String owner, Movement movement,
+                         LocalDateTime expiresAt);
+
+  /** Elimina la reserva de owner, si sigue pendiente, para que el cliente pueda reintentar. */
+  Mono<Boolean> release(String idRecord, String owner);
+
+  /**
+   * Pasa a owner una reserva pendiente hecha antes de reservedBefore. Retorna false si la
+   * clave ya se completó o su reserva es más reciente.
+   **/
+  Mono<Boolean> takeOver(String idRecord, String owner, LocalDateTime reservedBefore);
+}
@@ -0,0 +1,52 @@
+package com.nttdata.bc46account.repository;
+
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+import static org.springframework.data.mongodb.core.query.Query.query;
+
+import com.nttdata.bc46account.model.IdempotencyRecord;
+import com.nttdata.bc46account.model.Movement;
+import java.time.LocalDateTime;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.query.Update;
+import reactor.core.publisher.Mono;
+
+/**
+ * Ntt Data - Top Employer 2023.
+ * Todos los derechos Reservados.
+ */
+public class IdempotencyRecordRepositoryCustomImpl implements IdempotencyRecordRepositoryCustom {
+
+  private final ReactiveMongoTemplate mongoTemplate;
+
+  public IdempotencyRecordRepositoryCustomImpl(ReactiveMongoTemplate mongoTemplate) {
+    this.mongoTemplate = mongoTemplate;
+  }
+
+  @Override
+  public Mono<Boolean> complete(String idRecord, String owner, Movement movement,
+                                LocalDateTime expiresAt) {
+    return mongoTemplate.updateFirst(
+            query(where("_id").is(idRecord).and("owner").is(owner).and("movement").is(null)),
+            new Update().set("movement", movement).set("expiresAt", expiresAt),
+            IdempotencyRecord.class)
+        .map(result -> result.getModifiedCount() > 0);
+  }
+
+  @Override
+  public Mono<Boolean> release(String idRecord, String owner) {
+    return mongoTemplate.remove(
+            query(where("_id").is(idRecord).and("owner").is(owner).and("movement").is(null)),
+            IdempotencyRecord.class)
+        .map(result -> result.getDeletedCount() > 0);
+  }
+
+  @Override
+  public Mono<Boolean> takeOver(String idRecord, String owner, LocalDateTime reservedBefore) {
+    return mongoTemplate.updateFirst(
+            query(where("_id").is(idRecord).and("movement").is(null)
+                .and("creationDatetime").lt(reservedBefore)),
+            new Update().set("owner", owner).set("creationDatetime", LocalDateTime.now()),
+            IdempotencyRecord.class)
+        .map(result -> result.getModifiedCount() > 0);
+  }
+}
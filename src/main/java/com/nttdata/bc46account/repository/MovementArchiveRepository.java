@@ -0,0 +1,28 @@
+package com.nttdata.bc46account.repository;
+
+import com.nttdata.bc46account.model.MovementArchive;
+import java.time.LocalDateTime;
+import org.springframework.data.mongodb.repository.ReactiveMongoRepository;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+
+/**
+ * Ntt Data - Top Employer 2023.
+ * Todos los derechos Reservados.
+ */
+@Repository
+public interface MovementArchiveRepository
+    extends ReactiveMongoRepository<MovementArchive, String> {
+
+  /** Días archivados de la cuenta anteriores a before, del más reciente al más antiguo. */
+  Flux<MovementArchive> findByIdAccountAndDayLessThanOrderByDayDesc(String idAccount,
+                                                                    LocalDateTime before);
+
+  /** Días archivados de la cuenta anteriores a before, del más antiguo al más reciente. */
+  Flux<MovementArchive> findByIdAccountAndDayLessThanOrderByDayAsc(String idAccount,
+                                                                   LocalDateTime before);
+
+  /** Días archivados de la cuenta en [from, to), del más antiguo al más reciente. */
+  Flux<MovementArchive> findByIdAccountAndDayGreaterThanEqualAndDayLessThanOrderByDayAsc(
+      String idAccount, LocalDateTime from, LocalDateTime to);
+}
@@ -3,11 +3,22 @@ package com.nttdata.bc46account.repository;
 import com.nttdata.bc46account.model.Movement;
 import org.springframework.data.mongodb.repository.ReactiveMongoRepository;
 import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
 
 /**
  * Ntt Data - Top Employer 2023.
  * Todos los derechos Reservados.
  */
 @Repository
-public interface MovementRepository extends ReactiveMongoRepository<Movement, String> {
+public interface MovementRepository extends ReactiveMongoRepository<Movement, String>,
+    MovementRepositoryCustom {
+  /**
+   * Movimientos de la cuenta del más reciente al más antiguo,
+   * servidos en ese orden por el índice account_newest_first.
+   **/
+  Flux<Movement> findByIdAccountOrderByCreationDatetimeDescIdMovementDesc(String idAccount);
+
+  /** Último movimiento de la cuenta, leído del mismo índice. */
+  Mono<Movement> findFirstByIdAccountOrderByCreationDatetimeDescIdMovementDesc(String idAccount);
 }
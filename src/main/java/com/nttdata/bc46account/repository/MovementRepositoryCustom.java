@@ -0,0 +1,32 @@
+package com.nttdata.bc46account.repository;
+
+import com.nttdata.bc46account.model.Movement;
+import com.nttdata.bc46account.model.MovementPageRequest;
+import java.time.LocalDateTime;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Ntt Data - Top Employer 2023.
+ * Todos los derechos Reservados.
+ */
+public interface MovementRepositoryCustom {
+
+  /**
+   * Movimientos de la cuenta posteriores al cursor (del más reciente al más antiguo),
+   * aplicando los filtros opcionales de fecha y operación. Retorna como máximo limit elementos.
+   **/
+  Flux<Movement> findPage(MovementPageRequest request, int limit);
+
+  /**
+   * Movimientos de la cuenta con creationDatetime en [from, to), del más antiguo al más
+   * reciente. Un límite nulo deja abierto ese extremo.
+   **/
+  Flux<Movement> findInPeriod(String idAccount, LocalDateTime from, LocalDateTime to);
+
+  /**
+   * Suma de los montos de los movimientos de la cuenta con creationDatetime en [from, to),
+   * calculada en Mongo. Un límite nulo deja abierto ese extremo.
+   **/
+  Mono<Long> sumAmounts(String idAccount, LocalDateTime from, LocalDateTime to);
+}
@@ -0,0 +1,92 @@
+package com.nttdata.bc46account.repository;
+
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+
+import com.nttdata.bc46account.model.Movement;
+import com.nttdata.bc46account.model.MovementPageRequest;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import org.bson.Document;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Ntt Data - Top Employer 2023.
+ * Todos los derechos Reservados.
+ */
+public class MovementRepositoryCustomImpl implements MovementRepositoryCustom {
+
+  private final ReactiveMongoTemplate mongoTemplate;
+
+  public MovementRepositoryCustomImpl(ReactiveMongoTemplate mongoTemplate) {
+    this.mongoTemplate = mongoTemplate;
+  }
+
+  @Override
+  public Flux<Movement> findPage(MovementPageRequest request, int limit) {
+    List<Criteria> criteria = new ArrayList<>();
+    criteria.add(where("idAccount").is(request.getIdAccount()));
+    if (request.getOperation() != null) {
+      criteria.add(where("operation").is(request.getOperation().name()));
+    }
+    if (request.getFrom() != null) {
+      criteria.add(where("creationDatetime").gte(request.getFrom()));
+    }
+    if (request.getTo() != null) {
+      criteria.add(where("creationDatetime").lte(request.getTo()));
+    }
+    if (request.getAfterDatetime() != null) {
+      /** Keyset: estrictamente después del último elemento de la página anterior. */
+      criteria.add(new Criteria().orOperator(
+          where("creationDatetime").lt(request.getAfterDatetime()),
+          new Criteria().andOperator(
+              where("creationDatetime").is(request.getAfterDatetime()),
+              where("_id").lt(request.getAfterIdMovement()))));
+    }
+
+    Query query = new Query(new Criteria().andOperator(criteria.toArray(new Criteria[0])))
+        .with(Sort.by(Sort.Direction.DESC, "creationDatetime", "_id"))
+        .limit(limit);
+    return mongoTemplate.find(query, Movement.class);
+  }
+
+  @Override
+  public Flux<Movement> findInPeriod(String idAccount, LocalDateTime from, LocalDateTime to) {
+    Query query = new Query(periodCriteria(idAccount, from, to))
+        .with(Sort.by(Sort.Direction.ASC, "creationDatetime", "_id"));
+    return mongoTemplate.find(query, Movement.class);
+  }
+
+  @Override
+  public Mono<Long> sumAmounts(String idAccount, LocalDateTime from, LocalDateTime to) {
+    /** El $match usa el índice account_newest_first; solo se recorre el rango pedido. */
+    Aggregation aggregation = Aggregation.newAggregation(
+        Aggregation.match(periodCriteria(idAccount, from, to)),
+        Aggregation.group().sum("monto").as("total"));
+    return mongoTemplate.aggregate(aggregation, Movement.class, Document.class)
+        .next()
+        .map(result -> result.get("total", Number.class).longValue())
+        .defaultIfEmpty(0L);
+  }
+
+  private static Criteria periodCriteria(String idAccount, LocalDateTime from,
+                                         LocalDateTime to) {
+    Criteria criteria = where("idAccount").is(idAccount);
+    if (from != null && to != null) {
+      return criteria.and("creationDatetime").gte(from).lt(to);
+    }
+    if (from != null) {
+      return criteria.and("creationDatetime").gte(from);
+    }
+    if (to != null) {
+      return criteria.and("creationDatetime").lt(to);
+    }
+    return criteria;
+  }
+}
@@ -0,0 +1,41 @@
+package com.nttdata.bc46account.repository;
+
+import com.nttdata.bc46account.model.OutboxEvent;
+import java.time.Duration;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Ntt Data - Top Employer 2023.
+ * Todos los derechos Reservados.
+ */
+public interface OutboxEventRepositoryCustom {
+
+  /**
+   * Reserva para owner, durante lease y con una sola actualización, hasta max eventos
+   * pendientes que no estén reservados por otra instancia. Retorna los reservados del más
+   * antiguo al más reciente; owner debe ser único por lote para leerlos de vuelta.
+   **/
+  Flux<OutboxEvent> claimBatch(String owner, Duration lease, int max);
+
+  /**
+   * Reserva un evento específico si sigue pendiente y libre. Retorna vacío si ya fue
+   * publicado o lo tiene reservado otra instancia.
+   **/
+  Mono<OutboxEvent> claim(String idEvent, String owner, Duration lease);
+
+  /**
+   * Indica si quedan sin publicar eventos de la misma eventKey anteriores a event; mientras
+   * existan, publicarlo directamente lo adelantaría en el orden de la cuenta.
+   **/
+  Mono<Boolean> hasOlderPending(OutboxEvent event);
+
+  /** Libera la reserva de owner sobre el evento, sin contarla como intento fallido. */
+  Mono<Boolean> release(String idEvent, String owner);
+
+  /** Marca el evento como publicado con la partición y offset confirmados por Kafka. */
+  Mono<Boolean> markPublished(String idEvent, int partition, long offset);
+
+  /** Libera el evento para un nuevo intento, registrando el error. */
+  Mono<Boolean> markFailed(String idEvent, String error);
+}
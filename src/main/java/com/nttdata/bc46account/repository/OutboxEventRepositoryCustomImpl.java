@@ -0,0 +1,110 @@
+package com.nttdata.bc46account.repository;
+
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+import static org.springframework.data.mongodb.core.query.Query.query;
+
+import com.nttdata.bc46account.model.OutboxEvent;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Ntt Data - Top Employer 2023.
+ * Todos los derechos Reservados.
+ */
+public class OutboxEventRepositoryCustomImpl implements OutboxEventRepositoryCustom {
+
+  private static final Sort OLDEST_FIRST = Sort.by("creationDatetime", "_id");
+
+  private final ReactiveMongoTemplate mongoTemplate;
+
+  public OutboxEventRepositoryCustomImpl(ReactiveMongoTemplate mongoTemplate) {
+    this.mongoTemplate = mongoTemplate;
+  }
+
+  @Override
+  public Flux<OutboxEvent> claimBatch(String owner, Duration lease, int max) {
+    return Flux.defer(() -> {
+      LocalDateTime now = LocalDateTime.now();
+      Query candidates = query(claimable(new Criteria(), now)).with(OLDEST_FIRST).limit(max);
+      candidates.fields().include("_id");
+      /** updateMulti no admite limit: se eligen los ids y se reservan los que sigan libres. */
+      return mongoTemplate.find(candidates, OutboxEvent.class)
+          .map(OutboxEvent::getIdEvent)
+          .collectList()
+          .filter(ids -> !ids.isEmpty())
+          .flatMapMany(ids -> mongoTemplate.updateMulti(
+                  query(claimable(where("_id").in(ids), now)),
+                  new Update().set("lockedBy", owner).set("lockedUntil", now.plus(lease)),
+                  OutboxEvent.class)
+              .thenMany(mongoTemplate.find(query(where("_id").in(ids).and("lockedBy").is(owner))
+                  .with(OLDEST_FIRST), OutboxEvent.class)));
+    });
+  }
+
+  @Override
+  public Mono<OutboxEvent> claim(String idEvent, String owner, Duration lease) {
+    return Mono.defer(() -> claimFirst(where("_id").is(idEvent), owner, lease));
+  }
+
+  private Mono<OutboxEvent> claimFirst(Criteria criteria, String owner, Duration lease) {
+    LocalDateTime now = LocalDateTime.now();
+    return mongoTemplate.findAndModify(query(claimable(criteria, now)).with(OLDEST_FIRST),
+        new Update().set("lockedBy", owner).set("lockedUntil", now.plus(lease)),
+        FindAndModifyOptions.options().returnNew(true), OutboxEvent.class);
+  }
+
+  /** Eventos sin publicar y sin reserva vigente. */
+  private static Criteria claimable(Criteria criteria, LocalDateTime now) {
+    return criteria.and("published").is(false).orOperator(
+        where("lockedUntil").is(null),
+        where("lockedUntil").lt(now));
+  }
+
+  @Override
+  public Mono<Boolean> hasOlderPending(OutboxEvent event) {
+    return mongoTemplate.exists(query(where("eventKey").is(event.getEventKey())
+        .and("published").is(false)
+        .orOperator(where("creationDatetime").lt(event.getCreationDatetime()),
+            where("creationDatetime").is(event.getCreationDatetime())
+                .and("_id").lt(event.getIdEvent()))), OutboxEvent.class);
+  }
+
+  @Override
+  public Mono<Boolean> release(String idEvent, String owner) {
+    return mongoTemplate.updateFirst(query(where("_id").is(idEvent).and("lockedBy").is(owner)),
+            new Update().unset("lockedBy").unset("lockedUntil"), OutboxEvent.class)
+        .map(result -> result.getModifiedCount() > 0);
+  }
+
+  @Override
+  public Mono<Boolean> markPublished(String idEvent, int partition, long offset) {
+    return mongoTemplate.updateFirst(query(where("_id").is(idEvent)),
+            new Update().set("published", true)
+                .set("partition", partition)
+                .set("offset", offset)
+                .set("publishedDatetime", LocalDateTime.now())
+                .unset("lockedBy")
+                .unset("lockedUntil"),
+            OutboxEvent.class)
+        .map(result -> result.getModifiedCount() > 0);
+  }
+
+  @Override
+  public Mono<Boolean> markFailed(String idEvent, String error) {
+    return mongoTemplate.updateFirst(query(where("_id").is(idEvent)),
+            new Update().inc("attempts", 1)
+                .set("lastError", error)
+                .unset("lockedBy")
+                .unset("lockedUntil"),
+            OutboxEvent.class)
+        .map(result -> result.getModifiedCount() > 0);
+  }
+}
@@ -0,0 +1,20 @@
+package com.nttdata.bc46account.repository;
+
+import com.nttdata.bc46account.model.PendingTransfer;
+import java.time.LocalDateTime;
+import org.springframework.data.mongodb.repository.ReactiveMongoRepository;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+
+/**
+ * Ntt Data - Top Employer 2023.
+ * Todos los derechos Reservados.
+ */
+@Repository
+public interface PendingTransferRepository
+    extends ReactiveMongoRepository<PendingTransfer, String>, PendingTransferRepositoryCustom {
+
+  /** Transferencias registradas antes de before, de la más antigua a la más reciente. */
+  Flux<PendingTransfer> findByCreationDatetimeLessThanOrderByCreationDatetimeAsc(
+      LocalDateTime before);
+}
@@ -0,0 +1,25 @@
+package com.nttdata.bc46account.repository;
+
+import com.nttdata.bc46account.model.PendingTransfer;
+import java.time.Duration;
+import reactor.core.publisher.Mono;
+
+/**
+ * Ntt Data - Top Employer 2023.
+ * Todos los derechos Reservados.
+ */
+public interface PendingTransferRepositoryCustom {
+
+  /**
+   * Reserva la transferencia para owner durante lease si está libre, su reserva venció o ya
+   * era de owner (en ese caso la renueva). Retorna la transferencia actualizada, o vacío si
+   * ya se cerró o la tiene reservada otro.
+   **/
+  Mono<PendingTransfer> claim(String idTransfer, String owner, Duration lease);
+
+  /** Marca la transferencia como APPLIED si owner aún la tiene reservada. */
+  Mono<Boolean> markApplied(String idTransfer, String owner);
+
+  /** Elimina la transferencia si owner aún la tiene reservada. */
+  Mono<Boolean> deleteClaimed(String idTransfer, String owner);
+}
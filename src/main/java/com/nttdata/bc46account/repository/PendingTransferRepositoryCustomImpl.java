@@ -0,0 +1,57 @@
+package com.nttdata.bc46account.repository;
+
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+import static org.springframework.data.mongodb.core.query.Query.query;
+
+import com.nttdata.bc46account.model.PendingTransfer;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import reactor.core.publisher.Mono;
+
+/**
+ * Ntt Data - Top Employer 2023.
+ * Todos los derechos Reservados.
+ */
+public class PendingTransferRepositoryCustomImpl implements PendingTransferRepositoryCustom {
+
+  private final ReactiveMongoTemplate mongoTemplate;
+
+  public PendingTransferRepositoryCustomImpl(ReactiveMongoTemplate mongoTemplate) {
+    this.mongoTemplate = mongoTemplate;
+  }
+
+  @Override
+  public Mono<PendingTransfer> claim(String idTransfer, String owner, Duration lease) {
+    return Mono.defer(() -> {
+      LocalDateTime now = LocalDateTime.now();
+      return mongoTemplate.findAndModify(
+          query(where("_id").is(idTransfer).orOperator(
+              where("lockedBy").is(owner),
+              where("lockedUntil").is(null),
+              where("lockedUntil").lt(now))),
+          new Update().set("lockedBy", owner).set("lockedUntil", now.plus(lease)),
+          FindAndModifyOptions.options().returnNew(true), PendingTransfer.class);
+    });
+  }
+
+  @Override
+  public Mono<Boolean> markApplied(String idTransfer, String owner) {
+    return mongoTemplate.updateFirst(claimedBy(idTransfer, owner),
+            new Update().set("state", PendingTransfer.APPLIED), PendingTransfer.class)
+        .map(result -> result.getMatchedCount() > 0);
+  }
+
+  @Override
+  public Mono<Boolean> deleteClaimed(String idTransfer, String owner) {
+    return mongoTemplate.remove(claimedBy(idTransfer, owner), PendingTransfer.class)
+        .map(result -> result.getDeletedCount() > 0);
+  }
+
+  private static Query claimedBy(String idTransfer, String owner) {
+    return query(where("_id").is(idTransfer).and("lockedBy").is(owner));
+  }
+}
@@ -0,0 +1,14 @@
+package com.nttdata.bc46account.repository;
+
+import com.nttdata.bc46account.model.Sequence;
+import org.springframework.data.mongodb.repository.ReactiveMongoRepository;
+import org.springframework.stereotype.Repository;
+
+/**
+ * Ntt Data - Top Employer 2023.
+ * Todos los derechos Reservados.
+ */
+@Repository
+public interface SequenceRepository extends ReactiveMongoRepository<Sequence, String>,
+    SequenceRepositoryCustom {
+}
@@ -0,0 +1,16 @@
+package com.nttdata.bc46account.repository;
+
+import reactor.core.publisher.Mono;
+
+/**
+ * Ntt Data - Top Employer 2023.
+ * Todos los derechos Reservados.
+ */
+public interface SequenceRepositoryCustom {
+
+  /**
+   * Incrementa atómicamente la secuencia en delta y retorna el nuevo valor.
+   * Si la secuencia no existe se crea partiendo de cero.
+   **/
+  Mono<Long> incrementAndGet(String name, long delta);
+}
@@ -0,0 +1,31 @@
+package com.nttdata.bc46account.repository;
+
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+import static org.springframework.data.mongodb.core.query.Query.query;
+
+import com.nttdata.bc46account.model.Sequence;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.query.Update;
+import reactor.core.publisher.Mono;
+
+/**
+ * Ntt Data - Top Employer 2023.
+ * Todos los derechos Reservados.
+ */
+public class SequenceRepositoryCustomImpl implements SequenceRepositoryCustom {
+
+  private final ReactiveMongoTemplate mongoTemplate;
+
+  public SequenceRepositoryCustomImpl(ReactiveMongoTemplate mongoTemplate) {
+    this.mongoTemplate = mongoTemplate;
+  }
+
+  @Override
+  public Mono<Long> incrementAndGet(String name, long delta) {
+    return mongoTemplate.findAndModify(query(where("_id").is(name)),
+            new Update().inc("value", delta),
+            FindAndModifyOptions.options().returnNew(true).upsert(true), Sequence.class)
+        .map(Sequence::getValue);
+  }
+}
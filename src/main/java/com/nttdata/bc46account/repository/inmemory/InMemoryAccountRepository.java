@@ -0,0 +1,202 @@
+package com.nttdata.bc46account.repository.inmemory;
+
+import com.nttdata.bc46account.model.Account;
+import com.nttdata.bc46account.model.AccountSummary;
+import com.nttdata.bc46account.model.AccountUpdate;
+import com.nttdata.bc46account.repository.AccountRepository;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import org.springframework.context.annotation.Profile;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Ntt Data - Top Employer 2023.
+ * Todos los derechos Reservados.
+ * AccountRepository en memoria; las actualizaciones de saldo son atómicas por cuenta y, como
+ * los índices únicos de Mongo, rechaza un accountNumber o cci que ya use otra cuenta.
+ */
+@Repository
+@Profile("inmemory")
+public class InMemoryAccountRepository extends InMemoryReactiveRepository<Account>
+    implements AccountRepository {
+
+  public InMemoryAccountRepository() {
+    super(Account::getIdAccount, InMemoryAccountRepository::copyOf);
+  }
+
+  @Override
+  protected synchronized void insertNow(Account account) {
+    checkUnique(account);
+    super.insertNow(account);
+  }
+
+  @Override
+  protected synchronized void saveNow(Account account) {
+    checkUnique(account);
+    super.saveNow(account);
+  }
+
+  private void checkUnique(Account account) {
+    for (Account other : store.values()) {
+      if (other.getIdAccount().equals(account.getIdAccount())) {
+        continue;
+      }
+      if (Objects.equals(other.getAccountNumber(), account.getAccountNumber())) {
+        throw new DuplicateKeyException("Duplicate accountNumber " + account.getAccountNumber());
+      }
+      if (Objects.equals(other.getCci(), account.getCci())) {
+        throw new DuplicateKeyException("Duplicate cci " + account.getCci());
+      }
+    }
+  }
+
+  @Override
+  public Flux<Account> findByIdCustomer(String idCustomer) {
+    return findWhere(account -> idCustomer.equals(account.getIdCustomer()));
+  }
+
+  @Override
+  public Mono<Account> findByAccountNumber(String accountNumber) {
+    return findWhere(account -> accountNumber.equals(account.getAccountNumber())).next();
+  }
+
+  @Override
+  public Mono<Boolean> existsByIdCustomerAndIdProduct(String idCustomer, String idProduct) {
+    return findWhere(account -> idCustomer.equals(account.getIdCustomer())
+        && idProduct.equals(account.getIdProduct())).hasElements();
+  }
+
+  @Override
+  public Flux<AccountSummary> findAllSummaries() {
+    return findAll().map(InMemoryAccountRepository::summaryOf);
+  }
+
+  @Override
+  public Flux<AccountSummary> findSummariesByIdCustomer(String idCustomer) {
+    return findByIdCustomer(idCustomer).map(InMemoryAccountRepository::summaryOf);
+  }
+
+  @Override
+  public Mono<Account> updateDetails(String idAccount, AccountUpdate details) {
+    return Mono.fromCallable(() -> {
+      Account[] previous = {null};
+      store.computeIfPresent(idAccount, (id, account) -> {
+        previous[0] = copy(account);
+        if (details.getAvailableBalance() != null) {
+          account.setAvailableBalance(details.getAvailableBalance());
+        }
+        account.setHolderAccount(copyList(details.getHolderAccount()));
+        account.setAuthorizedSigner(copyList(details.getAuthorizedSigner()));
+        account.setUpdateDatetime(LocalDateTime.now());
+        return account;
+      });
+      return previous[0];
+    });
+  }
+
+  @Override
+  public Mono<Void> markArchivedBefore(String idAccount, LocalDateTime archivedBefore) {
+    return Mono.fromRunnable(() -> store.computeIfPresent(idAccount, (id, account) -> {
+      if (account.getArchivedBefore() == null
+          || archivedBefore.isAfter(account.getArchivedBefore())) {
+        account.setArchivedBefore(archivedBefore);
+      }
+      return account;
+    }));
+  }
+
+  @Override
+  public Flux<Account> streamAll(int batchSize) {
+    return findAll().limitRate(batchSize);
+  }
+
+  @Override
+  public Mono<Boolean> incrementBalance(String idAccount, long amount) {
+    return Mono.fromCallable(() -> store.computeIfPresent(idAccount, (id, account) -> {
+      account.setAvailableBalance(account.getAvailableBalance() + amount);
+      return account;
+    }) != null);
+  }
+
+  @Override
+  public Mono<Boolean> debitIfSufficient(String idAccount, long amount) {
+    return Mono.fromCallable(() -> {
+      boolean[] debited = {false};
+      store.computeIfPresent(idAccount, (id, account) -> {
+        if (account.getAvailableBalance() >= amount) {
+          account.setAvailableBalance(account.getAvailableBalance() - amount);
+          debited[0] = true;
+        }
+        return account;
+      });
+      return debited[0];
+    });
+  }
+
+  @Override
+  public Mono<Boolean> applyTransferLeg(String idAccount, String idTransfer, long amount) {
+    return Mono.fromCallable(() -> {
+      boolean[] applied = {false};
+      store.computeIfPresent(idAccount, (id, account) -> {
+        List<String> pending = account.getPendingTransfers() == null ? new ArrayList<>()
+            : account.getPendingTransfers();
+        if (!pending.contains(idTransfer)
+            && (amount >= 0 || account.getAvailableBalance() >= -amount)) {
+          account.setAvailableBalance(account.getAvailableBalance() + amount);
+          pending.add(idTransfer);
+          account.setPendingTransfers(pending);
+          applied[0] = true;
+        }
+        return account;
+      });
+      return applied[0];
+    });
+  }
+
+  @Override
+  public Mono<Boolean> hasTransferLeg(String idAccount, String idTransfer) {
+    return Mono.fromCallable(() -> {
+      Account account = store.get(idAccount);
+      return account != null && account.getPendingTransfers() != null
+          && account.getPendingTransfers().contains(idTransfer);
+    });
+  }
+
+  @Override
+  public Mono<Void> clearTransferLeg(String idAccount, String idTransfer) {
+    return Mono.fromRunnable(() -> store.computeIfPresent(idAccount, (id, account) -> {
+      if (account.getPendingTransfers() != null) {
+        account.getPendingTransfers().remove(idTransfer);
+      }
+      return account;
+    }));
+  }
+
+  private static AccountSummary summaryOf(Account account) {
+    return new AccountSummary(account.getIdAccount(), account.getAccountNumber(),
+        account.getIdProduct(), account.getAccountType(), account.getAvailableBalance());
+  }
+
+  private static Account copyOf(Account source) {
+    Account copy = new Account();
+    copy.setIdAccount(source.getIdAccount());
+    copy.setAccountType(source.getAccountType());
+    copy.setIdProduct(source.getIdProduct());
+    copy.setIdCustomer(source.getIdCustomer());
+    copy.setAccountNumber(source.getAccountNumber());
+    copy.setCci(source.getCci());
+    copy.setAvailableBalance(source.getAvailableBalance());
+    copy.setHolderAccount(copyList(source.getHolderAccount()));
+    copy.setAuthorizedSigner(copyList(source.getAuthorizedSigner()));
+    copy.setPendingTransfers(copyList(source.getPendingTransfers()));
+    copy.setArchivedBefore(source.getArchivedBefore());
+    copy.setCreationDatetime(source.getCreationDatetime());
+    copy.setUpdateDatetime(source.getUpdateDatetime());
+    return copy;
+  }
+}
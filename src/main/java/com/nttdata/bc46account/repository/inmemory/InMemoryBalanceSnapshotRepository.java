@@ -0,0 +1,44 @@
+package com.nttdata.bc46account.repository.inmemory;
+
+import com.nttdata.bc46account.model.BalanceSnapshot;
+import com.nttdata.bc46account.repository.BalanceSnapshotRepository;
+import java.time.LocalDateTime;
+import java.util.Comparator;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Mono;
+
+/**
+ * Ntt Data - Top Employer 2023.
+ * Todos los derechos Reservados.
+ * BalanceSnapshotRepository en memoria.
+ */
+@Repository
+@Profile("inmemory")
+public class InMemoryBalanceSnapshotRepository extends InMemoryReactiveRepository<BalanceSnapshot>
+    implements BalanceSnapshotRepository {
+
+  public InMemoryBalanceSnapshotRepository() {
+    super(BalanceSnapshot::getIdSnapshot, source -> new BalanceSnapshot(source.getIdSnapshot(),
+        source.getIdAccount(), source.getAsOf(), source.getBalance(),
+        source.getCreationDatetime()));
+  }
+
+  @Override
+  public Mono<BalanceSnapshot> findFirstByIdAccountAndAsOfLessThanEqualOrderByAsOfDesc(
+      String idAccount, LocalDateTime asOf) {
+    return findWhere(snapshot -> snapshot.getIdAccount().equals(idAccount)
+        && !snapshot.getAsOf().isAfter(asOf))
+        .sort(Comparator.comparing(BalanceSnapshot::getAsOf).reversed())
+        .next();
+  }
+
+  @Override
+  public Mono<BalanceSnapshot> findFirstByIdAccountAndAsOfGreaterThanOrderByAsOfAsc(
+      String idAccount, LocalDateTime asOf) {
+    return findWhere(snapshot -> snapshot.getIdAccount().equals(idAccount)
+        && snapshot.getAsOf().isAfter(asOf))
+        .sort(Comparator.comparing(BalanceSnapshot::getAsOf))
+        .next();
+  }
+}
@@ -0,0 +1,75 @@
+package com.nttdata.bc46account.repository.inmemory;
+
+import com.nttdata.bc46account.model.CustomerPortfolio;
+import com.nttdata.bc46account.repository.CustomerPortfolioRepository;
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Mono;
+
+/**
+ * Ntt Data - Top Employer 2023.
+ * Todos los derechos Reservados.
+ * CustomerPortfolioRepository en memoria; applyDelta y los reemplazos por versión son
+ * atómicos por cliente.
+ */
+@Repository
+@Profile("inmemory")
+public class InMemoryCustomerPortfolioRepository
+    extends InMemoryReactiveRepository<CustomerPortfolio> implements CustomerPortfolioRepository {
+
+  public InMemoryCustomerPortfolioRepository() {
+    super(CustomerPortfolio::getIdCustomer, InMemoryCustomerPortfolioRepository::copyOf);
+  }
+
+  @Override
+  public Mono<Boolean> applyDelta(String idCustomer, String idProduct, int accounts,
+                                  long balance, LocalDateTime movementAt) {
+    return Mono.fromCallable(() -> store.computeIfPresent(idCustomer, (id, portfolio) -> {
+      portfolio.apply(idProduct, accounts, balance, movementAt);
+      portfolio.setUpdateDatetime(LocalDateTime.now());
+      portfolio.setVersion(portfolio.getVersion() + 1);
+      return portfolio;
+    }) != null);
+  }
+
+  @Override
+  public Mono<Boolean> replaceIfVersion(CustomerPortfolio portfolio, long expectedVersion) {
+    return Mono.fromCallable(() -> {
+      boolean[] replaced = {false};
+      store.computeIfPresent(portfolio.getIdCustomer(), (id, current) -> {
+        if (current.getVersion() != expectedVersion) {
+          return current;
+        }
+        CustomerPortfolio replacement = copy(portfolio);
+        replacement.setVersion(expectedVersion + 1);
+        replaced[0] = true;
+        return replacement;
+      });
+      return replaced[0];
+    });
+  }
+
+  @Override
+  public Mono<Boolean> deleteIfVersion(String idCustomer, long expectedVersion) {
+    return Mono.fromCallable(() -> {
+      boolean[] deleted = {false};
+      store.computeIfPresent(idCustomer, (id, current) -> {
+        deleted[0] = current.getVersion() == expectedVersion;
+        return deleted[0] ? null : current;
+      });
+      return deleted[0];
+    });
+  }
+
+  private static CustomerPortfolio copyOf(CustomerPortfolio source) {
+    CustomerPortfolio copy = new CustomerPortfolio(source.getIdCustomer(), new LinkedHashMap<>(),
+        source.getAccountCount(), source.getTotalBalance(), source.getLastMovementDatetime(),
+        source.getUpdateDatetime(), source.getVersion());
+    source.getProducts().forEach((idProduct, position) -> copy.getProducts().put(idProduct,
+        new CustomerPortfolio.ProductPosition(position.getAccountCount(),
+            position.getBalance())));
+    return copy;
+  }
+}
@@ -0,0 +1,78 @@
+package com.nttdata.bc46account.repository.inmemory;
+
+import com.nttdata.bc46account.model.IdempotencyRecord;
+import com.nttdata.bc46account.model.Movement;
+import com.nttdata.bc46account.repository.IdempotencyRecordRepository;
+import java.time.LocalDateTime;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Mono;
+
+/**
+ * Ntt Data - Top Employer 2023.
+ * Todos los derechos Reservados.
+ * IdempotencyRecordRepository en memoria; insert rechaza claves repetidas como el _id único.
+ */
+@Repository
+@Profile("inmemory")
+public class InMemoryIdempotencyRecordRepository extends InMemoryReactiveRepository<IdempotencyRecord>
+    implements IdempotencyRecordRepository {
+
+  public InMemoryIdempotencyRecordRepository() {
+    super(IdempotencyRecord::getIdRecord, source -> new IdempotencyRecord(source.getIdRecord(),
+        source.getMovement(), source.getOwner(), source.getCreationDatetime(),
+        source.getExpiresAt()));
+  }
+
+  @Override
+  public Mono<Boolean> complete(String idRecord, String owner, Movement movement,
+                                LocalDateTime expiresAt) {
+    return Mono.fromCallable(() -> {
+      boolean[] completed = {false};
+      store.computeIfPresent(idRecord, (id, record) -> {
+        if (isReservedBy(record, owner)) {
+          record.setMovement(movement);
+          record.setExpiresAt(expiresAt);
+          completed[0] = true;
+        }
+        return record;
+      });
+      return completed[0];
+    });
+  }
+
+  @Override
+  public Mono<Boolean> release(String idRecord, String owner) {
+    return Mono.fromCallable(() -> {
+      boolean[] released = {false};
+      store.computeIfPresent(idRecord, (id, record) -> {
+        if (isReservedBy(record, owner)) {
+          released[0] = true;
+          return null;
+        }
+        return record;
+      });
+      return released[0];
+    });
+  }
+
+  @Override
+  public Mono<Boolean> takeOver(String idRecord, String owner, LocalDateTime reservedBefore) {
+    return Mono.fromCallable(() -> {
+      boolean[] taken = {false};
+      store.computeIfPresent(idRecord, (id, record) -> {
+        if (!record.isCompleted() && record.getCreationDatetime().isBefore(reservedBefore)) {
+          record.setOwner(owner);
+          record.setCreationDatetime(LocalDateTime.now());
+          taken[0] = true;
+        }
+        return record;
+      });
+      return taken[0];
+    });
+  }
+
+  private static boolean isReservedBy(IdempotencyRecord record, String owner) {
+    return !record.isCompleted() && owner.equals(record.getOwner());
+  }
+}
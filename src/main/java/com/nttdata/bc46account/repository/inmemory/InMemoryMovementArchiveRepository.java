@@ -0,0 +1,50 @@
+package com.nttdata.bc46account.repository.inmemory;
+
+import com.nttdata.bc46account.model.MovementArchive;
+import com.nttdata.bc46account.repository.MovementArchiveRepository;
+import java.time.LocalDateTime;
+import java.util.Comparator;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+
+/**
+ * Ntt Data - Top Employer 2023.
+ * Todos los derechos Reservados.
+ * MovementArchiveRepository en memoria.
+ */
+@Repository
+@Profile("inmemory")
+public class InMemoryMovementArchiveRepository extends InMemoryReactiveRepository<MovementArchive>
+    implements MovementArchiveRepository {
+
+  public InMemoryMovementArchiveRepository() {
+    super(MovementArchive::getIdArchive, source -> new MovementArchive(source.getIdArchive(),
+        source.getIdAccount(), source.getDay(), source.getCount(), source.getTotal(),
+        source.getMovements().clone(), source.getUpdateDatetime()));
+  }
+
+  @Override
+  public Flux<MovementArchive> findByIdAccountAndDayLessThanOrderByDayDesc(String idAccount,
+                                                                           LocalDateTime before) {
+    return findWhere(archive -> archive.getIdAccount().equals(idAccount)
+        && archive.getDay().isBefore(before))
+        .sort(Comparator.comparing(MovementArchive::getDay).reversed());
+  }
+
+  @Override
+  public Flux<MovementArchive> findByIdAccountAndDayLessThanOrderByDayAsc(String idAccount,
+                                                                          LocalDateTime before) {
+    return findWhere(archive -> archive.getIdAccount().equals(idAccount)
+        && archive.getDay().isBefore(before))
+        .sort(Comparator.comparing(MovementArchive::getDay));
+  }
+
+  @Override
+  public Flux<MovementArchive> findByIdAccountAndDayGreaterThanEqualAndDayLessThanOrderByDayAsc(
+      String idAccount, LocalDateTime from, LocalDateTime to) {
+    return findWhere(archive -> archive.getIdAccount().equals(idAccount)
+        && !archive.getDay().isBefore(from) && archive.getDay().isBefore(to))
+        .sort(Comparator.comparing(MovementArchive::getDay));
+  }
+}
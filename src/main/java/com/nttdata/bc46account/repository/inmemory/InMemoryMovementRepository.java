@@ -0,0 +1,147 @@
+package com.nttdata.bc46account.repository.inmemory;
+
+import com.nttdata.bc46account.model.Movement;
+import com.nttdata.bc46account.model.MovementPageRequest;
+import com.nttdata.bc46account.repository.MovementRepository;
+import java.time.LocalDateTime;
+import java.util.Comparator;
+import java.util.NavigableSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Ntt Data - Top Employer 2023.
+ * Todos los derechos Reservados.
+ * MovementRepository en memoria. Mantiene por cuenta un conjunto ordenado del más reciente
+ * al más antiguo, equivalente al índice account_newest_first de Mongo.
+ */
+@Repository
+@Profile("inmemory")
+public class InMemoryMovementRepository extends InMemoryReactiveRepository<Movement>
+    implements MovementRepository {
+
+  static final Comparator<Movement> NEWEST_FIRST = Comparator
+      .comparing(Movement::getCreationDatetime,
+          Comparator.nullsFirst(Comparator.<LocalDateTime>naturalOrder()))
+      .thenComparing(Movement::getIdMovement)
+      .reversed();
+
+  private final ConcurrentMap<String, NavigableSet<Movement>> byAccount =
+      new ConcurrentHashMap<>();
+
+  public InMemoryMovementRepository() {
+    super(Movement::getIdMovement, InMemoryMovementRepository::copyOf);
+  }
+
+  @Override
+  public <S extends Movement> Mono<S> insert(S entity) {
+    return super.insert(entity).doOnNext(this::index);
+  }
+
+  @Override
+  public <S extends Movement> Mono<S> save(S entity) {
+    return Mono.fromRunnable(() -> unindex(store.get(entity.getIdMovement())))
+        .then(super.save(entity))
+        .doOnNext(this::index);
+  }
+
+  @Override
+  public Mono<Void> deleteById(String id) {
+    return Mono.fromRunnable(() -> unindex(store.remove(id)));
+  }
+
+  @Override
+  public Mono<Void> deleteAll() {
+    return super.deleteAll().then(Mono.fromRunnable(byAccount::clear));
+  }
+
+  @Override
+  public Flux<Movement> findByIdAccountOrderByCreationDatetimeDescIdMovementDesc(
+      String idAccount) {
+    return Flux.defer(() -> Flux.fromIterable(byAccount.getOrDefault(idAccount,
+        new ConcurrentSkipListSet<>(NEWEST_FIRST)))).map(this::copy);
+  }
+
+  @Override
+  public Mono<Movement> findFirstByIdAccountOrderByCreationDatetimeDescIdMovementDesc(
+      String idAccount) {
+    return findByIdAccountOrderByCreationDatetimeDescIdMovementDesc(idAccount).next();
+  }
+
+  @Override
+  public Flux<Movement> findPage(MovementPageRequest request, int limit) {
+    return Flux.defer(() -> {
+      NavigableSet<Movement> movements = byAccount.getOrDefault(request.getIdAccount(),
+          new ConcurrentSkipListSet<>(NEWEST_FIRST));
+      if (request.getAfterDatetime() != null) {
+        Movement after = new Movement();
+        after.setCreationDatetime(request.getAfterDatetime());
+        after.setIdMovement(request.getAfterIdMovement());
+        movements = movements.tailSet(after, false);
+      }
+      return Flux.fromIterable(movements);
+    })
+        .filter(movement -> request.getOperation() == null
+            || request.getOperation().name().equals(movement.getOperation()))
+        .filter(movement -> request.getFrom() == null
+            || !movement.getCreationDatetime().isBefore(request.getFrom()))
+        .filter(movement -> request.getTo() == null
+            || !movement.getCreationDatetime().isAfter(request.getTo()))
+        .take(limit)
+        .map(this::copy);
+  }
+
+  @Override
+  public Flux<Movement> findInPeriod(String idAccount, LocalDateTime from, LocalDateTime to) {
+    return Flux.defer(() -> Flux.fromIterable(byAccount.getOrDefault(idAccount,
+            new ConcurrentSkipListSet<>(NEWEST_FIRST)).descendingSet()))
+        .filter(movement -> inPeriod(movement, from, to))
+        .map(this::copy);
+  }
+
+  @Override
+  public Mono<Long> sumAmounts(String idAccount, LocalDateTime from, LocalDateTime to) {
+    return Mono.fromCallable(() -> byAccount.getOrDefault(idAccount,
+            new ConcurrentSkipListSet<>(NEWEST_FIRST)).stream()
+        .filter(movement -> inPeriod(movement, from, to))
+        .mapToLong(Movement::getMonto)
+        .sum());
+  }
+
+  private static boolean inPeriod(Movement movement, LocalDateTime from, LocalDateTime to) {
+    LocalDateTime datetime = movement.getCreationDatetime();
+    return datetime != null
+        && (from == null || !datetime.isBefore(from))
+        && (to == null || datetime.isBefore(to));
+  }
+
+  private void index(Movement movement) {
+    byAccount.computeIfAbsent(movement.getIdAccount(),
+        id -> new ConcurrentSkipListSet<>(NEWEST_FIRST)).add(copy(movement));
+  }
+
+  private void unindex(Movement movement) {
+    if (movement != null && byAccount.containsKey(movement.getIdAccount())) {
+      byAccount.get(movement.getIdAccount()).remove(movement);
+    }
+  }
+
+  private static Movement copyOf(Movement source) {
+    Movement copy = new Movement();
+    copy.setIdMovement(source.getIdMovement());
+    copy.setIdAccount(source.getIdAccount());
+    copy.setOperation(source.getOperation());
+    copy.setMovementType(source.getMovementType());
+    copy.setSourceAccount(source.getSourceAccount());
+    copy.setTargetAccount(source.getTargetAccount());
+    copy.setMoneda(source.getMoneda());
+    copy.setMonto(source.getMonto());
+    copy.setCreationDatetime(source.getCreationDatetime());
+    return copy;
+  }
+}
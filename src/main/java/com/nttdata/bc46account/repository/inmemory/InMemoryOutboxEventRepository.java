@@ -0,0 +1,117 @@
+package com.nttdata.bc46account.repository.inmemory;
+
+import com.nttdata.bc46account.model.OutboxEvent;
+import com.nttdata.bc46account.repository.OutboxEventRepository;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Comparator;
+import java.util.List;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Ntt Data - Top Employer 2023.
+ * Todos los derechos Reservados.
+ * OutboxEventRepository en memoria; la reserva de eventos es atómica por lote.
+ */
+@Repository
+@Profile("inmemory")
+public class InMemoryOutboxEventRepository extends InMemoryReactiveRepository<OutboxEvent>
+    implements OutboxEventRepository {
+
+  private static final Comparator<OutboxEvent> OLDEST_FIRST =
+      Comparator.comparing(OutboxEvent::getCreationDatetime).thenComparing(OutboxEvent::getIdEvent);
+
+  public InMemoryOutboxEventRepository() {
+    super(OutboxEvent::getIdEvent, InMemoryOutboxEventRepository::copyOf);
+  }
+
+  @Override
+  public Flux<OutboxEvent> claimBatch(String owner, Duration lease, int max) {
+    return Mono.fromCallable(() -> claimOldest(event -> true, owner, lease, max))
+        .flatMapMany(Flux::fromIterable);
+  }
+
+  @Override
+  public Mono<OutboxEvent> claim(String idEvent, String owner, Duration lease) {
+    return Mono.fromCallable(() -> claimOldest(event -> idEvent.equals(event.getIdEvent()),
+            owner, lease, 1))
+        .flatMap(claimed -> Mono.justOrEmpty(claimed.stream().findFirst()));
+  }
+
+  private synchronized List<OutboxEvent> claimOldest(Predicate<OutboxEvent> filter,
+                                                     String owner, Duration lease, int max) {
+    LocalDateTime now = LocalDateTime.now();
+    return store.values().stream()
+        .filter(filter)
+        .filter(event -> !event.isPublished())
+        .filter(event -> event.getLockedUntil() == null || event.getLockedUntil().isBefore(now))
+        .sorted(OLDEST_FIRST)
+        .limit(max)
+        .map(event -> {
+          event.setLockedBy(owner);
+          event.setLockedUntil(now.plus(lease));
+          return copy(event);
+        })
+        .collect(Collectors.toList());
+  }
+
+  @Override
+  public Mono<Boolean> hasOlderPending(OutboxEvent event) {
+    return Mono.fromCallable(() -> store.values().stream()
+        .filter(other -> !other.isPublished())
+        .filter(other -> event.getEventKey().equals(other.getEventKey()))
+        .anyMatch(other -> OLDEST_FIRST.compare(other, event) < 0));
+  }
+
+  @Override
+  public Mono<Boolean> release(String idEvent, String owner) {
+    return Mono.fromCallable(() -> {
+      boolean[] released = {false};
+      store.computeIfPresent(idEvent, (id, event) -> {
+        if (owner.equals(event.getLockedBy())) {
+          event.setLockedBy(null);
+          event.setLockedUntil(null);
+          released[0] = true;
+        }
+        return event;
+      });
+      return released[0];
+    });
+  }
+
+  @Override
+  public Mono<Boolean> markPublished(String idEvent, int partition, long offset) {
+    return Mono.fromCallable(() -> store.computeIfPresent(idEvent, (id, event) -> {
+      event.setPublished(true);
+      event.setPartition(partition);
+      event.setOffset(offset);
+      event.setPublishedDatetime(LocalDateTime.now());
+      event.setLockedBy(null);
+      event.setLockedUntil(null);
+      return event;
+    }) != null);
+  }
+
+  @Override
+  public Mono<Boolean> markFailed(String idEvent, String error) {
+    return Mono.fromCallable(() -> store.computeIfPresent(idEvent, (id, event) -> {
+      event.setAttempts(event.getAttempts() + 1);
+      event.setLastError(error);
+      event.setLockedBy(null);
+      event.setLockedUntil(null);
+      return event;
+    }) != null);
+  }
+
+  private static OutboxEvent copyOf(OutboxEvent source) {
+    return new OutboxEvent(source.getIdEvent(), source.getTopic(), source.getEventKey(),
+        source.getOperation(), source.getPayload(), source.isPublished(), source.getAttempts(), source.getLastError(),
+        source.getLockedBy(), source.getLockedUntil(), source.getPartition(), source.getOffset(),
+        source.getCreationDatetime(), source.getPublishedDatetime());
+  }
+}
@@ -0,0 +1,81 @@
+package com.nttdata.bc46account.repository.inmemory;
+
+import com.nttdata.bc46account.model.PendingTransfer;
+import com.nttdata.bc46account.repository.PendingTransferRepository;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Comparator;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Ntt Data - Top Employer 2023.
+ * Todos los derechos Reservados.
+ * PendingTransferRepository en memoria; la reserva de transferencias es atómica por registro.
+ */
+@Repository
+@Profile("inmemory")
+public class InMemoryPendingTransferRepository extends InMemoryReactiveRepository<PendingTransfer>
+    implements PendingTransferRepository {
+
+  public InMemoryPendingTransferRepository() {
+    super(PendingTransfer::getIdTransfer, source -> new PendingTransfer(source.getIdTransfer(),
+        source.getSourceAccount(), source.getTargetAccount(), source.getAmount(),
+        copyList(source.getMovements()), source.getState(), source.getLockedBy(),
+        source.getLockedUntil(), source.getCreationDatetime()));
+  }
+
+  @Override
+  public Flux<PendingTransfer> findByCreationDatetimeLessThanOrderByCreationDatetimeAsc(
+      LocalDateTime before) {
+    return findWhere(pending -> pending.getCreationDatetime().isBefore(before))
+        .sort(Comparator.comparing(PendingTransfer::getCreationDatetime));
+  }
+
+  @Override
+  public Mono<PendingTransfer> claim(String idTransfer, String owner, Duration lease) {
+    return Mono.fromCallable(() -> {
+      LocalDateTime now = LocalDateTime.now();
+      PendingTransfer[] claimed = {null};
+      store.computeIfPresent(idTransfer, (id, pending) -> {
+        if (owner.equals(pending.getLockedBy()) || pending.getLockedUntil() == null
+            || pending.getLockedUntil().isBefore(now)) {
+          pending.setLockedBy(owner);
+          pending.setLockedUntil(now.plus(lease));
+          claimed[0] = copy(pending);
+        }
+        return pending;
+      });
+      return claimed[0];
+    });
+  }
+
+  @Override
+  public Mono<Boolean> markApplied(String idTransfer, String owner) {
+    return Mono.fromCallable(() -> {
+      boolean[] applied = {false};
+      store.computeIfPresent(idTransfer, (id, pending) -> {
+        if (owner.equals(pending.getLockedBy())) {
+          pending.setState(PendingTransfer.APPLIED);
+          applied[0] = true;
+        }
+        return pending;
+      });
+      return applied[0];
+    });
+  }
+
+  @Override
+  public Mono<Boolean> deleteClaimed(String idTransfer, String owner) {
+    return Mono.fromCallable(() -> {
+      boolean[] deleted = {false};
+      store.computeIfPresent(idTransfer, (id, pending) -> {
+        deleted[0] = owner.equals(pending.getLockedBy());
+        return deleted[0] ? null : pending;
+      });
+      return deleted[0];
+    });
+  }
+}
@@ -0,0 +1,114 @@
+package com.nttdata.bc46account.repository.inmemory;
+
+import java.beans.PropertyDescriptor;
+import java.util.Comparator;
+import java.util.Optional;
+import java.util.function.Predicate;
+import java.util.regex.Pattern;
+import org.springframework.beans.BeanWrapper;
+import org.springframework.beans.BeanWrapperImpl;
+import org.springframework.data.domain.Example;
+import org.springframework.data.domain.ExampleMatcher;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.support.ExampleMatcherAccessor;
+
+/**
+ * Ntt Data - Top Employer 2023.
+ * Todos los derechos Reservados.
+ * Sort y query by example sobre los documentos en memoria, con la semántica de Mongo: los
+ * nulos ordenan primero en orden ascendente y las propiedades primitivas del probe siempre
+ * participan en la comparación.
+ */
+final class InMemoryQueries {
+
+  private InMemoryQueries() {
+  }
+
+  /** Comparador con los criterios de sort, en orden; Sort.unsorted() no cambia el orden. */
+  static <T> Comparator<T> comparator(Sort sort) {
+    Comparator<T> comparator = (left, right) -> 0;
+    for (Sort.Order order : sort) {
+      Comparator<T> byProperty = (left, right) -> compare(sortKey(left, order),
+          sortKey(right, order));
+      comparator = comparator.thenComparing(order.isAscending() ? byProperty
+          : byProperty.reversed());
+    }
+    return comparator;
+  }
+
+  /** Predicado que aceptan los documentos que coinciden con el probe según su ExampleMatcher. */
+  static <T> Predicate<T> matching(Example<? extends T> example) {
+    ExampleMatcher matcher = example.getMatcher();
+    ExampleMatcherAccessor accessor = new ExampleMatcherAccessor(matcher);
+    BeanWrapper probe = new BeanWrapperImpl(example.getProbe());
+    return entity -> {
+      if (!example.getProbeType().isInstance(entity)) {
+        return false;
+      }
+      BeanWrapper candidate = new BeanWrapperImpl(entity);
+      boolean any = false;
+      boolean all = true;
+      for (PropertyDescriptor property : probe.getPropertyDescriptors()) {
+        String path = property.getName();
+        if (property.getReadMethod() == null || "class".equals(path)
+            || accessor.isIgnoredPath(path)) {
+          continue;
+        }
+        Optional<Object> expected = accessor.getValueTransformerForPath(path)
+            .apply(Optional.ofNullable(probe.getPropertyValue(path)));
+        if (!expected.isPresent()
+            && accessor.getNullHandler() == ExampleMatcher.NullHandler.IGNORE) {
+          continue;
+        }
+        boolean matches = matches(expected.orElse(null), candidate.getPropertyValue(path),
+            accessor, path);
+        any |= matches;
+        all &= matches;
+      }
+      return matcher.isAllMatching() ? all : any;
+    };
+  }
+
+  private static boolean matches(Object expected, Object actual,
+                                 ExampleMatcherAccessor accessor, String path) {
+    if (expected == null || actual == null) {
+      return expected == actual;
+    }
+    if (!(expected instanceof String) || !(actual instanceof String)) {
+      return expected.equals(actual);
+    }
+    boolean ignoreCase = accessor.isIgnoreCaseForPath(path);
+    String value = ignoreCase ? ((String) actual).toLowerCase() : (String) actual;
+    String probe = ignoreCase ? ((String) expected).toLowerCase() : (String) expected;
+    switch (accessor.getStringMatcherForPath(path)) {
+      case STARTING:
+        return value.startsWith(probe);
+      case ENDING:
+        return value.endsWith(probe);
+      case CONTAINING:
+        return value.contains(probe);
+      case REGEX:
+        return Pattern.compile((String) expected, ignoreCase ? Pattern.CASE_INSENSITIVE : 0)
+            .matcher((String) actual).find();
+      default:
+        return value.equals(probe);
+    }
+  }
+
+  @SuppressWarnings({"unchecked", "rawtypes"})
+  private static int compare(Comparable left, Comparable right) {
+    if (left == null || right == null) {
+      return left == right ? 0 : left == null ? -1 : 1;
+    }
+    return left.compareTo(right);
+  }
+
+  @SuppressWarnings("rawtypes")
+  private static <T> Comparable sortKey(T entity, Sort.Order order) {
+    Object value = new BeanWrapperImpl(entity).getPropertyValue(order.getProperty());
+    if (order.isIgnoreCase() && value instanceof String) {
+      return ((String) value).toLowerCase();
+    }
+    return (Comparable) value;
+  }
+}
@@ -0,0 +1,301 @@
+package com.nttdata.bc46account.repository.inmemory;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.function.UnaryOperator;
+import org.reactivestreams.Publisher;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.dao.IncorrectResultSizeDataAccessException;
+import org.springframework.data.domain.Example;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.repository.ReactiveMongoRepository;
+import org.springframework.data.repository.query.FluentQuery;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Ntt Data - Top Employer 2023.
+ * Todos los derechos Reservados.
+ * Repositorio reactivo en memoria, sin Mongo: lo usan las pruebas y el perfil inmemory.
+ * Guarda copias de los documentos para que los cambios de los llamadores no se filtren
+ * al almacenamiento, igual que ocurre con una base de datos real.
+ */
+public abstract class InMemoryReactiveRepository<T> implements ReactiveMongoRepository<T, String> {
+
+  protected final ConcurrentMap<String, T> store = new ConcurrentHashMap<>();
+  private final Function<T, String> idGetter;
+  private final UnaryOperator<T> copier;
+
+  protected InMemoryReactiveRepository(Function<T, String> idGetter, UnaryOperator<T> copier) {
+    this.idGetter = idGetter;
+    this.copier = copier;
+  }
+
+  protected T copy(T entity) {
+    return copier.apply(entity);
+  }
+
+  protected Flux<T> findWhere(Predicate<T> filter) {
+    return Flux.defer(() -> Flux.fromStream(store.values().stream().filter(filter)
+        .map(this::copy)));
+  }
+
+  @Override
+  public <S extends T> Mono<S> insert(S entity) {
+    return Mono.fromCallable(() -> {
+      insertNow(entity);
+      return entity;
+    });
+  }
+
+  @Override
+  public <S extends T> Flux<S> insert(Iterable<S> entities) {
+    return Flux.fromIterable(entities).concatMap(this::insert);
+  }
+
+  @Override
+  public <S extends T> Flux<S> insert(Publisher<S> entities) {
+    return Flux.from(entities).concatMap(this::insert);
+  }
+
+  @Override
+  public <S extends T> Mono<S> save(S entity) {
+    return Mono.fromCallable(() -> {
+      saveNow(entity);
+      return entity;
+    });
+  }
+
+  /**
+   * Inserta una copia del documento; falla con DuplicateKeyException si el id ya existe.
+   * Los repositorios con índices únicos además del id lo sobrescriben para validarlos.
+   */
+  protected void insertNow(T entity) {
+    if (store.putIfAbsent(idGetter.apply(entity), copy(entity)) != null) {
+      throw new DuplicateKeyException("Duplicate key " + idGetter.apply(entity));
+    }
+  }
+
+  /** Inserta o reemplaza una copia del documento. */
+  protected void saveNow(T entity) {
+    store.put(idGetter.apply(entity), copy(entity));
+  }
+
+  @Override
+  public <S extends T> Flux<S> saveAll(Iterable<S> entities) {
+    return Flux.fromIterable(entities).concatMap(this::save);
+  }
+
+  @Override
+  public <S extends T> Flux<S> saveAll(Publisher<S> entityStream) {
+    return Flux.from(entityStream).concatMap(this::save);
+  }
+
+  @Override
+  public Mono<T> findById(String id) {
+    return Mono.fromCallable(() -> {
+      T entity = store.get(id);
+      return entity == null ? null : copy(entity);
+    });
+  }
+
+  @Override
+  public Mono<T> findById(Publisher<String> id) {
+    return Mono.from(id).flatMap(this::findById);
+  }
+
+  @Override
+  public Mono<Boolean> existsById(String id) {
+    return Mono.fromCallable(() -> store.containsKey(id));
+  }
+
+  @Override
+  public Mono<Boolean> existsById(Publisher<String> id) {
+    return Mono.from(id).flatMap(this::existsById);
+  }
+
+  @Override
+  public Flux<T> findAll() {
+    return findWhere(entity -> true);
+  }
+
+  @Override
+  public Flux<T> findAll(Sort sort) {
+    return findAll().sort(InMemoryQueries.comparator(sort));
+  }
+
+  @Override
+  public Flux<T> findAllById(Iterable<String> ids) {
+    return Flux.fromIterable(ids).concatMap(this::findById);
+  }
+
+  @Override
+  public Flux<T> findAllById(Publisher<String> idStream) {
+    return Flux.from(idStream).concatMap(this::findById);
+  }
+
+  @Override
+  public Mono<Long> count() {
+    return Mono.fromCallable(() -> (long) store.size());
+  }
+
+  @Override
+  public Mono<Void> deleteById(String id) {
+    return Mono.fromRunnable(() -> store.remove(id));
+  }
+
+  @Override
+  public Mono<Void> deleteById(Publisher<String> id) {
+    return Mono.from(id).flatMap(this::deleteById);
+  }
+
+  @Override
+  public Mono<Void> delete(T entity) {
+    return deleteById(idGetter.apply(entity));
+  }
+
+  @Override
+  public Mono<Void> deleteAllById(Iterable<? extends String> ids) {
+    return Flux.fromIterable(ids).concatMap(this::deleteById).then();
+  }
+
+  @Override
+  public Mono<Void> deleteAll(Iterable<? extends T> entities) {
+    return Flux.fromIterable(entities).concatMap(this::delete).then();
+  }
+
+  @Override
+  public Mono<Void> deleteAll(Publisher<? extends T> entityStream) {
+    return Flux.from(entityStream).concatMap(this::delete).then();
+  }
+
+  @Override
+  public Mono<Void> deleteAll() {
+    return Mono.fromRunnable(store::clear);
+  }
+
+  @Override
+  public <S extends T> Mono<S> findOne(Example<S> example) {
+    return findAll(example).collectList().flatMap(matches -> {
+      if (matches.size() > 1) {
+        return Mono.error(new IncorrectResultSizeDataAccessException(1, matches.size()));
+      }
+      return Mono.justOrEmpty(matches.stream().findFirst());
+    });
+  }
+
+  @Override
+  @SuppressWarnings("unchecked")
+  public <S extends T> Flux<S> findAll(Example<S> example) {
+    return findWhere(InMemoryQueries.matching(example)).map(entity -> (S) entity);
+  }
+
+  @Override
+  public <S extends T> Flux<S> findAll(Example<S> example, Sort sort) {
+    return findAll(example).sort(InMemoryQueries.comparator(sort));
+  }
+
+  @Override
+  public <S extends T> Mono<Long> count(Example<S> example) {
+    return findAll(example).count();
+  }
+
+  @Override
+  public <S extends T> Mono<Boolean> exists(Example<S> example) {
+    return findAll(example).hasElements();
+  }
+
+  @Override
+  public <S extends T, R, P extends Publisher<R>> P findBy(Example<S> example,
+      Function<FluentQuery.ReactiveFluentQuery<S>, P> queryFunction) {
+    return queryFunction.apply(new InMemoryFluentQuery<>(findAll(example), Sort.unsorted()));
+  }
+
+  protected static <E> List<E> copyList(List<E> list) {
+    return list == null ? null : new ArrayList<>(list);
+  }
+
+  /**
+   * FluentQuery de findBy sobre los documentos que coinciden con el probe. project no reduce
+   * los campos: en memoria se retorna el documento completo.
+   */
+  private static final class InMemoryFluentQuery<S> implements FluentQuery.ReactiveFluentQuery<S> {
+
+    private final Flux<S> matches;
+    private final Sort sort;
+
+    private InMemoryFluentQuery(Flux<S> matches, Sort sort) {
+      this.matches = matches;
+      this.sort = sort;
+    }
+
+    @Override
+    public FluentQuery.ReactiveFluentQuery<S> sortBy(Sort sort) {
+      return new InMemoryFluentQuery<>(matches, this.sort.and(sort));
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <R> FluentQuery.ReactiveFluentQuery<R> as(Class<R> resultType) {
+      return new InMemoryFluentQuery<>(matches.map(entity -> {
+        if (!resultType.isInstance(entity)) {
+          throw new UnsupportedOperationException(
+              "Projection to " + resultType.getName() + " is not supported in memory");
+        }
+        return (R) entity;
+      }), sort);
+    }
+
+    @Override
+    public FluentQuery.ReactiveFluentQuery<S> project(Collection<String> properties) {
+      return this;
+    }
+
+    @Override
+    public Mono<S> one() {
+      return all().collectList().flatMap(found -> found.size() > 1
+          ? Mono.error(new IncorrectResultSizeDataAccessException(1, found.size()))
+          : Mono.justOrEmpty(found.stream().findFirst()));
+    }
+
+    @Override
+    public Mono<S> first() {
+      return all().next();
+    }
+
+    @Override
+    public Flux<S> all() {
+      return sort.isSorted() ? matches.sort(InMemoryQueries.comparator(sort)) : matches;
+    }
+
+    @Override
+    public Mono<Page<S>> page(Pageable pageable) {
+      return all().collectList().map(found -> {
+        if (pageable.isUnpaged()) {
+          return new PageImpl<>(found, pageable, found.size());
+        }
+        int from = (int) Math.min(pageable.getOffset(), found.size());
+        int to = Math.min(from + pageable.getPageSize(), found.size());
+        return new PageImpl<>(found.subList(from, to), pageable, found.size());
+      });
+    }
+
+    @Override
+    public Mono<Long> count() {
+      return matches.count();
+    }
+
+    @Override
+    public Mono<Boolean> exists() {
+      return matches.hasElements();
+    }
+  }
+}
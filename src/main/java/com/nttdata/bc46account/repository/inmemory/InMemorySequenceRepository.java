@@ -0,0 +1,28 @@
+package com.nttdata.bc46account.repository.inmemory;
+
+import com.nttdata.bc46account.model.Sequence;
+import com.nttdata.bc46account.repository.SequenceRepository;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Mono;
+
+/**
+ * Ntt Data - Top Employer 2023.
+ * Todos los derechos Reservados.
+ * SequenceRepository en memoria; incrementAndGet es atómico como el findAndModify de Mongo.
+ */
+@Repository
+@Profile("inmemory")
+public class InMemorySequenceRepository extends InMemoryReactiveRepository<Sequence>
+    implements SequenceRepository {
+
+  public InMemorySequenceRepository() {
+    super(Sequence::getName, source -> new Sequence(source.getName(), source.getValue()));
+  }
+
+  @Override
+  public Mono<Long> incrementAndGet(String name, long delta) {
+    return Mono.fromCallable(() -> store.merge(name, new Sequence(name, delta),
+        (current, increment) -> new Sequence(name, current.getValue() + delta)).getValue());
+  }
+}
@@ -0,0 +1,93 @@
+package com.nttdata.bc46account.service;
+
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.nttdata.bc46account.model.Account;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import java.time.Duration;
+import java.util.List;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Ntt Data - Top Employer 2023.
+ * Todos los derechos Reservados.
+ * Caché local (Caffeine, W-TinyLFU) de cuentas por idAccount y por idCustomer, acotada por
+ * tamaño y TTL. Guarda las cuentas sin historial de movimientos y entrega copias, de modo
+ * que quien las modifique no altere la entrada compartida. Las escrituras deben invalidar
+ * las claves afectadas; una carga en curso que se invalida no se vuelve a guardar.
+ * Métricas: cache.gets, cache.puts y cache.evictions con cache=accounts|customerAccounts.
+ */
+@Component
+public class AccountCache {
+
+  private final AsyncCache<String, Account> accounts;
+  private final AsyncCache<String, List<Account>> customerAccounts;
+
+  public AccountCache(MeterRegistry meterRegistry,
+                      @Value("${account.cache.maximum-size:10000}") long maximumSize,
+                      @Value("${account.cache.ttl:PT30S}") Duration ttl) {
+    this.accounts = Caffeine.newBuilder()
+        .maximumSize(maximumSize)
+        .expireAfterWrite(ttl)
+        .recordStats()
+        .buildAsync();
+    this.customerAccounts = Caffeine.newBuilder()
+        .maximumSize(maximumSize)
+        .expireAfterWrite(ttl)
+        .recordStats()
+        .buildAsync();
+    CaffeineCacheMetrics.monitor(meterRegistry, accounts, "accounts");
+    CaffeineCacheMetrics.monitor(meterRegistry, customerAccounts, "customerAccounts");
+  }
+
+  /**
+   * Devuelve la cuenta en caché o la carga con loader; una cuenta inexistente no se guarda.
+   */
+  public Mono<Account> getAccount(String idAccount, Function<String, Mono<Account>> loader) {
+    return Mono.fromFuture(() -> accounts.get(idAccount,
+            (key, executor) -> loader.apply(key).toFuture()))
+        .map(AccountCache::copyOf);
+  }
+
+  /**
+   * Devuelve las cuentas del cliente en caché o las carga con loader.
+   */
+  public Flux<Account> getCustomerAccounts(String idCustomer,
+                                           Function<String, Flux<Account>> loader) {
+    return Mono.fromFuture(() -> customerAccounts.get(idCustomer,
+            (key, executor) -> loader.apply(key).collectList().toFuture()))
+        .flatMapIterable(cached -> cached.stream()
+            .map(AccountCache::copyOf)
+            .collect(Collectors.toList()));
+  }
+
+  /**
+   * Invalida la cuenta y el listado de su cliente.
+   */
+  public void invalidate(Account account) {
+    accounts.synchronous().invalidate(account.getIdAccount());
+    customerAccounts.synchronous().invalidate(account.getIdCustomer());
+  }
+
+  private static Account copyOf(Account account) {
+    Account copy = new Account();
+    copy.setIdAccount(account.getIdAccount());
+    copy.setAccountType(account.getAccountType());
+    copy.setIdProduct(account.getIdProduct());
+    copy.setIdCustomer(account.getIdCustomer());
+    copy.setAccountNumber(account.getAccountNumber());
+    copy.setCci(account.getCci());
+    copy.setAvailableBalance(account.getAvailableBalance());
+    copy.setHolderAccount(account.getHolderAccount());
+    copy.setAuthorizedSigner(account.getAuthorizedSigner());
+    copy.setCreationDatetime(account.getCreationDatetime());
+    copy.setUpdateDatetime(account.getUpdateDatetime());
+    return copy;
+  }
+}
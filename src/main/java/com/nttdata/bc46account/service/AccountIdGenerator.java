@@ -0,0 +1,116 @@
+package com.nttdata.bc46account.service;
+
+import com.nttdata.bc46account.model.Account;
+import com.nttdata.bc46account.model.Sequence;
+import com.nttdata.bc46account.repository.AccountRepository;
+import com.nttdata.bc46account.repository.SequenceRepository;
+import java.util.concurrent.atomic.AtomicLong;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+/**
+ * Ntt Data - Top Employer 2023.
+ * Todos los derechos Reservados.
+ * Genera los idAccount (A0001, A0002, ...) reservando bloques de la secuencia "account"
+ * en Mongo. Cada instancia entrega los ids de su bloque desde memoria y solo vuelve a
+ * Mongo cuando lo agota, por lo que réplicas distintas nunca comparten un id.
+ */
+@Component
+@Slf4j
+public class AccountIdGenerator {
+
+  static final String SEQUENCE_NAME = "account";
+
+  private final SequenceRepository sequenceRepository;
+  private final AccountRepository accountRepository;
+  private final long blockSize;
+
+  private volatile IdBlock block = new IdBlock(1, 0);
+  private volatile boolean seeded;
+  private Mono<IdBlock> refill;
+
+  public AccountIdGenerator(SequenceRepository sequenceRepository,
+                            AccountRepository accountRepository,
+                            @Value("${account.sequence.block-size:50}") long blockSize) {
+    this.sequenceRepository = sequenceRepository;
+    this.accountRepository = accountRepository;
+    this.blockSize = blockSize;
+  }
+
+  public Mono<String> nextId() {
+    return nextValue().map(number -> "A" + String.format("%04d", number));
+  }
+
+  private Mono<Long> nextValue() {
+    return Mono.defer(() -> {
+      IdBlock current = block;
+      long value = current.next.getAndIncrement();
+      if (value <= current.last) {
+        return Mono.just(value);
+      }
+      /** Bloque agotado: espera la reserva del siguiente y vuelve a intentar (sin recursión). */
+      return refill(current).then(Mono.<Long>empty());
+    }).repeatWhenEmpty(attempts -> attempts);
+  }
+
+  private synchronized Mono<IdBlock> refill(IdBlock exhausted) {
+    if (block != exhausted) {
+      return Mono.just(block);
+    }
+    if (refill == null) {
+      /** Una sola reserva en curso por instancia; los demás llamadores esperan el mismo bloque. */
+      refill = seedIfAbsent()
+          .then(sequenceRepository.incrementAndGet(SEQUENCE_NAME, blockSize))
+          .map(last -> new IdBlock(last - blockSize + 1, last))
+          .doOnNext(this::install)
+          .doOnError(error -> clearRefill())
+          .cache();
+    }
+    return refill;
+  }
+
+  private synchronized void install(IdBlock allocated) {
+    log.debug("Allocated account ids {} to {}", allocated.next.get(), allocated.last);
+    block = allocated;
+    /** Se libera antes de emitir el bloque, para que quien lo agote pueda pedir otro. */
+    refill = null;
+  }
+
+  private synchronized void clearRefill() {
+    refill = null;
+  }
+
+  private Mono<Void> seedIfAbsent() {
+    if (seeded) {
+      return Mono.empty();
+    }
+    /** La primera vez parte del mayor id existente para no repetir ids generados con count(). */
+    return sequenceRepository.existsById(SEQUENCE_NAME)
+        .flatMap(exists -> exists ? Mono.<Void>empty() : highestExistingNumber()
+            .flatMap(highest -> sequenceRepository.insert(new Sequence(SEQUENCE_NAME, highest)))
+            .onErrorResume(DuplicateKeyException.class, e -> Mono.empty())
+            .then())
+        .doOnSuccess(done -> seeded = true);
+  }
+
+  private Mono<Long> highestExistingNumber() {
+    return accountRepository.findAll()
+        .map(Account::getIdAccount)
+        .filter(id -> id != null && id.matches("A\\d+"))
+        .map(id -> Long.parseLong(id.substring(1)))
+        .reduce(0L, Math::max);
+  }
+
+  private static final class IdBlock {
+    private final AtomicLong next;
+    private final long last;
+
+    private IdBlock(long first, long last) {
+      this.next = new AtomicLong(first);
+      this.last = last;
+    }
+  }
+}
@@ -1,71 +1,239 @@
 package com.nttdata.bc46account.service;
 
+import com.nttdata.bc46account.exceptions.AccountBusyException;
 import com.nttdata.bc46account.exceptions.AccountNotFoundException;
 import com.nttdata.bc46account.exceptions.DuplicateAccountException;
+import com.nttdata.bc46account.exceptions.InsufficientFundsException;
 import com.nttdata.bc46account.exceptions.InvalidAccountTypeException;
+import com.nttdata.bc46account.exceptions.InvalidMovementQueryException;
+import com.nttdata.bc46account.exceptions.InvalidOperationException;
+import com.nttdata.bc46account.exceptions.TargetAccountNotFoundException;
 import com.nttdata.bc46account.model.Account;
+import com.nttdata.bc46account.model.AccountStatement;
+import com.nttdata.bc46account.model.AccountSummary;
+import com.nttdata.bc46account.model.AccountUpdate;
+import com.nttdata.bc46account.model.BulkOperationResult;
+import com.nttdata.bc46account.model.CustomerPortfolio;
+import com.nttdata.bc46account.model.Identifiers;
+import com.nttdata.bc46account.model.Money;
 import com.nttdata.bc46account.model.Movement;
+import com.nttdata.bc46account.model.MovementCursor;
+import com.nttdata.bc46account.model.MovementPage;
+import com.nttdata.bc46account.model.MovementPageRequest;
 import com.nttdata.bc46account.model.OperationType;
+import com.nttdata.bc46account.model.OutboxEvent;
 import com.nttdata.bc46account.model.Persona;
-import com.nttdata.bc46account.producer.EventKafkaProducer;
+import com.nttdata.bc46account.producer.MovementEventOutbox;
 import com.nttdata.bc46account.repository.AccountRepository;
 import com.nttdata.bc46account.repository.MovementRepository;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.Comparator;
+import java.util.LinkedHashMap;
 import java.util.List;
-import java.util.UUID;
-import java.util.function.BiFunction;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DuplicateKeyException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.reactive.TransactionalOperator;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
+import reactor.util.function.Tuple2;
+import reactor.util.function.Tuples;
 
 /**
  * Ntt Data - Top Employer 2023.
  * Todos los derechos Reservados.
  */
 @Service
+@Slf4j
 public class AccountImpl implements AccountService {
+  static final int DEFAULT_PAGE_SIZE = 20;
+  static final int MAX_PAGE_SIZE = 100;
+  private static final String RETIRO_SIN_SALDO =
+      "La cuenta no tiene suficiente saldo para el retiro.";
+  private static final String PAGO_SIN_SALDO =
+      "La cuenta no tiene suficiente saldo para el pago del servicio.";
+
   @Autowired
   AccountRepository accountRepository;
 
   @Autowired
   MovementRepository movementRepository;
 
-  private final EventKafkaProducer eventKafkaProducer;
+  @Autowired
+  MovementHistory movementHistory;
+
+  @Autowired
+  AccountIdGenerator accountIdGenerator;
+
+  @Value("${account.stream.batch-size:500}")
+  int streamBatchSize;
+
+  @Value("${account.bulk.batch-size:500}")
+  int bulkBatchSize;
+
+  @Value("${account.mongo.transactions.enabled:true}")
+  boolean transactions;
+
+  @Autowired
+  TransactionalOperator transactionalOperator;
+
+  @Autowired
+  AccountCache accountCache;
+
+  @Autowired
+  OperationIdempotency operationIdempotency;
+
+  @Autowired
+  AccountOperationLanes accountOperationLanes;
 
-  public AccountImpl(EventKafkaProducer eventKafkaProducer) {
-    this.eventKafkaProducer = eventKafkaProducer;
+  @Autowired
+  OperationMetrics operationMetrics;
+
+  @Autowired
+  BalanceSnapshots balanceSnapshots;
+
+  @Autowired
+  TransferEngine transferEngine;
+
+  @Autowired
+  CustomerPortfolios customerPortfolios;
+
+  private final MovementEventOutbox movementEventOutbox;
+
+  private final OperationHandlerRegistry operationHandlers = new OperationHandlerRegistry();
+
+  public AccountImpl(MovementEventOutbox movementEventOutbox) {
+    this.movementEventOutbox = movementEventOutbox;
+    operationHandlers
+        .register(OperationType.TRANSFERIR_DINERO, this::transferirDinero)
+        .register(OperationType.COBRAR_GIROS, (account, movement, commitHook) -> debitar(
+            account, movement, OperationType.COBRAR_GIROS, RETIRO_SIN_SALDO, commitHook))
+        .register(OperationType.PAGAR_SERVICIOS, (account, movement, commitHook) -> debitar(
+            account, movement, OperationType.PAGAR_SERVICIOS, PAGO_SIN_SALDO, commitHook))
+        .register(OperationType.DEPOSITAR, this::depositar)
+        .registerBatch(OperationType.COBRAR_GIROS, (account, items) -> debitarLote(account,
+            items, OperationType.COBRAR_GIROS, RETIRO_SIN_SALDO))
+        .registerBatch(OperationType.PAGAR_SERVICIOS, (account, items) -> debitarLote(account,
+            items, OperationType.PAGAR_SERVICIOS, PAGO_SIN_SALDO))
+        .registerBatch(OperationType.DEPOSITAR, this::depositarLote);
+  }
+
+  /** Registra los handlers de operaciones adicionales definidos como beans. */
+  @Autowired(required = false)
+  void setOperationHandlerContributors(List<OperationHandlerContributor> contributors) {
+    contributors.forEach(contributor -> contributor.registerHandlers(operationHandlers));
   }
 
   @Override
   public Flux<Account> findAll() {
-    return accountRepository.findAll()
-        .map(accountAll -> {
-          accountAll.getBankMovements().sort(Comparator.comparing(Movement::getCreationDatetime).reversed());
-          return accountAll;
-        });
+    /** Sin historial de movimientos: se consulta aparte con findMovementsByAccount. */
+    return accountRepository.findAll();
+  }
+
+  @Override
+  public Flux<Account> streamAll() {
+    /** Sin historial de movimientos: se consulta aparte con findMovementsByAccount. */
+    return accountRepository.streamAll(streamBatchSize);
   }
 
   @Override
   public Flux<Account> findByIdCustomer(String idCustomer) {
-    return accountRepository.findByIdCustomer(idCustomer)
-        .map(accountByCustomer -> {
-          accountByCustomer.getBankMovements().sort(Comparator.comparing(Movement::getCreationDatetime).reversed());
-          return accountByCustomer;
-        });
+    /** Sin historial de movimientos, igual que findAll. */
+    return accountCache.getCustomerAccounts(idCustomer, accountRepository::findByIdCustomer);
   }
 
   @Override
   public Mono<Account> findById(String id) {
-    return accountRepository.findById(id)
-        .map(account -> {
-          /**Ordena las operaciones de fecha por creación de hora más reciente a más antigua.*/
-          account.getBankMovements().sort(Comparator.comparing(Movement::getCreationDatetime).reversed());
+    return accountCache.getAccount(id, accountRepository::findById)
+        .flatMap(this::withMovements);
+  }
+
+  @Override
+  public Flux<AccountSummary> findAllSummaries() {
+    return accountRepository.findAllSummaries();
+  }
+
+  @Override
+  public Flux<AccountSummary> findSummariesByIdCustomer(String idCustomer) {
+    return accountRepository.findSummariesByIdCustomer(idCustomer);
+  }
+
+  @Override
+  public Mono<CustomerPortfolio> findPortfolioByCustomer(String idCustomer) {
+    return customerPortfolios.findByIdCustomer(idCustomer);
+  }
+
+  private Mono<Account> withMovements(Account account) {
+    /**
+     * Solo la página más reciente, leída del índice del más reciente al más antiguo; el resto
+     * del historial se consulta con findMovementsByAccount.
+     */
+    MovementPageRequest request = MovementPageRequest.builder()
+        .idAccount(account.getIdAccount())
+        .size(DEFAULT_PAGE_SIZE)
+        .build();
+    return movementRepository.findPage(request, DEFAULT_PAGE_SIZE)
+        .collectList()
+        .map(movements -> {
+          account.setBankMovements(movements);
           return account;
         });
   }
 
+  @Override
+  public Mono<MovementPage> findMovementsByAccount(String idAccount, String cursor,
+                                                   LocalDateTime from, LocalDateTime to,
+                                                   OperationType operation, Integer size) {
+    int pageSize = size == null ? DEFAULT_PAGE_SIZE : size;
+    if (pageSize < 1 || pageSize > MAX_PAGE_SIZE) {
+      return Mono.error(new InvalidMovementQueryException("El tamaño de página debe estar entre 1"
+          + " y " + MAX_PAGE_SIZE + "."));
+    }
+    if (from != null && to != null && from.isAfter(to)) {
+      return Mono.error(new InvalidMovementQueryException("La fecha inicial no puede ser"
+          + " posterior a la fecha final."));
+    }
+
+    return Mono.fromCallable(() -> {
+      MovementPageRequest.MovementPageRequestBuilder request = MovementPageRequest.builder()
+          .idAccount(idAccount)
+          .from(from)
+          .to(to)
+          .operation(operation)
+          .size(pageSize);
+      if (cursor != null) {
+        MovementCursor after = MovementCursor.decode(cursor);
+        request.afterDatetime(after.getCreationDatetime())
+            .afterIdMovement(after.getIdMovement());
+      }
+      return request.build();
+    }).flatMap(request -> movementHistory.archivedBefore(idAccount)
+        .switchIfEmpty(Mono.error(() -> new AccountNotFoundException(idAccount)))
+        /** Pide un elemento extra para saber si existe una página siguiente. */
+        .flatMap(archivedBefore -> movementHistory
+            .findPage(request, pageSize + 1, archivedBefore).collectList()))
+        .map(movements -> {
+          if (movements.size() <= pageSize) {
+            return new MovementPage(movements, null);
+          }
+          List<Movement> page = movements.subList(0, pageSize);
+          return new MovementPage(page, MovementCursor.encode(page.get(pageSize - 1)));
+        });
+  }
+
+  @Override
+  public Mono<AccountStatement> getStatement(String idAccount, LocalDateTime from,
+                                             LocalDateTime to) {
+    return balanceSnapshots.statement(idAccount, from, to);
+  }
+
   @Override
   public Mono<Account> save(Account account) {
     String idProduct = account.getIdProduct();
@@ -107,8 +275,10 @@ public class AccountImpl implements AccountService {
               return generateCustomId()
                   .flatMap(a -> {
                     account.setIdAccount(a);
-                    return accountRepository.save(account);
-                  });
+                    return accountRepository.insert(account);
+                  })
+                  .doOnNext(accountCache::invalidate)
+                  .doOnNext(customerPortfolios::accountOpened);
             }
           });
     }
@@ -118,8 +288,10 @@ public class AccountImpl implements AccountService {
     return generateCustomId()
         .flatMap(a -> {
           account.setIdAccount(a);
-          return accountRepository.save(account);
-        });
+          return accountRepository.insert(account);
+        })
+        .doOnNext(accountCache::invalidate)
+        .doOnNext(customerPortfolios::accountOpened);
 
   }
 
@@ -130,170 +302,473 @@ public class AccountImpl implements AccountService {
 
 
   private Mono<String> generateCustomId() {
-    return accountRepository.count() /** Contar la cantidad actual de documentos */
-        .map(count -> {
-          int nextNumber = count.intValue() + 1;
-          return "A" + String.format("%04d", nextNumber);
-        })
-        .defaultIfEmpty("A0001"); // Si no hay documentos, comenzar desde A0001
+    /** Toma el siguiente id del bloque reservado por esta instancia. */
+    return accountIdGenerator.nextId();
   }
 
   @Override
-  public Mono<Account> updateAccount(Account account, String idAccount) {
-
-    return accountRepository.findById(idAccount)
-        .flatMap(currentBankAccount -> {
-          currentBankAccount.setAvailableBalance(account.getAvailableBalance());
-          currentBankAccount.setHolderAccount(account.getHolderAccount());
-          currentBankAccount.setAuthorizedSigner(account.getAuthorizedSigner());
-          currentBankAccount.setUpdateDatetime(LocalDateTime.now());
-          return accountRepository.save(currentBankAccount);
+  public Mono<Account> updateAccount(AccountUpdate update, String idAccount) {
+
+    /**
+     * En el carril de la cuenta, como las operaciones. Solo escribe los campos editables, así
+     * no pisa saldos ni marcas que otros procesos escriban entre la lectura y la escritura.
+     */
+    return accountOperationLanes.submit(idAccount, () -> accountRepository
+            .updateDetails(idAccount, update)
+            .flatMap(previous -> recordAdjustment(previous, update.getAvailableBalance())
+                .map(Optional::of)
+                .defaultIfEmpty(Optional.empty())
+                .map(adjustment -> Tuples.of(previous, adjustment)))
+            .as(transactionalOperator::transactional))
+        .map(result -> {
+          Account updated = result.getT1();
+          if (update.getAvailableBalance() != null) {
+            updated.setAvailableBalance(update.getAvailableBalance());
+          }
+          updated.setHolderAccount(update.getHolderAccount());
+          updated.setAuthorizedSigner(update.getAuthorizedSigner());
+          updated.setUpdateDatetime(LocalDateTime.now());
+          accountCache.invalidate(updated);
+          result.getT2().ifPresent(adjustment -> {
+            balanceSnapshots.recordMovement(idAccount);
+            customerPortfolios.recordMovement(updated, adjustment);
+          });
+          return updated;
         });
 
   }
 
+  /**
+   * Registra como movimiento AJUSTAR_SALDO la diferencia entre el saldo fijado por
+   * updateAccount y el anterior, para que los estados de cuenta y los snapshots, que se
+   * calculan sumando movimientos, la incluyan. Sin saldo en la actualización o sin
+   * diferencia no registra nada.
+   */
+  private Mono<Movement> recordAdjustment(Account previous, Long availableBalance) {
+    if (availableBalance == null || availableBalance == previous.getAvailableBalance()) {
+      return Mono.empty();
+    }
+    long delta = availableBalance - previous.getAvailableBalance();
+    Movement adjustment = new Movement();
+    adjustment.setIdAccount(previous.getIdAccount());
+    adjustment.setOperation(OperationType.AJUSTAR_SALDO.name());
+    adjustment.setMonto(delta);
+    prepareMovement(adjustment);
+
+    OperationType operation = OperationType.AJUSTAR_SALDO;
+    return operationMetrics.timeMongo(operation, "insert_movements",
+            movementRepository.insert(adjustment))
+        .then(operationMetrics.timeMongo(operation, "append_outbox",
+            movementEventOutbox.append(adjustment)))
+        .thenReturn(adjustment);
+  }
+
   @Override
   public Mono<Account> deleteAccountById(String idAccount) {
     return accountRepository.findById(idAccount)
         .flatMap(existingAccount -> accountRepository.delete(existingAccount)
-            .then(Mono.just(existingAccount)));
+            .then(Mono.just(existingAccount)))
+        .doOnNext(accountCache::invalidate)
+        .doOnNext(customerPortfolios::accountClosed);
   }
 
   @Override
   public Mono<Movement> addOperationToAccount(String idAccount, Movement movement) {
+    return addOperationToAccount(idAccount, movement, CommitHook.NONE);
+  }
 
-    return Mono.just(movement)
-        .doOnNext(m -> {
-          /**Genera un único Id para la operación */
-          String newMovementId = UUID.randomUUID().toString();
-          movement.setIdMovement(newMovementId);
+  private Mono<Movement> addOperationToAccount(String idAccount, Movement movement,
+                                               CommitHook commitHook) {
 
-          /** Convierte el movementType a mayúsculas si no es nulo */
-          if (m.getMovementType() != null) {
-            m.setMovementType(m.getMovementType().toUpperCase());
-          }
-        })
-        .flatMap(m -> accountRepository.findById(idAccount)
+    /** Las operaciones de una misma cuenta se ejecutan de a una y en orden de llegada. */
+    return accountOperationLanes.submit(idAccount, () -> Mono.just(movement)
+        .doOnNext(AccountImpl::prepareMovement)
+        .flatMap(m -> accountCache.getAccount(idAccount, accountRepository::findById)
             .switchIfEmpty(Mono.error(() -> new AccountNotFoundException(idAccount)))
-            .flatMap(account -> processOperation(account, m)));
+            .flatMap(account -> processOperation(account, m, commitHook))))
+        .doOnNext(m -> balanceSnapshots.recordMovement(idAccount))
+        /** Ya fuera del carril: esperar al broker no retrasa la siguiente operación. */
+        .flatMap(this::publishEvent);
 
   }
 
-  private Mono<Movement> processOperation(Account account, Movement movement) {
-    String operation = movement.getOperation();
-    /** Permite validar si la operación se encuentra en la lista de OperationType; */
-    if (isValidOperation(operation)) {
-      OperationType operationType = OperationType.valueOf(operation.toUpperCase());
+  /**
+   * Publica el evento del movimiento sin esperar al relay e informa en la respuesta si quedó
+   * publicado (partición y offset) o pendiente.
+   */
+  private Mono<Movement> publishEvent(Movement movement) {
+    return movementEventOutbox.publishNow(movement.getIdMovement())
+        .map(delivery -> {
+          movement.setDelivery(delivery);
+          return movement;
+        });
+  }
 
-      return getOperationHandler(operationType).apply(account, movement);
-    } else {
-      throw new IllegalArgumentException("Operación no válida: " + operation);
+  @Override
+  public Mono<Movement> addOperationToAccount(String idAccount, Movement movement,
+                                              String idempotencyKey) {
+    if (idempotencyKey == null || idempotencyKey.isBlank()) {
+      return addOperationToAccount(idAccount, movement);
+    }
+    return operationIdempotency.execute(idAccount, idempotencyKey,
+        commitHook -> addOperationToAccount(idAccount, movement, commitHook));
+  }
+
+  private static void prepareMovement(Movement movement) {
+    /** Genera un único Id para la operación; los handlers lo conservan. */
+    movement.setIdMovement(Identifiers.next());
+
+    /** Los estados de cuenta ubican el movimiento por su fecha de registro. */
+    if (movement.getCreationDatetime() == null) {
+      movement.setCreationDatetime(LocalDateTime.now());
     }
 
+    /** Convierte el movementType a mayúsculas si no es nulo */
+    if (movement.getMovementType() != null) {
+      movement.setMovementType(movement.getMovementType().toUpperCase());
+    }
   }
 
-  private boolean isValidOperation(String operation) {
-    try {
-      OperationType.valueOf(operation);
-      return true;
+  @Override
+  public Flux<BulkOperationResult> addOperations(Flux<Movement> movements) {
+    return movements.index()
+        .buffer(bulkBatchSize)
+        .concatMap(this::applyBatch)
+        .doOnNext(result -> {
+          if (result.isSuccess()) {
+            balanceSnapshots.recordMovement(result.getIdAccount());
+          }
+        });
+  }
 
-    } catch (IllegalArgumentException e) {
-      return false;
+  /**
+   * Aplica un lote con los mismos handlers que las operaciones individuales: valida cada
+   * movimiento como processOperation y los agrupa por cuenta de origen. Cada cuenta procesa
+   * los suyos en su carril y en orden, usando el handler masivo de la operación cuando lo
+   * tiene; las cuentas distintas avanzan en paralelo.
+   */
+  private Flux<BulkOperationResult> applyBatch(List<Tuple2<Long, Movement>> batch) {
+    List<BulkOperationResult> rejected = new ArrayList<>();
+    Map<String, List<Tuple2<Long, Movement>>> bySource = new LinkedHashMap<>();
+    for (Tuple2<Long, Movement> item : batch) {
+      Movement movement = item.getT2();
+      prepareMovement(movement);
+      InvalidOperationException error = movement.getIdAccount() == null
+          ? new InvalidOperationException("El idAccount es obligatorio.")
+          : validateOperation(movement);
+      if (error != null) {
+        rejected.add(failure(item, error));
+      } else {
+        bySource.computeIfAbsent(movement.getIdAccount(), id -> new ArrayList<>()).add(item);
+      }
+    }
+    return Flux.fromIterable(bySource.entrySet())
+        .flatMap(entry -> accountOperationLanes.submit(entry.getKey(),
+                () -> applyAccountBatch(entry.getKey(), entry.getValue()))
+            /** Cola llena: ninguno de los movimientos de la cuenta llegó a ejecutarse. */
+            .onErrorResume(error -> Mono.just(entry.getValue().stream()
+                .map(item -> failure(item, error))
+                .collect(Collectors.toList()))))
+        .flatMapIterable(results -> results)
+        .concatWith(Flux.fromIterable(rejected))
+        .collectSortedList(Comparator.comparingLong(BulkOperationResult::getIndex))
+        .flatMapIterable(sorted -> sorted);
+  }
+
+  /**
+   * Movimientos de una cuenta, ya dentro de su carril; los consecutivos de la misma operación
+   * se aplican juntos. La cuenta se vuelve a leer antes de cada grupo porque el anterior
+   * cambió su saldo.
+   */
+  private Mono<List<BulkOperationResult>> applyAccountBatch(String idAccount,
+                                                           List<Tuple2<Long, Movement>> items) {
+    List<List<Tuple2<Long, Movement>>> runs = new ArrayList<>();
+    for (Tuple2<Long, Movement> item : items) {
+      List<Tuple2<Long, Movement>> last = runs.isEmpty() ? null : runs.get(runs.size() - 1);
+      if (last != null
+          && last.get(0).getT2().getOperation().equals(item.getT2().getOperation())) {
+        last.add(item);
+      } else {
+        runs.add(new ArrayList<>(List.of(item)));
+      }
+    }
+    return Flux.fromIterable(runs)
+        .concatMap(run -> accountCache.getAccount(idAccount, accountRepository::findById)
+            .switchIfEmpty(Mono.error(() -> new AccountNotFoundException(idAccount)))
+            .flatMap(account -> applyRun(account, run))
+            .onErrorResume(error -> Mono.just(run.stream()
+                .map(item -> failure(item, error))
+                .collect(Collectors.toList()))))
+        .flatMapIterable(results -> results)
+        .collectList();
+  }
 
+  private Mono<List<BulkOperationResult>> applyRun(Account account,
+                                                   List<Tuple2<Long, Movement>> run) {
+    OperationType operationType = OperationType.fromName(run.get(0).getT2().getOperation());
+    BatchOperationHandler batchHandler = operationHandlers.batchHandlerFor(operationType);
+    if (batchHandler != null) {
+      return operationMetrics.timeOperation(operationType, batchHandler.apply(account, run));
     }
+    return Flux.fromIterable(run)
+        .concatMap(item -> processOperation(account, item.getT2(), CommitHook.NONE)
+            .map(movement -> BulkOperationResult.success(item.getT1(), movement))
+            .onErrorResume(error -> Mono.just(failure(item, error))))
+        .collectList();
   }
 
-  private BiFunction<Account, Movement, Mono<Movement>> getOperationHandler(OperationType operationType) {
-    return (account, movement) -> {
-      switch (operationType) {
-        case TRANSFERIR_DINERO:
-          return transferirDinero(account, movement);
-        case COBRAR_GIROS:
-          return realizarRetiro(account, movement);
-        default:
-          throw new IllegalArgumentException("Operación no válida: " + operationType);
+  /**
+   * Retiros y pagos masivos de una cuenta: acepta los movimientos en orden mientras alcance
+   * el saldo y los debita con una sola escritura por su total.
+   */
+  private Mono<List<BulkOperationResult>> debitarLote(Account account,
+                                                     List<Tuple2<Long, Movement>> items,
+                                                     OperationType operation,
+                                                     String insufficientFundsMessage) {
+    List<BulkOperationResult> results = new ArrayList<>();
+    List<Tuple2<Long, Movement>> accepted = new ArrayList<>();
+    long available = account.getAvailableBalance();
+    for (Tuple2<Long, Movement> item : items) {
+      long monto = item.getT2().getMonto();
+      if (available < monto) {
+        results.add(failure(item, new InsufficientFundsException(insufficientFundsMessage)));
+      } else {
+        available -= monto;
+        accepted.add(item);
       }
-    };
+    }
+    long total = accepted.stream().mapToLong(item -> item.getT2().getMonto())
+        .reduce(0L, Money::add);
+    return applyGrouped(account, operation, accepted, true,
+            accountRepository.debitIfSufficient(account.getIdAccount(), total),
+            movement -> debitar(account, movement, operation, insufficientFundsMessage,
+                CommitHook.NONE))
+        .map(applied -> {
+          results.addAll(applied);
+          results.sort(Comparator.comparingLong(BulkOperationResult::getIndex));
+          return results;
+        });
   }
 
-  private Mono<Movement> transferirDinero(Account cuentaOrigen, Movement bankMovement) {
-    /** Genera un nuevo ID único para la operación de transferencia */
-    String transferenciaId = UUID.randomUUID().toString();
-    bankMovement.setIdMovement(transferenciaId);
+  /** Depósitos masivos de una cuenta: un solo abono por su total. */
+  private Mono<List<BulkOperationResult>> depositarLote(Account account,
+                                                       List<Tuple2<Long, Movement>> items) {
+    long total = items.stream().mapToLong(item -> item.getT2().getMonto())
+        .reduce(0L, Money::add);
+    return applyGrouped(account, OperationType.DEPOSITAR, items, false,
+        accountRepository.incrementBalance(account.getIdAccount(), total),
+        movement -> depositar(account, movement, CommitHook.NONE));
+  }
 
+  /**
+   * Aplica balanceUpdate y registra los movimientos y sus eventos en la misma transacción.
+   * Si balanceUpdate no modificó la cuenta (su saldo cambió desde que se leyó), aplica los
+   * movimientos uno a uno con el handler individual.
+   */
+  private Mono<List<BulkOperationResult>> applyGrouped(Account account, OperationType operation,
+                                                       List<Tuple2<Long, Movement>> items,
+                                                       boolean debit,
+                                                       Mono<Boolean> balanceUpdate,
+                                                       Function<Movement, Mono<Movement>> single) {
+    if (items.isEmpty()) {
+      return Mono.just(List.of());
+    }
+    List<Movement> legs = items.stream().map(Tuple2::getT2).collect(Collectors.toList());
+    return operationMetrics.timeMongo(operation, debit ? "debit" : "credit", balanceUpdate)
+        .filter(Boolean::booleanValue)
+        .flatMap(updated -> {
+          legs.forEach(movement -> {
+            movement.setIdAccount(account.getIdAccount());
+            movement.setMonto(debit ? -movement.getMonto() : movement.getMonto());
+          });
+          return recordGrouped(operation, legs);
+        })
+        .as(transactionalOperator::transactional)
+        .doFinally(signal -> accountCache.invalidate(account))
+        .doOnNext(recorded -> legs.forEach(movement ->
+            customerPortfolios.recordMovement(account, movement)))
+        .map(recorded -> items.stream()
+            .map(item -> BulkOperationResult.success(item.getT1(), item.getT2()))
+            .collect(Collectors.toList()))
+        /** Sin cambios en el saldo: con transacciones, la escritura se deshizo completa. */
+        .onErrorResume(error -> Mono.just(items.stream()
+            .map(item -> failure(item, error))
+            .collect(Collectors.toList())))
+        .switchIfEmpty(Flux.fromIterable(items)
+            .concatMap(item -> single.apply(item.getT2())
+                .map(movement -> BulkOperationResult.success(item.getT1(), movement))
+                .onErrorResume(error -> Mono.just(failure(item, error))))
+            .collectList());
+  }
+
+  /**
+   * Registra los movimientos y sus eventos con un insert cada uno. Sin transacciones el
+   * saldo ya cambió, así que un fallo no se reporta: se reintenta movimiento por movimiento
+   * (los ya registrados chocan por clave) y, si aun así falla, solo se registra en el log.
+   */
+  private Mono<Boolean> recordGrouped(OperationType operation, List<Movement> legs) {
+    Mono<Boolean> records = operationMetrics.timeMongo(operation, "insert_movements",
+            movementRepository.insert(legs).then())
+        .then(operationMetrics.timeMongo(operation, "append_outbox",
+            movementEventOutbox.appendAll(legs).then()))
+        .thenReturn(true);
+    if (transactions) {
+      return records;
+    }
+    return records.onErrorResume(error -> Flux.fromIterable(legs)
+        .concatMap(movement -> movementRepository.insert(movement)
+            .onErrorResume(DuplicateKeyException.class, duplicate -> Mono.empty())
+            .then(movementEventOutbox.append(movement)
+                .onErrorResume(DuplicateKeyException.class, duplicate -> Mono.empty())))
+        .then()
+        .retry(2)
+        .onErrorResume(retryError -> {
+          log.error("Bulk {} movements applied but not recorded", operation, retryError);
+          return Mono.empty();
+        })
+        .thenReturn(true));
+  }
+
+  private static BulkOperationResult failure(Tuple2<Long, Movement> item, Throwable error) {
+    return BulkOperationResult.failure(item.getT1(), item.getT2().getIdAccount(),
+        errorCode(error), error.getMessage());
+  }
+
+  private static String errorCode(Throwable error) {
+    if (error instanceof TargetAccountNotFoundException) {
+      return "TARGET_ACCOUNT_NOT_FOUND";
+    }
+    if (error instanceof InvalidOperationException) {
+      return "INVALID_OPERATION";
+    }
+    if (error instanceof AccountNotFoundException) {
+      return "ACCOUNT_NOT_FOUND";
+    }
+    if (error instanceof InsufficientFundsException) {
+      return "INSUFFICIENT_FUNDS";
+    }
+    if (error instanceof AccountBusyException) {
+      return "ACCOUNT_BUSY";
+    }
+    return "OPERATION_FAILED";
+  }
+
+  /** Validación sin excepciones: búsqueda por nombre y en el EnumMap de handlers. */
+  private InvalidOperationException validateOperation(Movement movement) {
+    OperationType operationType = OperationType.fromName(movement.getOperation());
+    if (!operationHandlers.supports(operationType)) {
+      return new InvalidOperationException("Operación no válida: " + movement.getOperation());
+    }
+    if (movement.getMonto() <= 0) {
+      return new InvalidOperationException("El monto debe ser mayor a cero.");
+    }
+    return null;
+  }
+
+  private Mono<Movement> processOperation(Account account, Movement movement,
+                                          CommitHook commitHook) {
+    InvalidOperationException error = validateOperation(movement);
+    if (error != null) {
+      return Mono.error(error);
+    }
+    OperationType operationType = OperationType.fromName(movement.getOperation());
+    OperationHandler handler = operationHandlers.handlerFor(operationType);
+    return operationMetrics.timeOperation(operationType, handler.apply(account, movement,
+        commitHook));
+  }
+
+  private Mono<Movement> transferirDinero(Account cuentaOrigen, Movement bankMovement,
+                                          CommitHook commitHook) {
     /** Recupera la cuenta de destino desde la base de datos */
     String accountNumberDestino = bankMovement.getTargetAccount();
     return accountRepository.findByAccountNumber(accountNumberDestino)
+        .switchIfEmpty(Mono.error(() -> new TargetAccountNotFoundException(accountNumberDestino)))
         .flatMap(destino -> {
-          float monto = bankMovement.getMonto();
-
-          /** Verifica si la cuenta de origen tiene suficiente saldo */
-          if (cuentaOrigen.getAvailableBalance() >= monto) {
-            // Genera un nuevo ID único para la cuenta de destino
-            String destinoIdMovement = UUID.randomUUID().toString();
-
-            /** Crea una copia de la operación de transferencia para la cuenta de destino. */
-            Movement movementDestino = new Movement();
-            movementDestino.setIdMovement(destinoIdMovement);
-            movementDestino.setOperation(bankMovement.getOperation());
-            movementDestino.setMovementType(bankMovement.getMovementType());
-            movementDestino.setMoneda(bankMovement.getMoneda());
-            movementDestino.setMonto(bankMovement.getMonto());
-            movementDestino.setTargetAccount(bankMovement.getTargetAccount());
-            movementDestino.setSourceAccount(bankMovement.getSourceAccount());
-            movementDestino.setCreationDatetime(LocalDateTime.now());
-
-            /** Realiza la transferencia de dinero. */
-            cuentaOrigen.setAvailableBalance((cuentaOrigen.getAvailableBalance() - monto));
-            destino.setAvailableBalance((destino.getAvailableBalance() + monto));
-
-            /** Cambia a monto negativo en la cuenta de origen. */
-            bankMovement.setMonto(-monto);
-
-            /** Agrega la operación de transferencia a ambas cuentas con sus IDS. */
-            cuentaOrigen.getBankMovements().add(bankMovement);
-            destino.getBankMovements().add(movementDestino);
-
-            /** Actualiza ambas cuentas en la base de datos */
-            return accountRepository.save(cuentaOrigen)
-                .then(accountRepository.save(destino))
-                .then(Mono.just(bankMovement))
-                .then(Mono.fromCallable(() -> {
-                  eventKafkaProducer.enviarMovimiento(bankMovement);
-                  return bankMovement;
-                }));
-          } else {
-            /** Si la cuenta de origen no tiene suficiente saldo, maneja el error aquí */
-            return Mono.error(new RuntimeException("La cuenta de origen no tiene suficiente saldo para la transferencia."));
-          }
+          long monto = bankMovement.getMonto();
+          Movement movementDestino = movementDestino(bankMovement, destino);
+
+          /** Cambia a monto negativo en la cuenta de origen. */
+          bankMovement.setIdAccount(cuentaOrigen.getIdAccount());
+          bankMovement.setMonto(-monto);
+
+          /** Ambas piernas, los movimientos y el evento se aplican de forma atómica. */
+          return transferEngine.transfer(cuentaOrigen.getIdAccount(), destino.getIdAccount(),
+                  bankMovement, movementDestino, commitHook)
+              /** Los saldos cambiaron (o pudieron cambiar): descarta ambas cuentas del caché. */
+              .doFinally(signal -> {
+                accountCache.invalidate(cuentaOrigen);
+                accountCache.invalidate(destino);
+              })
+              .doOnNext(event -> {
+                customerPortfolios.recordMovement(cuentaOrigen, bankMovement);
+                customerPortfolios.recordMovement(destino, movementDestino);
+              })
+              .thenReturn(bankMovement);
         });
   }
 
-  private Mono<Movement> realizarRetiro(Account account, Movement movement) {
-    /** Genera un nuevo ID único para la operación de retiro */
-    String retiroId = UUID.randomUUID().toString();
-    movement.setIdMovement(retiroId);
-
-    float monto = movement.getMonto();
-    /** Verifica si la cuenta tiene suficiente saldo para el retiro */
-    if (account.getAvailableBalance() >= monto) {
-      /** Realiza el retiro restando el monto de la cuenta */
-      account.setAvailableBalance(account.getAvailableBalance() - monto);
-      account.getBankMovements().add(movement);
-
-      /** Cambia a monto negativo en la cuenta de origen. */
-      movement.setMonto(-monto);
-
-      /** Actualiza la cuenta en la base de datos */
-      return accountRepository.save(account)
-          .then(Mono.just(movement))
-          .then(Mono.fromCallable(() -> {
-            eventKafkaProducer.enviarMovimiento(movement);
-            return movement;
-          }));
-    } else {
-      return Mono.error(new RuntimeException("La cuenta no tiene suficiente saldo para el retiro."));
-    }
+  private Movement movementDestino(Movement bankMovement, Account destino) {
+    /** Crea una copia de la operación de transferencia para la cuenta de destino. */
+    Movement movementDestino = new Movement();
+    movementDestino.setIdMovement(Identifiers.next());
+    movementDestino.setOperation(bankMovement.getOperation());
+    movementDestino.setMovementType(bankMovement.getMovementType());
+    movementDestino.setMoneda(bankMovement.getMoneda());
+    movementDestino.setMonto(bankMovement.getMonto());
+    movementDestino.setTargetAccount(bankMovement.getTargetAccount());
+    movementDestino.setSourceAccount(bankMovement.getSourceAccount());
+    movementDestino.setCreationDatetime(LocalDateTime.now());
+    movementDestino.setIdAccount(destino.getIdAccount());
+    return movementDestino;
+  }
+
+  /** Retiro y pago de servicios: debita la cuenta si el saldo alcanza. */
+  private Mono<Movement> debitar(Account account, Movement movement, OperationType operation,
+                                 String insufficientFundsMessage, CommitHook commitHook) {
+    long monto = movement.getMonto();
+    /** Cambia a monto negativo en la cuenta de origen. */
+    movement.setIdAccount(account.getIdAccount());
+    movement.setMonto(-monto);
+
+    /** Descuenta el saldo solo si alcanza; la validación es atómica en Mongo. */
+    return operationMetrics.timeMongo(operation, "debit",
+            accountRepository.debitIfSufficient(account.getIdAccount(), monto))
+        .flatMap(debitado -> {
+          if (!debitado) {
+            return Mono.<OutboxEvent>error(
+                new InsufficientFundsException(insufficientFundsMessage));
+          }
+          /** Registra el movimiento en el historial y el evento a publicar */
+          return operationMetrics.timeMongo(operation, "insert_movements",
+                  movementRepository.insert(movement))
+              .then(operationMetrics.timeMongo(operation, "append_outbox",
+                  movementEventOutbox.append(movement)))
+              .flatMap(event -> commitHook.beforeCommit(movement).thenReturn(event));
+        })
+        .as(transactionalOperator::transactional)
+        /** El saldo cambió (o pudo cambiar): descarta la cuenta del caché. */
+        .doFinally(signal -> accountCache.invalidate(account))
+        .doOnNext(event -> customerPortfolios.recordMovement(account, movement))
+        .thenReturn(movement);
+  }
+
+  private Mono<Movement> depositar(Account account, Movement movement,
+                                   CommitHook commitHook) {
+    movement.setIdAccount(account.getIdAccount());
+
+    /** Abona el saldo, registra el movimiento y el evento a publicar. */
+    OperationType operation = OperationType.DEPOSITAR;
+    return operationMetrics.timeMongo(operation, "credit",
+            accountRepository.incrementBalance(account.getIdAccount(), movement.getMonto()))
+        .then(operationMetrics.timeMongo(operation, "insert_movements",
+            movementRepository.insert(movement)))
+        .then(operationMetrics.timeMongo(operation, "append_outbox",
+            movementEventOutbox.append(movement)))
+        .flatMap(event -> commitHook.beforeCommit(movement).thenReturn(event))
+        .as(transactionalOperator::transactional)
+        .doFinally(signal -> accountCache.invalidate(account))
+        .doOnNext(event -> customerPortfolios.recordMovement(account, movement))
+        .thenReturn(movement);
   }
 
 }
@@ -0,0 +1,183 @@
+package com.nttdata.bc46account.service;
+
+import com.nttdata.bc46account.exceptions.AccountBusyException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+import java.util.stream.IntStream;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import reactor.core.Disposable;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.MonoSink;
+
+/**
+ * Ntt Data - Top Employer 2023.
+ * Todos los derechos Reservados.
+ * Ejecuta las operaciones de una misma cuenta de a una, en orden de llegada, mientras las
+ * de otras cuentas avanzan en paralelo. Cada cuenta con operaciones pendientes tiene su
+ * propio carril, que se descarta al vaciarse; la cola de cada cuenta está acotada y rechaza
+ * con AccountBusyException cuando se llena, de modo que una cuenta saturada no acumula
+ * trabajo sin límite ni retrasa a otras cuentas.
+ * Ningún hilo se bloquea: la siguiente operación empieza cuando termina la anterior.
+ * Métricas: account.lanes.active, account.lanes.queue.depth, account.lanes.queue.max-depth
+ * y account.lanes.rejected.
+ */
+@Component
+public class AccountOperationLanes {
+
+  /** depth de un carril ya descartado: las nuevas operaciones van a un carril nuevo. */
+  private static final int RETIRED = -1;
+
+  private final ConcurrentMap<String, Lane> lanes = new ConcurrentHashMap<>();
+  private final int maxQueueDepth;
+  private final Counter rejected;
+
+  public AccountOperationLanes(MeterRegistry meterRegistry,
+                               @Value("${account.lanes.max-queue-depth:1000}")
+                                   int maxQueueDepth) {
+    this.maxQueueDepth = maxQueueDepth;
+    this.rejected = Counter.builder("account.lanes.rejected")
+        .description("Operaciones rechazadas por cola de cuenta llena")
+        .register(meterRegistry);
+    Gauge.builder("account.lanes.active", lanes, Map::size)
+        .description("Cuentas con operaciones en espera o en curso")
+        .register(meterRegistry);
+    Gauge.builder("account.lanes.queue.depth", this,
+            lanes -> lanes.depths().sum())
+        .description("Operaciones en espera o en curso en todas las cuentas")
+        .register(meterRegistry);
+    Gauge.builder("account.lanes.queue.max-depth", this,
+            lanes -> lanes.depths().max().orElse(0))
+        .description("Operaciones en espera o en curso en la cuenta más cargada")
+        .register(meterRegistry);
+  }
+
+  /**
+   * Encola la operación en el carril de la cuenta; se suscribe a ella cuando terminan las
+   * operaciones previas de la misma cuenta.
+   */
+  public <T> Mono<T> submit(String idAccount, Supplier<Mono<T>> operation) {
+    return Mono.create(sink -> offer(idAccount, new Task<>(operation, sink)));
+  }
+
+  private void offer(String idAccount, Task<?> task) {
+    while (true) {
+      Lane lane = lanes.computeIfAbsent(idAccount, Lane::new);
+      int depth = lane.tryEnqueue(task);
+      if (depth != RETIRED) {
+        if (depth > maxQueueDepth) {
+          rejected.increment();
+          task.sink.error(new AccountBusyException(idAccount));
+        }
+        return;
+      }
+      /** El carril se vació y se descartó entre computeIfAbsent y el encolado. */
+      lanes.remove(idAccount, lane);
+    }
+  }
+
+  private IntStream depths() {
+    return lanes.values().stream().mapToInt(lane -> Math.max(lane.depth.get(), 0));
+  }
+
+  private final class Lane {
+    private final String idAccount;
+    private final Queue<Task<?>> queue = new ConcurrentLinkedQueue<>();
+    /** Operaciones en espera más la que está en curso; RETIRED una vez descartado. */
+    private final AtomicInteger depth = new AtomicInteger();
+    private final AtomicInteger wip = new AtomicInteger();
+    private volatile boolean busy;
+
+    private Lane(String idAccount) {
+      this.idAccount = idAccount;
+    }
+
+    /**
+     * Encola la tarea si el carril sigue activo y tiene espacio. Retorna RETIRED si el carril
+     * ya fue descartado, o la profundidad que tendría con la tarea: si supera maxQueueDepth
+     * la tarea no se encoló.
+     */
+    private int tryEnqueue(Task<?> task) {
+      int current;
+      do {
+        current = depth.get();
+        if (current == RETIRED) {
+          return RETIRED;
+        }
+        if (current >= maxQueueDepth) {
+          return current + 1;
+        }
+      } while (!depth.compareAndSet(current, current + 1));
+      queue.offer(task);
+      drain();
+      return current + 1;
+    }
+
+    /**
+     * Arranca la siguiente operación si el carril está libre. Las operaciones que terminan
+     * de forma síncrona solo marcan trabajo pendiente, así que no se acumula la pila.
+     */
+    private void drain() {
+      if (wip.getAndIncrement() != 0) {
+        return;
+      }
+      int missed = 1;
+      do {
+        Task<?> task;
+        while (!busy && (task = queue.poll()) != null) {
+          busy = true;
+          task.run(this::done);
+        }
+        missed = wip.addAndGet(-missed);
+      } while (missed != 0);
+    }
+
+    private void done() {
+      busy = false;
+      /** Sin operaciones pendientes el carril se descarta, salvo que llegue una a tiempo. */
+      if (depth.decrementAndGet() == 0 && depth.compareAndSet(0, RETIRED)) {
+        lanes.remove(idAccount, this);
+        return;
+      }
+      drain();
+    }
+  }
+
+  private static final class Task<T> {
+    private final Supplier<Mono<T>> operation;
+    private final MonoSink<T> sink;
+    private volatile boolean cancelled;
+    private volatile Disposable running;
+
+    private Task(Supplier<Mono<T>> operation, MonoSink<T> sink) {
+      this.operation = operation;
+      this.sink = sink;
+      sink.onCancel(() -> {
+        cancelled = true;
+        Disposable current = running;
+        if (current != null) {
+          current.dispose();
+        }
+      });
+    }
+
+    private void run(Runnable done) {
+      if (cancelled) {
+        done.run();
+        return;
+      }
+      running = Mono.defer(operation)
+          .contextWrite(sink.contextView())
+          .doFinally(signal -> done.run())
+          .subscribe(sink::success, sink::error, sink::success);
+    }
+  }
+}
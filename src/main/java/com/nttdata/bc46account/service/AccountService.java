@@ -1,7 +1,15 @@
 package com.nttdata.bc46account.service;
 
 import com.nttdata.bc46account.model.Account;
+import com.nttdata.bc46account.model.AccountStatement;
+import com.nttdata.bc46account.model.AccountSummary;
+import com.nttdata.bc46account.model.AccountUpdate;
+import com.nttdata.bc46account.model.BulkOperationResult;
+import com.nttdata.bc46account.model.CustomerPortfolio;
 import com.nttdata.bc46account.model.Movement;
+import com.nttdata.bc46account.model.MovementPage;
+import com.nttdata.bc46account.model.OperationType;
+import java.time.LocalDateTime;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
@@ -12,15 +20,34 @@ import reactor.core.publisher.Mono;
 public interface AccountService {
   Flux<Account> findAll();
 
+  Flux<Account> streamAll();
+
   Flux<Account> findByIdCustomer(String idCustomer);
 
   Mono<Account> findById(String id);
 
+  Flux<AccountSummary> findAllSummaries();
+
+  Flux<AccountSummary> findSummariesByIdCustomer(String idCustomer);
+
+  Mono<CustomerPortfolio> findPortfolioByCustomer(String idCustomer);
+
   Mono<Account> save(Account account);
 
-  Mono<Account> updateAccount(Account account, String idAccount);
+  Mono<Account> updateAccount(AccountUpdate update, String idAccount);
 
   Mono<Account> deleteAccountById(String idAccount);
 
   Mono<Movement> addOperationToAccount(String idAccount, Movement movement);
+
+  Mono<Movement> addOperationToAccount(String idAccount, Movement movement,
+                                       String idempotencyKey);
+
+  Flux<BulkOperationResult> addOperations(Flux<Movement> movements);
+
+  Mono<MovementPage> findMovementsByAccount(String idAccount, String cursor, LocalDateTime from,
+                                            LocalDateTime to, OperationType operation,
+                                            Integer size);
+
+  Mono<AccountStatement> getStatement(String idAccount, LocalDateTime from, LocalDateTime to);
 }
@@ -0,0 +1,80 @@
+package com.nttdata.bc46account.service;
+
+import com.nttdata.bc46account.repository.AccountRepository;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import javax.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Ntt Data - Top Employer 2023.
+ * Todos los derechos Reservados.
+ * Toma cada día un snapshot del saldo de todas las cuentas al inicio del día. El snapshot
+ * de cada cuenta parte del anterior, así que cada corrida solo suma los movimientos de un
+ * día. El id del snapshot depende de la cuenta y la fecha: si varias instancias ejecutan el
+ * job, escriben el mismo documento.
+ */
+@Component
+@ConditionalOnProperty(name = "account.snapshot.job.enabled", havingValue = "true",
+    matchIfMissing = true)
+@Slf4j
+public class BalanceSnapshotJob {
+
+  private final AccountRepository accountRepository;
+  private final BalanceSnapshots balanceSnapshots;
+  private final int batchSize;
+  private final int concurrency;
+  private Disposable job;
+
+  public BalanceSnapshotJob(AccountRepository accountRepository,
+                            BalanceSnapshots balanceSnapshots,
+                            @Value("${account.snapshot.job.batch-size:500}") int batchSize,
+                            @Value("${account.snapshot.job.concurrency:8}") int concurrency) {
+    this.accountRepository = accountRepository;
+    this.balanceSnapshots = balanceSnapshots;
+    this.batchSize = batchSize;
+    this.concurrency = concurrency;
+  }
+
+  @EventListener(ApplicationReadyEvent.class)
+  public void start() {
+    /** La primera corrida espera al inicio del día siguiente más el margen de asentamiento. */
+    LocalDateTime firstRun = LocalDate.now().plusDays(1).atStartOfDay()
+        .plus(balanceSnapshots.getSettle());
+    job = Flux.interval(Duration.between(LocalDateTime.now(), firstRun), Duration.ofDays(1))
+        .onBackpressureDrop()
+        .concatMap(tick -> snapshotAll(LocalDate.now().atStartOfDay())
+            .onErrorResume(error -> {
+              log.error("Balance snapshot cycle failed", error);
+              return Mono.empty();
+            }), 1)
+        .subscribe(count -> log.info("Balance snapshots taken for {} accounts", count));
+  }
+
+  @PreDestroy
+  public void stop() {
+    if (job != null) {
+      job.dispose();
+    }
+  }
+
+  /** Toma el snapshot de todas las cuentas en asOf y retorna cuántas se procesaron. */
+  public Mono<Long> snapshotAll(LocalDateTime asOf) {
+    return accountRepository.streamAll(batchSize)
+        .flatMap(account -> balanceSnapshots.takeSnapshot(account.getIdAccount(), asOf)
+            .onErrorResume(error -> {
+              log.warn("Balance snapshot failed for account {}", account.getIdAccount(), error);
+              return Mono.empty();
+            }), concurrency)
+        .count();
+  }
+}
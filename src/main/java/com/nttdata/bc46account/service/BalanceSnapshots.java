@@ -0,0 +1,133 @@
+package com.nttdata.bc46account.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.nttdata.bc46account.exceptions.AccountNotFoundException;
+import com.nttdata.bc46account.exceptions.InvalidMovementQueryException;
+import com.nttdata.bc46account.model.AccountStatement;
+import com.nttdata.bc46account.model.BalanceSnapshot;
+import com.nttdata.bc46account.model.Movement;
+import com.nttdata.bc46account.repository.AccountRepository;
+import com.nttdata.bc46account.repository.BalanceSnapshotRepository;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.concurrent.atomic.AtomicInteger;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+/**
+ * Ntt Data - Top Employer 2023.
+ * Todos los derechos Reservados.
+ * Snapshots periódicos del saldo por cuenta y estados de cuenta calculados a partir de ellos.
+ * El saldo en un instante se obtiene del snapshot más cercano sumando solo los movimientos
+ * entre ambos, así que el costo crece con el periodo consultado y no con la antigüedad de la
+ * cuenta. Se toma un snapshot cada everyMovements operaciones de una cuenta en esta instancia
+ * y BalanceSnapshotJob toma uno diario de todas las cuentas.
+ * Los snapshots se toman settle antes del momento actual: un movimiento se registra con la
+ * fecha de la solicitud y puede insertarse después, mientras espera su turno en la cuenta.
+ */
+@Component
+@Slf4j
+public class BalanceSnapshots {
+
+  private final AccountRepository accountRepository;
+  private final MovementHistory movementHistory;
+  private final BalanceSnapshotRepository balanceSnapshotRepository;
+  private final int everyMovements;
+  private final Duration settle;
+  private final Cache<String, AtomicInteger> movementCounts;
+
+  public BalanceSnapshots(AccountRepository accountRepository,
+                          MovementHistory movementHistory,
+                          BalanceSnapshotRepository balanceSnapshotRepository,
+                          @Value("${account.snapshot.every-movements:1000}") int everyMovements,
+                          @Value("${account.snapshot.settle:PT5M}") Duration settle) {
+    this.accountRepository = accountRepository;
+    this.movementHistory = movementHistory;
+    this.balanceSnapshotRepository = balanceSnapshotRepository;
+    this.everyMovements = everyMovements;
+    this.settle = settle;
+    this.movementCounts = Caffeine.newBuilder()
+        .maximumSize(100_000)
+        .expireAfterAccess(Duration.ofDays(1))
+        .build();
+  }
+
+  public Duration getSettle() {
+    return settle;
+  }
+
+  /**
+   * Saldo de la cuenta antes del instante at: incluye los movimientos con
+   * creationDatetime anterior a at.
+   */
+  public Mono<Long> balanceAt(String idAccount, LocalDateTime at) {
+    return balanceSnapshotRepository
+        .findFirstByIdAccountAndAsOfLessThanEqualOrderByAsOfDesc(idAccount, at)
+        .flatMap(before -> movementHistory.sumAmounts(idAccount, before.getAsOf(), at)
+            .map(sum -> before.getBalance() + sum))
+        .switchIfEmpty(Mono.defer(() -> balanceSnapshotRepository
+            .findFirstByIdAccountAndAsOfGreaterThanOrderByAsOfAsc(idAccount, at)
+            .flatMap(after -> movementHistory.sumAmounts(idAccount, at, after.getAsOf())
+                .map(sum -> after.getBalance() - sum))))
+        /** Sin snapshots: se parte del saldo actual y se descuentan los movimientos posteriores. */
+        .switchIfEmpty(Mono.defer(() -> accountRepository.findById(idAccount)
+            .switchIfEmpty(Mono.error(() -> new AccountNotFoundException(idAccount)))
+            .flatMap(account -> movementHistory.sumAmounts(idAccount, at, null)
+                .map(sum -> account.getAvailableBalance() - sum))));
+  }
+
+  /** Guarda el saldo de la cuenta en asOf; repetirlo para el mismo asOf lo sobrescribe. */
+  public Mono<BalanceSnapshot> takeSnapshot(String idAccount, LocalDateTime asOf) {
+    return balanceAt(idAccount, asOf)
+        .flatMap(balance -> balanceSnapshotRepository.save(
+            BalanceSnapshot.of(idAccount, asOf, balance)));
+  }
+
+  /**
+   * Cuenta una operación registrada en la cuenta y, cada everyMovements operaciones,
+   * toma un snapshot en segundo plano.
+   */
+  public void recordMovement(String idAccount) {
+    if (everyMovements <= 0 || idAccount == null) {
+      return;
+    }
+    AtomicInteger count = movementCounts.get(idAccount, id -> new AtomicInteger());
+    if (count.incrementAndGet() % everyMovements != 0) {
+      return;
+    }
+    takeSnapshot(idAccount, LocalDateTime.now().minus(settle))
+        .subscribe(snapshot -> log.debug("Balance snapshot taken for account {} as of {}",
+                idAccount, snapshot.getAsOf()),
+            error -> log.warn("Balance snapshot failed for account {}", idAccount, error));
+  }
+
+  /**
+   * Estado de cuenta del periodo [from, to): saldo inicial desde el snapshot más cercano,
+   * movimientos del periodo y saldo final.
+   */
+  public Mono<AccountStatement> statement(String idAccount, LocalDateTime from,
+                                          LocalDateTime to) {
+    if (from == null || to == null) {
+      return Mono.error(new InvalidMovementQueryException("Las fechas inicial y final del"
+          + " estado de cuenta son obligatorias."));
+    }
+    if (!from.isBefore(to)) {
+      return Mono.error(new InvalidMovementQueryException("La fecha inicial debe ser"
+          + " anterior a la fecha final."));
+    }
+    return accountRepository.existsById(idAccount)
+        .flatMap(exists -> exists ? balanceAt(idAccount, from)
+            : Mono.error(new AccountNotFoundException(idAccount)))
+        .zipWith(movementHistory.findInPeriod(idAccount, from, to).collectList())
+        .map(result -> {
+          long closing = result.getT2().stream()
+              .mapToLong(Movement::getMonto)
+              .reduce(result.getT1(), Math::addExact);
+          return new AccountStatement(idAccount, from, to, result.getT1(), closing,
+              result.getT2());
+        });
+  }
+}
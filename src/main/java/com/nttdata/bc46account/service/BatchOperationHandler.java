@@ -0,0 +1,22 @@
+package com.nttdata.bc46account.service;
+
+import com.nttdata.bc46account.model.Account;
+import com.nttdata.bc46account.model.BulkOperationResult;
+import com.nttdata.bc46account.model.Movement;
+import java.util.List;
+import reactor.core.publisher.Mono;
+import reactor.util.function.Tuple2;
+
+/**
+ * Ntt Data - Top Employer 2023.
+ * Todos los derechos Reservados.
+ * Aplica de una vez varios movimientos de la misma operación sobre una cuenta, dentro de
+ * su carril, en lugar de hacerlo uno a uno con el OperationHandler. Recibe los movimientos
+ * ya validados con su índice en la solicitud y retorna un resultado por cada uno, en el
+ * mismo orden; los movimientos rechazados no deben cambiar el saldo.
+ */
+@FunctionalInterface
+public interface BatchOperationHandler {
+
+  Mono<List<BulkOperationResult>> apply(Account account, List<Tuple2<Long, Movement>> items);
+}
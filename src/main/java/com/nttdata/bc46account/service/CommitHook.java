@@ -0,0 +1,18 @@
+package com.nttdata.bc46account.service;
+
+import com.nttdata.bc46account.model.Movement;
+import reactor.core.publisher.Mono;
+
+/**
+ * Ntt Data - Top Employer 2023.
+ * Todos los derechos Reservados.
+ * Escritura adicional que un handler ejecuta dentro de la misma transacción que cambia el
+ * saldo, con el movimiento ya registrado: si falla, la operación se deshace.
+ */
+@FunctionalInterface
+public interface CommitHook {
+
+  CommitHook NONE = movement -> Mono.empty();
+
+  Mono<Void> beforeCommit(Movement movement);
+}
@@ -0,0 +1,158 @@
+package com.nttdata.bc46account.service;
+
+import com.nttdata.bc46account.model.Account;
+import com.nttdata.bc46account.model.CustomerPortfolio;
+import com.nttdata.bc46account.model.Movement;
+import com.nttdata.bc46account.repository.AccountRepository;
+import com.nttdata.bc46account.repository.CustomerPortfolioRepository;
+import java.time.LocalDateTime;
+import java.util.Optional;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+import reactor.util.function.Tuples;
+import reactor.util.retry.Retry;
+
+/**
+ * Ntt Data - Top Employer 2023.
+ * Todos los derechos Reservados.
+ * Mantiene el modelo de lectura CustomerPortfolio: cada alta, baja, cambio de saldo y
+ * movimiento confirmado se aplica como un incremento sobre el resumen del cliente, así que
+ * consultarlo es una lectura por clave. Si el cliente aún no tiene resumen (o se perdió un
+ * incremento), rebuild lo recalcula desde las cuentas y sus movimientos.
+ * Los incrementos se aplican en segundo plano después de confirmar la operación: un resumen
+ * puede quedar un instante por detrás de las cuentas, nunca adelantado.
+ */
+@Component
+@Slf4j
+public class CustomerPortfolios {
+
+  private final AccountRepository accountRepository;
+  private final MovementHistory movementHistory;
+  private final CustomerPortfolioRepository customerPortfolioRepository;
+  private final int streamBatchSize;
+  private final int rebuildConcurrency;
+  private final int rebuildAttempts;
+
+  public CustomerPortfolios(AccountRepository accountRepository,
+                            MovementHistory movementHistory,
+                            CustomerPortfolioRepository customerPortfolioRepository,
+                            @Value("${account.stream.batch-size:500}") int streamBatchSize,
+                            @Value("${account.portfolio.rebuild.concurrency:8}")
+                            int rebuildConcurrency,
+                            @Value("${account.portfolio.rebuild.attempts:3}")
+                            int rebuildAttempts) {
+    this.accountRepository = accountRepository;
+    this.movementHistory = movementHistory;
+    this.customerPortfolioRepository = customerPortfolioRepository;
+    this.streamBatchSize = streamBatchSize;
+    this.rebuildConcurrency = rebuildConcurrency;
+    this.rebuildAttempts = rebuildAttempts;
+  }
+
+  /** Resumen del cliente; si aún no existe se construye en el momento. */
+  public Mono<CustomerPortfolio> findByIdCustomer(String idCustomer) {
+    return customerPortfolioRepository.findById(idCustomer)
+        .switchIfEmpty(Mono.defer(() -> rebuild(idCustomer)));
+  }
+
+  public void accountOpened(Account account) {
+    apply(account, 1, account.getAvailableBalance(), null);
+  }
+
+  public void accountClosed(Account account) {
+    apply(account, -1, -account.getAvailableBalance(), null);
+  }
+
+  /** Movimiento confirmado de la cuenta; monto ya tiene el signo del efecto en el saldo. */
+  public void recordMovement(Account account, Movement movement) {
+    apply(account, 0, movement.getMonto(), movement.getCreationDatetime());
+  }
+
+  /**
+   * Recalcula el resumen del cliente a partir de sus cuentas y del último movimiento de cada
+   * una, y lo reemplaza. Un cliente sin cuentas no guarda resumen.
+   * El reemplazo es condicional a la versión leída antes de recalcular: si entre tanto llegó
+   * un incremento (o otro rebuild creó el resumen) el recálculo podría no incluirlo, así que
+   * se descarta y se vuelve a intentar, hasta rebuildAttempts veces.
+   */
+  public Mono<CustomerPortfolio> rebuild(String idCustomer) {
+    return Mono.defer(() -> customerPortfolioRepository.findById(idCustomer)
+            .map(Optional::of)
+            .defaultIfEmpty(Optional.empty())
+            .flatMap(current -> recompute(idCustomer)
+                .flatMap(portfolio -> replace(current, portfolio))))
+        .retryWhen(Retry.max(rebuildAttempts - 1L)
+            .filter(OptimisticLockingFailureException.class::isInstance)
+            .onRetryExhaustedThrow((spec, signal) -> signal.failure()));
+  }
+
+  /** Reconstruye los resúmenes de todos los clientes con cuentas; retorna cuántos. */
+  public Mono<Long> rebuildAll() {
+    return accountRepository.streamAll(streamBatchSize)
+        .map(Account::getIdCustomer)
+        .distinct()
+        .flatMap(idCustomer -> rebuild(idCustomer)
+            .onErrorResume(OptimisticLockingFailureException.class, error -> {
+              log.warn("Customer portfolio {} kept changing; left to its increments",
+                  idCustomer);
+              return Mono.empty();
+            }), rebuildConcurrency)
+        .count();
+  }
+
+  private Mono<CustomerPortfolio> recompute(String idCustomer) {
+    return accountRepository.findByIdCustomer(idCustomer)
+        .flatMap(account -> movementHistory.findLatest(account.getIdAccount())
+            .map(movement -> Optional.ofNullable(movement.getCreationDatetime()))
+            .defaultIfEmpty(Optional.empty())
+            .map(lastMovement -> Tuples.of(account, lastMovement)))
+        .reduceWith(() -> CustomerPortfolio.empty(idCustomer), (portfolio, item) -> {
+          portfolio.apply(item.getT1().getIdProduct(), 1, item.getT1().getAvailableBalance(),
+              item.getT2().orElse(null));
+          return portfolio;
+        })
+        .doOnNext(portfolio -> portfolio.setUpdateDatetime(LocalDateTime.now()));
+  }
+
+  /** Guarda el recálculo sobre current; falla con OptimisticLockingFailure si cambió. */
+  private Mono<CustomerPortfolio> replace(Optional<CustomerPortfolio> current,
+                                          CustomerPortfolio portfolio) {
+    String idCustomer = portfolio.getIdCustomer();
+    if (!current.isPresent()) {
+      return portfolio.getAccountCount() == 0
+          ? Mono.just(portfolio)
+          : customerPortfolioRepository.insert(portfolio)
+              .onErrorMap(DuplicateKeyException.class, duplicate -> changed(idCustomer));
+    }
+    long version = current.get().getVersion();
+    Mono<Boolean> stored = portfolio.getAccountCount() == 0
+        ? customerPortfolioRepository.deleteIfVersion(idCustomer, version)
+        : customerPortfolioRepository.replaceIfVersion(portfolio, version);
+    return stored.flatMap(applied -> {
+      if (!applied) {
+        return Mono.error(changed(idCustomer));
+      }
+      portfolio.setVersion(version + 1);
+      return Mono.just(portfolio);
+    });
+  }
+
+  private static OptimisticLockingFailureException changed(String idCustomer) {
+    return new OptimisticLockingFailureException("El resumen del cliente " + idCustomer
+        + " cambió durante el recálculo.");
+  }
+
+  private void apply(Account account, int accounts, long balance, LocalDateTime movementAt) {
+    String idCustomer = account.getIdCustomer();
+    customerPortfolioRepository.applyDelta(idCustomer, account.getIdProduct(), accounts,
+            balance, movementAt)
+        /** Sin resumen previo: el recálculo ya incluye este cambio, que está confirmado. */
+        .flatMap(applied -> applied ? Mono.<CustomerPortfolio>empty() : rebuild(idCustomer))
+        .subscribe(null, error -> log.warn("Customer portfolio {} not updated", idCustomer,
+            error));
+  }
+}
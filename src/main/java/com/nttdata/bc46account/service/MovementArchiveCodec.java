@@ -0,0 +1,94 @@
+package com.nttdata.bc46account.service;
+
+import com.nttdata.bc46account.model.Movement;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Ntt Data - Top Employer 2023.
+ * Todos los derechos Reservados.
+ * Formato binario comprimido (gzip) de los movimientos de un día archivado. Conserva la fecha
+ * con nanosegundos, que el JSON de Movement trunca a segundos, porque el orden y los rangos
+ * del historial dependen de ella. El idAccount no se guarda: es el del documento.
+ */
+final class MovementArchiveCodec {
+
+  private static final int VERSION = 1;
+
+  private MovementArchiveCodec() {
+  }
+
+  static byte[] encode(List<Movement> movements) {
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    try (DataOutputStream out = new DataOutputStream(new GZIPOutputStream(bytes))) {
+      out.writeInt(VERSION);
+      out.writeInt(movements.size());
+      for (Movement movement : movements) {
+        writeString(out, movement.getIdMovement());
+        writeString(out, movement.getOperation());
+        writeString(out, movement.getMovementType());
+        writeString(out, movement.getSourceAccount());
+        writeString(out, movement.getTargetAccount());
+        writeString(out, movement.getMoneda());
+        out.writeLong(movement.getMonto());
+        LocalDateTime datetime = movement.getCreationDatetime();
+        out.writeLong(datetime.toEpochSecond(ZoneOffset.UTC));
+        out.writeInt(datetime.getNano());
+      }
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+    return bytes.toByteArray();
+  }
+
+  static List<Movement> decode(String idAccount, byte[] encoded) {
+    try (DataInputStream in = new DataInputStream(
+        new GZIPInputStream(new ByteArrayInputStream(encoded)))) {
+      int version = in.readInt();
+      if (version != VERSION) {
+        throw new IllegalStateException("Versión de archivo de movimientos no soportada: "
+            + version);
+      }
+      int count = in.readInt();
+      List<Movement> movements = new ArrayList<>(count);
+      for (int i = 0; i < count; i++) {
+        Movement movement = new Movement();
+        movement.setIdAccount(idAccount);
+        movement.setIdMovement(readString(in));
+        movement.setOperation(readString(in));
+        movement.setMovementType(readString(in));
+        movement.setSourceAccount(readString(in));
+        movement.setTargetAccount(readString(in));
+        movement.setMoneda(readString(in));
+        movement.setMonto(in.readLong());
+        movement.setCreationDatetime(
+            LocalDateTime.ofEpochSecond(in.readLong(), in.readInt(), ZoneOffset.UTC));
+        movements.add(movement);
+      }
+      return movements;
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  private static void writeString(DataOutputStream out, String value) throws IOException {
+    out.writeBoolean(value != null);
+    if (value != null) {
+      out.writeUTF(value);
+    }
+  }
+
+  private static String readString(DataInputStream in) throws IOException {
+    return in.readBoolean() ? in.readUTF() : null;
+  }
+}
@@ -0,0 +1,149 @@
+package com.nttdata.bc46account.service;
+
+import com.nttdata.bc46account.model.Movement;
+import com.nttdata.bc46account.model.MovementArchive;
+import com.nttdata.bc46account.repository.AccountRepository;
+import com.nttdata.bc46account.repository.MovementArchiveRepository;
+import com.nttdata.bc46account.repository.MovementRepository;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import javax.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.reactive.TransactionalOperator;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Ntt Data - Top Employer 2023.
+ * Todos los derechos Reservados.
+ * Mueve cada día los movimientos con más de account.archive.after de antigüedad a
+ * movement_archive, un documento comprimido por cuenta y día. Antes de mover el primer día
+ * de una cuenta adelanta Account.archivedBefore, para que MovementHistory ya lea ambos
+ * niveles; cada día se guarda y se borra de movement en una misma transacción. Si un día
+ * ya estaba archivado, sus movimientos se combinan con los nuevos, así que re-ejecutarlo
+ * tras una falla no duplica nada.
+ * Se activa con account.archive.enabled=true.
+ */
+@Component
+@ConditionalOnProperty(name = "account.archive.enabled", havingValue = "true")
+@Slf4j
+public class MovementArchiver {
+
+  private final AccountRepository accountRepository;
+  private final MovementRepository movementRepository;
+  private final MovementArchiveRepository movementArchiveRepository;
+  private final TransactionalOperator transactionalOperator;
+  private final Duration after;
+  private final Duration delay;
+  private final int batchSize;
+  private final int concurrency;
+  private Disposable job;
+
+  public MovementArchiver(AccountRepository accountRepository,
+                          MovementRepository movementRepository,
+                          MovementArchiveRepository movementArchiveRepository,
+                          TransactionalOperator transactionalOperator,
+                          @Value("${account.archive.after:P90D}") Duration after,
+                          @Value("${account.archive.delay:PT1H}") Duration delay,
+                          @Value("${account.archive.batch-size:500}") int batchSize,
+                          @Value("${account.archive.concurrency:4}") int concurrency) {
+    this.accountRepository = accountRepository;
+    this.movementRepository = movementRepository;
+    this.movementArchiveRepository = movementArchiveRepository;
+    this.transactionalOperator = transactionalOperator;
+    this.after = after;
+    this.delay = delay;
+    this.batchSize = batchSize;
+    this.concurrency = concurrency;
+  }
+
+  @EventListener(ApplicationReadyEvent.class)
+  public void start() {
+    /** Corre cada día delay después del inicio del día, fuera de la hora de los snapshots. */
+    LocalDateTime firstRun = LocalDate.now().plusDays(1).atStartOfDay().plus(delay);
+    job = Flux.interval(Duration.between(LocalDateTime.now(), firstRun), Duration.ofDays(1))
+        .onBackpressureDrop()
+        .concatMap(tick -> archiveBefore(cutoff())
+            .onErrorResume(error -> {
+              log.error("Movement archiving cycle failed", error);
+              return Mono.empty();
+            }), 1)
+        .subscribe(count -> log.info("{} movements archived", count));
+  }
+
+  @PreDestroy
+  public void stop() {
+    if (job != null) {
+      job.dispose();
+    }
+  }
+
+  /** Inicio del día más reciente cuyos movimientos anteriores ya se pueden archivar. */
+  LocalDateTime cutoff() {
+    return LocalDateTime.now().minus(after).truncatedTo(ChronoUnit.DAYS);
+  }
+
+  /** Archiva los movimientos anteriores a cutoff (inicio de un día) y retorna cuántos. */
+  public Mono<Long> archiveBefore(LocalDateTime cutoff) {
+    LocalDateTime day = cutoff.truncatedTo(ChronoUnit.DAYS);
+    return accountRepository.streamAll(batchSize)
+        .flatMap(account -> archiveAccount(account.getIdAccount(), day)
+            .onErrorResume(error -> {
+              log.warn("Movement archiving failed for account {}", account.getIdAccount(),
+                  error);
+              return Mono.just(0L);
+            }), concurrency)
+        .reduce(0L, Long::sum);
+  }
+
+  Mono<Long> archiveAccount(String idAccount, LocalDateTime cutoff) {
+    return movementRepository.findInPeriod(idAccount, null, cutoff)
+        .bufferUntilChanged(MovementArchiver::dayOf)
+        .index()
+        .concatMap(day -> (day.getT1() == 0
+            ? accountRepository.markArchivedBefore(idAccount, cutoff) : Mono.<Void>empty())
+            .then(archiveDay(idAccount, day.getT2())))
+        .reduce(0L, Long::sum);
+  }
+
+  private Mono<Long> archiveDay(String idAccount, List<Movement> movements) {
+    LocalDateTime day = dayOf(movements.get(0));
+    String idArchive = MovementArchive.idOf(idAccount, day);
+    return movementArchiveRepository.findById(idArchive)
+        .map(existing -> MovementArchiveCodec.decode(idAccount, existing.getMovements()))
+        .defaultIfEmpty(List.of())
+        .flatMap(archived -> {
+          Map<String, Movement> merged = new LinkedHashMap<>();
+          archived.forEach(movement -> merged.put(movement.getIdMovement(), movement));
+          movements.forEach(movement -> merged.put(movement.getIdMovement(), movement));
+          List<Movement> ordered = new ArrayList<>(merged.values());
+          ordered.sort(MovementHistory.OLDEST_FIRST);
+          MovementArchive archive = new MovementArchive(idArchive, idAccount, day,
+              ordered.size(), ordered.stream().mapToLong(Movement::getMonto).sum(),
+              MovementArchiveCodec.encode(ordered), LocalDateTime.now());
+          return movementArchiveRepository.save(archive)
+              .then(movementRepository.deleteAllById(movements.stream()
+                  .map(Movement::getIdMovement)
+                  .collect(Collectors.toList())));
+        })
+        .as(transactionalOperator::transactional)
+        .thenReturn((long) movements.size());
+  }
+
+  private static LocalDateTime dayOf(Movement movement) {
+    return movement.getCreationDatetime().truncatedTo(ChronoUnit.DAYS);
+  }
+}
@@ -0,0 +1,213 @@
+package com.nttdata.bc46account.service;
+
+import com.nttdata.bc46account.model.Movement;
+import com.nttdata.bc46account.model.MovementArchive;
+import com.nttdata.bc46account.model.MovementPageRequest;
+import com.nttdata.bc46account.repository.AccountRepository;
+import com.nttdata.bc46account.repository.MovementArchiveRepository;
+import com.nttdata.bc46account.repository.MovementRepository;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Ntt Data - Top Employer 2023.
+ * Todos los derechos Reservados.
+ * Historial de movimientos sobre dos niveles: la colección movement (recientes) y
+ * movement_archive (días archivados por MovementArchiver). Account.archivedBefore indica
+ * hasta dónde llega el archivo; una consulta lee el archivo solo si su rango empieza antes
+ * de esa fecha. Mientras se archiva un día un movimiento puede estar en ambos niveles: las
+ * consultas de movimientos lo devuelven una sola vez; sin transacciones de Mongo una suma
+ * podría contarlo dos veces durante ese instante.
+ */
+@Component
+public class MovementHistory {
+
+  static final Comparator<Movement> OLDEST_FIRST = Comparator
+      .comparing(Movement::getCreationDatetime)
+      .thenComparing(Movement::getIdMovement);
+
+  private final AccountRepository accountRepository;
+  private final MovementRepository movementRepository;
+  private final MovementArchiveRepository movementArchiveRepository;
+
+  public MovementHistory(AccountRepository accountRepository,
+                         MovementRepository movementRepository,
+                         MovementArchiveRepository movementArchiveRepository) {
+    this.accountRepository = accountRepository;
+    this.movementRepository = movementRepository;
+    this.movementArchiveRepository = movementArchiveRepository;
+  }
+
+  /**
+   * Fecha antes de la cual la cuenta tiene movimientos archivados (vacía si no tiene);
+   * no emite nada si la cuenta no existe.
+   */
+  public Mono<Optional<LocalDateTime>> archivedBefore(String idAccount) {
+    return accountRepository.findById(idAccount)
+        .map(account -> Optional.ofNullable(account.getArchivedBefore()));
+  }
+
+  /**
+   * Página del historial del más reciente al más antiguo: se completa con el archivo solo
+   * si los movimientos recientes no alcanzan para llenarla.
+   */
+  public Flux<Movement> findPage(MovementPageRequest request, int limit,
+                                 Optional<LocalDateTime> archivedBefore) {
+    Flux<Movement> hot = movementRepository.findPage(request, limit);
+    if (!needsArchive(archivedBefore, request.getFrom())) {
+      return hot;
+    }
+    return hot.collectList().flatMapMany(recent -> {
+      if (recent.size() >= limit) {
+        return Flux.fromIterable(recent);
+      }
+      Set<String> seen = new HashSet<>();
+      recent.forEach(movement -> seen.add(movement.getIdMovement()));
+      LocalDateTime before = archivedBefore.get();
+      before = earliest(before, nextDay(request.getAfterDatetime()));
+      before = earliest(before, nextDay(request.getTo()));
+      LocalDateTime fromDay = startOfDay(request.getFrom());
+      Flux<Movement> archived = movementArchiveRepository
+          .findByIdAccountAndDayLessThanOrderByDayDesc(request.getIdAccount(), before)
+          .takeWhile(archive -> fromDay == null || !archive.getDay().isBefore(fromDay))
+          .concatMapIterable(archive -> {
+            List<Movement> movements = new ArrayList<>(decode(archive));
+            Collections.reverse(movements);
+            return movements;
+          })
+          .filter(movement -> matches(request, movement))
+          .filter(movement -> seen.add(movement.getIdMovement()))
+          .take(limit - recent.size());
+      return Flux.fromIterable(recent).concatWith(archived);
+    });
+  }
+
+  /** Movimientos con creationDatetime en [from, to), del más antiguo al más reciente. */
+  public Flux<Movement> findInPeriod(String idAccount, LocalDateTime from, LocalDateTime to) {
+    return archivedBefore(idAccount)
+        .defaultIfEmpty(Optional.empty())
+        .flatMapMany(archivedBefore -> {
+          Flux<Movement> hot = movementRepository.findInPeriod(idAccount, from, to);
+          if (!needsArchive(archivedBefore, from)) {
+            return hot;
+          }
+          Set<String> seen = new HashSet<>();
+          Flux<Movement> archived = archivedDays(idAccount, from,
+              earliest(archivedBefore.get(), to))
+              .concatMapIterable(this::decode)
+              .filter(movement -> inPeriod(movement, from, to));
+          return Flux.mergeComparing(OLDEST_FIRST, archived, hot)
+              .filter(movement -> seen.add(movement.getIdMovement()));
+        });
+  }
+
+  /**
+   * Suma de los montos con creationDatetime en [from, to). Los días archivados completos se
+   * suman con su total, sin descomprimirlos.
+   */
+  public Mono<Long> sumAmounts(String idAccount, LocalDateTime from, LocalDateTime to) {
+    return archivedBefore(idAccount)
+        .defaultIfEmpty(Optional.empty())
+        .flatMap(archivedBefore -> {
+          Mono<Long> hot = movementRepository.sumAmounts(idAccount, from, to);
+          if (!needsArchive(archivedBefore, from)) {
+            return hot;
+          }
+          Mono<Long> archived = archivedDays(idAccount, from,
+              earliest(archivedBefore.get(), to))
+              .map(archive -> covers(archive, from, to) ? archive.getTotal()
+                  : decode(archive).stream()
+                      .filter(movement -> inPeriod(movement, from, to))
+                      .mapToLong(Movement::getMonto)
+                      .sum())
+              .reduce(0L, Long::sum);
+          return Mono.zip(archived, hot, Long::sum);
+        });
+  }
+
+  /** Último movimiento de la cuenta, del nivel reciente o, si no tiene, del archivo. */
+  public Mono<Movement> findLatest(String idAccount) {
+    return movementRepository
+        .findFirstByIdAccountOrderByCreationDatetimeDescIdMovementDesc(idAccount)
+        .switchIfEmpty(Mono.defer(() -> movementArchiveRepository
+            .findByIdAccountAndDayLessThanOrderByDayDesc(idAccount, LocalDateTime.now())
+            .next()
+            .map(archive -> {
+              List<Movement> movements = decode(archive);
+              return movements.get(movements.size() - 1);
+            })));
+  }
+
+  List<Movement> decode(MovementArchive archive) {
+    return MovementArchiveCodec.decode(archive.getIdAccount(), archive.getMovements());
+  }
+
+  private Flux<MovementArchive> archivedDays(String idAccount, LocalDateTime from,
+                                             LocalDateTime before) {
+    if (from == null) {
+      return movementArchiveRepository.findByIdAccountAndDayLessThanOrderByDayAsc(idAccount,
+          before);
+    }
+    return movementArchiveRepository
+        .findByIdAccountAndDayGreaterThanEqualAndDayLessThanOrderByDayAsc(idAccount,
+            startOfDay(from), before);
+  }
+
+  private static boolean needsArchive(Optional<LocalDateTime> archivedBefore,
+                                      LocalDateTime from) {
+    return archivedBefore.isPresent() && (from == null || from.isBefore(archivedBefore.get()));
+  }
+
+  /** El día archivado cae completo dentro de [from, to). */
+  private static boolean covers(MovementArchive archive, LocalDateTime from, LocalDateTime to) {
+    return (from == null || !archive.getDay().isBefore(from))
+        && (to == null || !archive.getDay().plusDays(1).isAfter(to));
+  }
+
+  /** Mismos filtros que MovementRepositoryCustom.findPage (to inclusive). */
+  private static boolean matches(MovementPageRequest request, Movement movement) {
+    LocalDateTime datetime = movement.getCreationDatetime();
+    if (request.getAfterDatetime() != null
+        && OLDEST_FIRST.compare(movement, cursorOf(request)) >= 0) {
+      return false;
+    }
+    return (request.getOperation() == null
+        || request.getOperation().name().equals(movement.getOperation()))
+        && (request.getFrom() == null || !datetime.isBefore(request.getFrom()))
+        && (request.getTo() == null || !datetime.isAfter(request.getTo()));
+  }
+
+  private static Movement cursorOf(MovementPageRequest request) {
+    Movement cursor = new Movement();
+    cursor.setCreationDatetime(request.getAfterDatetime());
+    cursor.setIdMovement(request.getAfterIdMovement());
+    return cursor;
+  }
+
+  private static boolean inPeriod(Movement movement, LocalDateTime from, LocalDateTime to) {
+    LocalDateTime datetime = movement.getCreationDatetime();
+    return (from == null || !datetime.isBefore(from)) && (to == null || datetime.isBefore(to));
+  }
+
+  private static LocalDateTime startOfDay(LocalDateTime datetime) {
+    return datetime == null ? null : datetime.truncatedTo(ChronoUnit.DAYS);
+  }
+
+  private static LocalDateTime nextDay(LocalDateTime datetime) {
+    return datetime == null ? null : startOfDay(datetime).plusDays(1);
+  }
+
+  private static LocalDateTime earliest(LocalDateTime first, LocalDateTime second) {
+    return second == null || first.isBefore(second) ? first : second;
+  }
+}
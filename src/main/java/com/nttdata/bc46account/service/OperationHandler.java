@@ -0,0 +1,18 @@
+package com.nttdata.bc46account.service;
+
+import com.nttdata.bc46account.model.Account;
+import com.nttdata.bc46account.model.Movement;
+import reactor.core.publisher.Mono;
+
+/**
+ * Ntt Data - Top Employer 2023.
+ * Todos los derechos Reservados.
+ * Aplica una operación sobre la cuenta de origen y retorna el movimiento registrado.
+ * Los errores de negocio se entregan como Mono.error, nunca se lanzan. El handler ejecuta
+ * commitHook dentro de la transacción que cambia el saldo.
+ */
+@FunctionalInterface
+public interface OperationHandler {
+
+  Mono<Movement> apply(Account account, Movement movement, CommitHook commitHook);
+}
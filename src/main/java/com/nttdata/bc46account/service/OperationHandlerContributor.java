@@ -0,0 +1,12 @@
+package com.nttdata.bc46account.service;
+
+/**
+ * Ntt Data - Top Employer 2023.
+ * Todos los derechos Reservados.
+ * Bean que registra handlers de operaciones adicionales al iniciar AccountImpl,
+ * sin modificar el servicio.
+ */
+public interface OperationHandlerContributor {
+
+  void registerHandlers(OperationHandlerRegistry registry);
+}
@@ -0,0 +1,58 @@
+package com.nttdata.bc46account.service;
+
+import com.nttdata.bc46account.model.OperationType;
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Ntt Data - Top Employer 2023.
+ * Todos los derechos Reservados.
+ * Handlers de operación por OperationType, resueltos una sola vez al iniciar. Cada
+ * operación tiene a lo sumo un handler: registrar dos veces la misma es un error de
+ * configuración. Las operaciones masivas usan el BatchOperationHandler de la operación si
+ * tiene uno, o aplican su handler movimiento por movimiento.
+ */
+public class OperationHandlerRegistry {
+
+  private final Map<OperationType, OperationHandler> handlers =
+      new EnumMap<>(OperationType.class);
+  private final Map<OperationType, BatchOperationHandler> batchHandlers =
+      new EnumMap<>(OperationType.class);
+
+  public OperationHandlerRegistry register(OperationType operationType,
+                                           OperationHandler handler) {
+    if (handlers.putIfAbsent(operationType, handler) != null) {
+      throw new IllegalStateException("Ya existe un handler para la operación "
+          + operationType);
+    }
+    return this;
+  }
+
+  /** Registra la versión masiva de una operación que ya tiene handler. */
+  public OperationHandlerRegistry registerBatch(OperationType operationType,
+                                                BatchOperationHandler handler) {
+    if (!supports(operationType)) {
+      throw new IllegalStateException("La operación " + operationType
+          + " no tiene handler registrado");
+    }
+    if (batchHandlers.putIfAbsent(operationType, handler) != null) {
+      throw new IllegalStateException("Ya existe un handler masivo para la operación "
+          + operationType);
+    }
+    return this;
+  }
+
+  /** Handler de la operación, o null si no tiene uno registrado. */
+  public OperationHandler handlerFor(OperationType operationType) {
+    return operationType == null ? null : handlers.get(operationType);
+  }
+
+  /** Handler masivo de la operación, o null si se aplica movimiento por movimiento. */
+  public BatchOperationHandler batchHandlerFor(OperationType operationType) {
+    return operationType == null ? null : batchHandlers.get(operationType);
+  }
+
+  public boolean supports(OperationType operationType) {
+    return handlerFor(operationType) != null;
+  }
+}
@@ -0,0 +1,173 @@
+package com.nttdata.bc46account.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.nttdata.bc46account.exceptions.AccountBusyException;
+import com.nttdata.bc46account.exceptions.AccountNotFoundException;
+import com.nttdata.bc46account.exceptions.InsufficientFundsException;
+import com.nttdata.bc46account.exceptions.InvalidOperationException;
+import com.nttdata.bc46account.exceptions.OperationInProgressException;
+import com.nttdata.bc46account.model.IdempotencyRecord;
+import com.nttdata.bc46account.model.Identifiers;
+import com.nttdata.bc46account.model.Movement;
+import com.nttdata.bc46account.repository.IdempotencyRecordRepository;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Function;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+/**
+ * Ntt Data - Top Employer 2023.
+ * Todos los derechos Reservados.
+ * Ejecuta una sola vez cada operación enviada con la misma Idempotency-Key. El primer
+ * intento reserva la clave insertando un registro pendiente (el _id único resuelve la
+ * carrera entre reintentos simultáneos) y guarda el movimiento en la misma transacción que
+ * cambia el saldo, mediante el CommitHook que recibe la operación; el movimiento se devuelve
+ * a los reintentos sin volver a tocar la cuenta. Los resultados ya guardados se sirven
+ * desde un caché local, así que un reintento repetido no consulta Mongo.
+ * La reserva dura lo mismo que el resultado y solo se libera ante errores que ocurren antes
+ * de confirmar la operación. Con transacciones, una reserva sin completar después de
+ * pendingTimeout significa que su operación no se confirmó y otro intento puede tomarla;
+ * sin transacciones la operación pudo haberse aplicado, así que la clave queda reservada.
+ */
+@Component
+@Slf4j
+public class OperationIdempotency {
+
+  /** Errores que ocurren antes de tocar el saldo: el cliente puede reintentar con la clave. */
+  private static final List<Class<? extends Throwable>> NOT_APPLIED = List.of(
+      InvalidOperationException.class, AccountNotFoundException.class,
+      InsufficientFundsException.class, AccountBusyException.class);
+
+  private final IdempotencyRecordRepository idempotencyRecordRepository;
+  private final Duration ttl;
+  private final Duration pendingTimeout;
+  private final boolean transactions;
+  private final Cache<String, Movement> completed;
+
+  public OperationIdempotency(IdempotencyRecordRepository idempotencyRecordRepository,
+                              @Value("${account.idempotency.ttl:P1D}") Duration ttl,
+                              @Value("${account.idempotency.pending-timeout:PT1M}")
+                                  Duration pendingTimeout,
+                              @Value("${account.idempotency.cache-size:10000}") long cacheSize,
+                              @Value("${account.mongo.transactions.enabled:true}")
+                                  boolean transactions) {
+    this.idempotencyRecordRepository = idempotencyRecordRepository;
+    this.ttl = ttl;
+    this.pendingTimeout = pendingTimeout;
+    this.transactions = transactions;
+    this.completed = Caffeine.newBuilder()
+        .maximumSize(cacheSize)
+        .expireAfterWrite(ttl)
+        .build();
+  }
+
+  /**
+   * Ejecuta operation si la clave es nueva para la cuenta, o devuelve el movimiento que
+   * produjo la primera vez. operation debe ejecutar el CommitHook recibido dentro de su
+   * transacción. Falla con OperationInProgressException si la primera ejecución todavía
+   * no termina.
+   */
+  public Mono<Movement> execute(String idAccount, String idempotencyKey,
+                                Function<CommitHook, Mono<Movement>> operation) {
+    String idRecord = idAccount + "|" + idempotencyKey;
+    return Mono.defer(() -> {
+      Movement cached = completed.getIfPresent(idRecord);
+      if (cached != null) {
+        return Mono.just(cached);
+      }
+      String owner = Identifiers.next();
+      return reserve(idRecord, owner)
+          .flatMap(reserved -> reserved
+              ? run(idRecord, owner, operation)
+              : storedResult(idRecord, idempotencyKey, owner, operation));
+    });
+  }
+
+  private Mono<Boolean> reserve(String idRecord, String owner) {
+    LocalDateTime now = LocalDateTime.now();
+    IdempotencyRecord pending = new IdempotencyRecord(idRecord, null, owner, now,
+        now.plus(ttl));
+    return idempotencyRecordRepository.insert(pending)
+        .thenReturn(true)
+        .onErrorResume(DuplicateKeyException.class, e -> Mono.just(false));
+  }
+
+  private Mono<Movement> run(String idRecord, String owner,
+                             Function<CommitHook, Mono<Movement>> operation) {
+    AtomicBoolean stored = new AtomicBoolean();
+    CommitHook commitHook = movement -> {
+      stored.set(true);
+      Mono<Void> complete = complete(idRecord, owner, movement);
+      /** Sin transacciones el saldo ya cambió: un fallo aquí no debe reportarse al cliente. */
+      return transactions ? complete : logFailure(idRecord, complete);
+    };
+    return Mono.defer(() -> operation.apply(commitHook))
+        /** Solo se libera la clave si la operación con certeza no se aplicó. */
+        .onErrorResume(error -> NOT_APPLIED.stream().anyMatch(type -> type.isInstance(error)),
+            error -> idempotencyRecordRepository.release(idRecord, owner)
+                .then(Mono.error(error)))
+        /** Sin resultado no hay nada que guardar: se libera la clave para poder reintentar. */
+        .switchIfEmpty(Mono.defer(() -> idempotencyRecordRepository.release(idRecord, owner)
+            .then(Mono.<Movement>empty())))
+        /** Handlers que no ejecutan el hook: el resultado se guarda al terminar. */
+        .flatMap(movement -> stored.get()
+            ? Mono.just(movement)
+            : logFailure(idRecord, complete(idRecord, owner, movement)).thenReturn(movement))
+        .doOnNext(movement -> completed.put(idRecord, movement));
+  }
+
+  /** Guarda el movimiento en la reserva; falla si la reserva ya pasó a otro intento. */
+  private Mono<Void> complete(String idRecord, String owner, Movement movement) {
+    return idempotencyRecordRepository.complete(idRecord, owner, movement,
+            LocalDateTime.now().plus(ttl))
+        .flatMap(done -> done ? Mono.<Void>empty() : Mono.error(() ->
+            new IllegalStateException("La reserva de " + idRecord + " pasó a otro intento.")));
+  }
+
+  /**
+   * La operación ya se aplicó: se responde igual aunque no se pueda guardar el resultado;
+   * la clave queda reservada hasta expirar.
+   */
+  private Mono<Void> logFailure(String idRecord, Mono<Void> complete) {
+    return complete.onErrorResume(error -> {
+      log.error("Could not store idempotent result {}", idRecord, error);
+      return Mono.empty();
+    });
+  }
+
+  private Mono<Movement> storedResult(String idRecord, String idempotencyKey, String owner,
+                                      Function<CommitHook, Mono<Movement>> operation) {
+    return idempotencyRecordRepository.findById(idRecord)
+        .switchIfEmpty(Mono.error(() -> new OperationInProgressException(idempotencyKey)))
+        .flatMap(record -> {
+          if (record.isCompleted()) {
+            completed.put(idRecord, record.getMovement());
+            return Mono.just(record.getMovement());
+          }
+          return takeOver(idRecord, owner)
+              .flatMap(taken -> taken
+                  ? run(idRecord, owner, operation)
+                  : Mono.error(() -> new OperationInProgressException(idempotencyKey)));
+        });
+  }
+
+  private Mono<Boolean> takeOver(String idRecord, String owner) {
+    if (!transactions) {
+      return Mono.just(false);
+    }
+    return idempotencyRecordRepository.takeOver(idRecord, owner,
+            LocalDateTime.now().minus(pendingTimeout))
+        .doOnNext(taken -> {
+          if (taken) {
+            log.warn("Idempotency key {} taken over after {}", idRecord, pendingTimeout);
+          }
+        });
+  }
+}
@@ -0,0 +1,100 @@
+package com.nttdata.bc46account.service;
+
+import com.nttdata.bc46account.exceptions.InsufficientFundsException;
+import com.nttdata.bc46account.model.OperationType;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+/**
+ * Ntt Data - Top Employer 2023.
+ * Todos los derechos Reservados.
+ * Métricas de las operaciones de cuenta, etiquetadas por operation:
+ * account.operation (latencia por outcome: success, insufficient_funds, error),
+ * account.operation.insufficient.funds (rechazos por saldo) y
+ * account.operation.mongo (duración de cada llamada a Mongo, etiquetada además por call).
+ * Los medidores se registran una vez y se reutilizan, sin buscarlos en el registry
+ * en cada operación.
+ */
+@Component
+public class OperationMetrics {
+
+  private static final String SUCCESS = "success";
+  private static final String INSUFFICIENT_FUNDS = "insufficient_funds";
+  private static final String ERROR = "error";
+
+  private final MeterRegistry meterRegistry;
+  private final Map<OperationType, Map<String, Timer>> operationTimers =
+      new EnumMap<>(OperationType.class);
+  private final Map<OperationType, Counter> insufficientFunds =
+      new EnumMap<>(OperationType.class);
+  private final Map<String, Timer> mongoTimers = new ConcurrentHashMap<>();
+
+  public OperationMetrics(MeterRegistry meterRegistry) {
+    this.meterRegistry = meterRegistry;
+    for (OperationType operation : OperationType.values()) {
+      operationTimers.put(operation, Map.of(
+          SUCCESS, operationTimer(operation, SUCCESS),
+          INSUFFICIENT_FUNDS, operationTimer(operation, INSUFFICIENT_FUNDS),
+          ERROR, operationTimer(operation, ERROR)));
+      insufficientFunds.put(operation, Counter.builder("account.operation.insufficient.funds")
+          .description("Operaciones rechazadas por saldo insuficiente")
+          .tag("operation", operation.name())
+          .register(meterRegistry));
+    }
+  }
+
+  /**
+   * Mide la operación desde la suscripción hasta su resultado.
+   */
+  public <T> Mono<T> timeOperation(OperationType operation, Mono<T> execution) {
+    Map<String, Timer> timers = operationTimers.get(operation);
+    return Mono.defer(() -> {
+      long start = System.nanoTime();
+      return execution
+          .doOnSuccess(result -> timers.get(SUCCESS)
+              .record(System.nanoTime() - start, TimeUnit.NANOSECONDS))
+          .doOnError(error -> {
+            boolean rejected = error instanceof InsufficientFundsException;
+            if (rejected) {
+              insufficientFunds.get(operation).increment();
+            }
+            timers.get(rejected ? INSUFFICIENT_FUNDS : ERROR)
+                .record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+          });
+    });
+  }
+
+  /**
+   * Mide una llamada a Mongo hecha por la operación.
+   */
+  public <T> Mono<T> timeMongo(OperationType operation, String call, Mono<T> execution) {
+    Timer timer = mongoTimers.computeIfAbsent(operation.name() + ':' + call,
+        key -> Timer.builder("account.operation.mongo")
+            .description("Duración de las llamadas a Mongo de cada operación")
+            .tag("operation", operation.name())
+            .tag("call", call)
+            .publishPercentileHistogram()
+            .register(meterRegistry));
+    return Mono.defer(() -> {
+      long start = System.nanoTime();
+      return execution.doFinally(signal -> timer.record(System.nanoTime() - start,
+          TimeUnit.NANOSECONDS));
+    });
+  }
+
+  private Timer operationTimer(OperationType operation, String outcome) {
+    return Timer.builder("account.operation")
+        .description("Latencia de las operaciones de cuenta")
+        .tag("operation", operation.name())
+        .tag("outcome", outcome)
+        .publishPercentileHistogram()
+        .register(meterRegistry);
+  }
+}
@@ -0,0 +1,81 @@
+package com.nttdata.bc46account.service;
+
+import com.nttdata.bc46account.repository.PendingTransferRepository;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import javax.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Ntt Data - Top Employer 2023.
+ * Todos los derechos Reservados.
+ * Revisa periódicamente las transferencias en dos fases que siguen abiertas después de
+ * timeout (su instancia cayó a mitad de camino) y las completa o descarta con
+ * TransferEngine.recover. Solo hay registros cuando Mongo trabaja sin transacciones.
+ */
+@Component
+@ConditionalOnProperty(name = "account.transfer.recovery.enabled", havingValue = "true",
+    matchIfMissing = true)
+@Slf4j
+public class PendingTransferRecovery {
+
+  private final PendingTransferRepository pendingTransferRepository;
+  private final TransferEngine transferEngine;
+  private final Duration timeout;
+  private final Duration pollInterval;
+  private Disposable recovery;
+
+  public PendingTransferRecovery(PendingTransferRepository pendingTransferRepository,
+                                 TransferEngine transferEngine,
+                                 @Value("${account.transfer.recovery.timeout:PT1M}")
+                                 Duration timeout,
+                                 @Value("${account.transfer.recovery.poll-interval:PT30S}")
+                                 Duration pollInterval) {
+    this.pendingTransferRepository = pendingTransferRepository;
+    this.transferEngine = transferEngine;
+    this.timeout = timeout;
+    this.pollInterval = pollInterval;
+  }
+
+  @EventListener(ApplicationReadyEvent.class)
+  public void start() {
+    recovery = Flux.interval(pollInterval)
+        .onBackpressureDrop()
+        .concatMap(tick -> recoverAbandoned()
+            .onErrorResume(error -> {
+              log.error("Pending transfer recovery cycle failed", error);
+              return Mono.empty();
+            }), 1)
+        .subscribe();
+  }
+
+  @PreDestroy
+  public void stop() {
+    if (recovery != null) {
+      recovery.dispose();
+    }
+  }
+
+  /** Retoma las transferencias abiertas hace más de timeout; retorna cuántas procesó. */
+  public Mono<Long> recoverAbandoned() {
+    return pendingTransferRepository
+        .findByCreationDatetimeLessThanOrderByCreationDatetimeAsc(
+            LocalDateTime.now().minus(timeout))
+        .concatMap(pending -> transferEngine.recover(pending)
+            .onErrorResume(error -> {
+              log.warn("Pending transfer {} could not be recovered", pending.getIdTransfer(),
+                  error);
+              return Mono.empty();
+            })
+            .thenReturn(pending))
+        .count();
+  }
+}
@@ -0,0 +1,293 @@
+package com.nttdata.bc46account.service;
+
+import com.mongodb.MongoException;
+import com.nttdata.bc46account.exceptions.InsufficientFundsException;
+import com.nttdata.bc46account.exceptions.InvalidOperationException;
+import com.nttdata.bc46account.exceptions.TargetAccountNotFoundException;
+import com.nttdata.bc46account.model.Identifiers;
+import com.nttdata.bc46account.model.Movement;
+import com.nttdata.bc46account.model.OperationType;
+import com.nttdata.bc46account.model.OutboxEvent;
+import com.nttdata.bc46account.model.PendingTransfer;
+import com.nttdata.bc46account.producer.MovementEventOutbox;
+import com.nttdata.bc46account.repository.AccountRepository;
+import com.nttdata.bc46account.repository.MovementRepository;
+import com.nttdata.bc46account.repository.PendingTransferRepository;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.reactive.TransactionalOperator;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.util.retry.Retry;
+
+/**
+ * Ntt Data - Top Employer 2023.
+ * Todos los derechos Reservados.
+ * Aplica las dos piernas de una transferencia (débito de origen y abono de destino) de forma
+ * atómica, junto con sus movimientos y el evento del outbox.
+ * - Con transacciones de Mongo: todo en una transacción; los saldos se actualizan en orden
+ *   de idAccount, así dos transferencias opuestas entre las mismas cuentas chocan en el
+ *   primer documento y la perdedora aborta sin trabajo hecho. Los errores transitorios de
+ *   transacción (conflictos de escritura) se reintentan.
+ * - Sin transacciones (account.mongo.transactions.enabled=false): dos fases con un registro
+ *   PendingTransfer y una marca por pierna en cada cuenta, de modo que cada paso se puede
+ *   repetir sin aplicar dos veces un saldo. El registro nace reservado por la solicitud
+ *   durante lease; PendingTransferRecovery lo reserva a su vez antes de completar o descartar
+ *   las transferencias que una instancia caída dejó a medias. Las marcas solo se limpian
+ *   teniendo la reserva. Si la cuenta de destino ya no existe, el débito se devuelve al
+ *   origen con una tercera marca y la transferencia se cierra sin movimientos.
+ */
+@Component
+@Slf4j
+public class TransferEngine {
+
+  private static final OperationType OPERATION = OperationType.TRANSFERIR_DINERO;
+
+  private final AccountRepository accountRepository;
+  private final MovementRepository movementRepository;
+  private final PendingTransferRepository pendingTransferRepository;
+  private final MovementEventOutbox movementEventOutbox;
+  private final TransactionalOperator transactionalOperator;
+  private final OperationMetrics operationMetrics;
+  private final boolean transactions;
+  private final int maxRetries;
+  private final Duration lease;
+
+  public TransferEngine(AccountRepository accountRepository,
+                        MovementRepository movementRepository,
+                        PendingTransferRepository pendingTransferRepository,
+                        MovementEventOutbox movementEventOutbox,
+                        TransactionalOperator transactionalOperator,
+                        OperationMetrics operationMetrics,
+                        @Value("${account.mongo.transactions.enabled:true}") boolean transactions,
+                        @Value("${account.transfer.max-retries:3}") int maxRetries,
+                        @Value("${account.transfer.lease:PT30S}") Duration lease) {
+    this.accountRepository = accountRepository;
+    this.movementRepository = movementRepository;
+    this.pendingTransferRepository = pendingTransferRepository;
+    this.movementEventOutbox = movementEventOutbox;
+    this.transactionalOperator = transactionalOperator;
+    this.operationMetrics = operationMetrics;
+    this.transactions = transactions;
+    this.maxRetries = maxRetries;
+    this.lease = lease;
+  }
+
+  /**
+   * Transfiere el monto de targetLeg desde sourceAccount hacia targetAccount (idAccount) y
+   * registra ambos movimientos. Retorna el evento del movimiento de origen, ya confirmado.
+   * Falla con InsufficientFundsException, sin cambios, si el saldo de origen no alcanza, y con
+   * InvalidOperationException si origen y destino son la misma cuenta. Falla con
+   * TargetAccountNotFoundException, sin cambios, si la cuenta de destino no existe.
+   */
+  public Mono<OutboxEvent> transfer(String sourceAccount, String targetAccount,
+                                    Movement sourceLeg, Movement targetLeg) {
+    return transfer(sourceAccount, targetAccount, sourceLeg, targetLeg, CommitHook.NONE);
+  }
+
+  /**
+   * Igual que transfer, ejecutando commitHook con el movimiento de origen: dentro de la
+   * transacción, o en dos fases una vez aplicadas ambas piernas.
+   */
+  public Mono<OutboxEvent> transfer(String sourceAccount, String targetAccount,
+                                    Movement sourceLeg, Movement targetLeg,
+                                    CommitHook commitHook) {
+    if (sourceAccount.equals(targetAccount)) {
+      return Mono.error(new InvalidOperationException(
+          "La cuenta de destino debe ser distinta a la de origen."));
+    }
+    return transactions
+        ? transferInTransaction(sourceAccount, targetAccount, sourceLeg, targetLeg, commitHook)
+        : transferInTwoPhases(sourceAccount, targetAccount, sourceLeg, targetLeg, commitHook);
+  }
+
+  private Mono<OutboxEvent> transferInTransaction(String sourceAccount, String targetAccount,
+                                                  Movement sourceLeg, Movement targetLeg,
+                                                  CommitHook commitHook) {
+    long amount = targetLeg.getMonto();
+    Mono<Void> debit = Mono.defer(() -> operationMetrics.timeMongo(OPERATION, "debit",
+            accountRepository.debitIfSufficient(sourceAccount, amount)))
+        .flatMap(debited -> debited ? Mono.<Void>empty() : Mono.error(insufficientFunds()));
+    Mono<Void> credit = Mono.defer(() -> operationMetrics.timeMongo(OPERATION, "credit",
+            accountRepository.incrementBalance(targetAccount, amount)))
+        .flatMap(credited -> credited ? Mono.<Void>empty()
+            : Mono.error(new TargetAccountNotFoundException(targetAccount)));
+    /** Orden fijo por idAccount; si una pierna falla, la transacción deshace la otra. */
+    Mono<Void> balances = sourceAccount.compareTo(targetAccount) <= 0
+        ? debit.then(credit)
+        : credit.then(debit);
+
+    return balances
+        .then(Mono.defer(() -> operationMetrics.timeMongo(OPERATION, "insert_movements",
+            movementRepository.insert(List.of(sourceLeg, targetLeg)).then())))
+        .then(Mono.defer(() -> operationMetrics.timeMongo(OPERATION, "append_outbox",
+            movementEventOutbox.append(sourceLeg))))
+        .flatMap(event -> commitHook.beforeCommit(sourceLeg).thenReturn(event))
+        .as(transactionalOperator::transactional)
+        .retryWhen(Retry.backoff(maxRetries, Duration.ofMillis(5))
+            .filter(TransferEngine::isTransientTransactionError)
+            .onRetryExhaustedThrow((spec, signal) -> signal.failure()));
+  }
+
+  private Mono<OutboxEvent> transferInTwoPhases(String sourceAccount, String targetAccount,
+                                                Movement sourceLeg, Movement targetLeg,
+                                                CommitHook commitHook) {
+    String owner = Identifiers.next();
+    LocalDateTime now = LocalDateTime.now();
+    /** Se registra ya reservada: recovery no la toma mientras la solicitud siga en curso. */
+    PendingTransfer pending = new PendingTransfer(sourceLeg.getIdMovement(), sourceAccount,
+        targetAccount, targetLeg.getMonto(), List.of(sourceLeg, targetLeg),
+        PendingTransfer.PENDING, owner, now.plus(lease), now);
+
+    return pendingTransferRepository.insert(pending)
+        .then(operationMetrics.timeMongo(OPERATION, "debit", accountRepository
+            .applyTransferLeg(sourceAccount, debitMark(pending), -pending.getAmount())))
+        .flatMap(debited -> debited
+            ? complete(pending, owner)
+                .flatMap(event -> commitHook.beforeCommit(sourceLeg).thenReturn(event))
+            : pendingTransferRepository.deleteClaimed(pending.getIdTransfer(), owner)
+                .then(Mono.error(insufficientFunds())));
+  }
+
+  /**
+   * Retoma una transferencia en dos fases abandonada: si el origen ya fue debitado la
+   * completa; si no, la descarta sin tocar saldos. No hace nada si otro la tiene reservada
+   * o ya se cerró.
+   */
+  public Mono<Void> recover(PendingTransfer abandoned) {
+    String owner = Identifiers.next();
+    return pendingTransferRepository.claim(abandoned.getIdTransfer(), owner, lease)
+        .flatMap(pending -> {
+          Mono<Boolean> debited = PendingTransfer.APPLIED.equals(pending.getState())
+              ? Mono.just(true)
+              : accountRepository.hasTransferLeg(pending.getSourceAccount(), debitMark(pending));
+          return debited.flatMap(applied -> {
+            if (!applied) {
+              log.warn("Pending transfer {} discarded before debiting account {}",
+                  pending.getIdTransfer(), pending.getSourceAccount());
+              return pendingTransferRepository.deleteClaimed(pending.getIdTransfer(), owner)
+                  .then();
+            }
+            log.warn("Pending transfer {} completed by recovery", pending.getIdTransfer());
+            return complete(pending, owner).then()
+                .onErrorResume(TargetAccountNotFoundException.class, refunded -> Mono.empty());
+          });
+        });
+  }
+
+  /**
+   * Pasos posteriores al débito; cada uno se puede repetir sin duplicar saldos, movimientos
+   * ni eventos. Si el abono no se aplica, abort decide entre devolver el débito o dejar el
+   * registro para recovery. Si owner perdió la reserva termina los pasos repetibles, pero
+   * deja las marcas y el registro a quien la tiene.
+   */
+  private Mono<OutboxEvent> complete(PendingTransfer pending, String owner) {
+    String idTransfer = pending.getIdTransfer();
+    Mono<Boolean> credit = PendingTransfer.APPLIED.equals(pending.getState())
+        ? Mono.just(true)
+        : operationMetrics.timeMongo(OPERATION, "credit", accountRepository
+                .applyTransferLeg(pending.getTargetAccount(), creditMark(pending),
+                    pending.getAmount()))
+            .flatMap(credited -> credited
+                ? Mono.just(true)
+                : accountRepository.hasTransferLeg(pending.getTargetAccount(),
+                    creditMark(pending)))
+            .flatMap(credited -> credited
+                ? pendingTransferRepository.markApplied(idTransfer, owner).thenReturn(true)
+                : Mono.just(false));
+    return credit
+        .flatMap(credited -> credited ? Mono.<Void>empty() : abort(pending, owner))
+        .then(operationMetrics.timeMongo(OPERATION, "insert_movements",
+            Flux.fromIterable(pending.getMovements())
+                .concatMap(movement -> movementRepository.insert(movement)
+                    .onErrorResume(DuplicateKeyException.class, duplicate -> Mono.empty()))
+                .then()))
+        .then(operationMetrics.timeMongo(OPERATION, "append_outbox",
+            movementEventOutbox.appendIfAbsent(pending.getMovements().get(0))))
+        .flatMap(event -> close(pending, owner).thenReturn(event));
+  }
+
+  /**
+   * El abono no se aplicó. Si la cuenta de destino ya no existe no se aplicará nunca: con la
+   * reserva se devuelve el débito al origen, se limpian las marcas y se elimina el registro,
+   * y falla con TargetAccountNotFoundException. Si existe, falla y deja el registro para
+   * recovery.
+   */
+  private Mono<Void> abort(PendingTransfer pending, String owner) {
+    String idTransfer = pending.getIdTransfer();
+    String sourceAccount = pending.getSourceAccount();
+    return accountRepository.existsById(pending.getTargetAccount())
+        .flatMap(exists -> exists
+            ? Mono.error(new IllegalStateException("La transferencia " + idTransfer
+                + " no pudo abonar la cuenta " + pending.getTargetAccount()
+                + "; queda pendiente para recovery."))
+            : pendingTransferRepository.claim(idTransfer, owner, lease)
+                .flatMap(claimed -> operationMetrics.timeMongo(OPERATION, "refund",
+                        accountRepository.applyTransferLeg(sourceAccount, refundMark(pending),
+                            pending.getAmount()))
+                    .flatMap(refunded -> refunded
+                        ? Mono.just(true)
+                        : accountRepository.hasTransferLeg(sourceAccount, refundMark(pending)))
+                    .flatMap(refunded -> refunded
+                        ? Mono.<Void>empty()
+                        : Mono.error(new IllegalStateException("La transferencia " + idTransfer
+                            + " no pudo devolver el débito a la cuenta " + sourceAccount
+                            + "; queda pendiente para recovery.")))
+                    /** La marca de débito primero: sin ella recovery no vuelve a devolver. */
+                    .then(accountRepository.clearTransferLeg(sourceAccount, debitMark(pending)))
+                    .then(accountRepository.clearTransferLeg(sourceAccount, refundMark(pending)))
+                    .then(pendingTransferRepository.deleteClaimed(idTransfer, owner))
+                    .doOnSuccess(deleted -> log.warn(
+                        "Pending transfer {} refunded to account {}: target account {} not found",
+                        idTransfer, sourceAccount, pending.getTargetAccount())))
+                .then(Mono.error(new TargetAccountNotFoundException(
+                    pending.getTargetAccount()))));
+  }
+
+  /** Limpia las marcas y elimina el registro, solo si owner conserva (o renueva) la reserva. */
+  private Mono<Void> close(PendingTransfer pending, String owner) {
+    String idTransfer = pending.getIdTransfer();
+    return pendingTransferRepository.claim(idTransfer, owner, lease)
+        .filter(claimed -> PendingTransfer.APPLIED.equals(claimed.getState()))
+        .flatMap(claimed -> accountRepository.clearTransferLeg(pending.getSourceAccount(),
+                debitMark(pending))
+            .then(accountRepository.clearTransferLeg(pending.getTargetAccount(),
+                creditMark(pending)))
+            .then(pendingTransferRepository.deleteClaimed(idTransfer, owner)))
+        .switchIfEmpty(Mono.fromRunnable(() -> log.warn(
+            "Pending transfer {} left open: claim lost or not yet applied", idTransfer)))
+        .then();
+  }
+
+  private static String debitMark(PendingTransfer pending) {
+    return pending.getIdTransfer() + ":D";
+  }
+
+  private static String creditMark(PendingTransfer pending) {
+    return pending.getIdTransfer() + ":C";
+  }
+
+  private static String refundMark(PendingTransfer pending) {
+    return pending.getIdTransfer() + ":R";
+  }
+
+  private static InsufficientFundsException insufficientFunds() {
+    return new InsufficientFundsException("La cuenta de origen no tiene suficiente saldo"
+        + " para la transferencia.");
+  }
+
+  static boolean isTransientTransactionError(Throwable error) {
+    for (Throwable cause = error; cause != null; cause = cause.getCause()) {
+      if (cause instanceof MongoException && ((MongoException) cause)
+          .hasErrorLabel(MongoException.TRANSIENT_TRANSACTION_ERROR_LABEL)) {
+        return true;
+      }
+    }
+    return false;
+  }
+}
@@ -3,7 +3,7 @@ package com.nttdata.bc46account;
 import org.junit.jupiter.api.Test;
 import org.springframework.boot.test.context.SpringBootTest;
 
-@SpringBootTest
+@SpringBootTest(properties = "account.mongo.ensure-indexes=false")
 class Bc46AccountApplicationTests {
 
 	@Test
@@ -0,0 +1,65 @@
+package com.nttdata.bc46account;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import com.nttdata.bc46account.model.Account;
+import com.nttdata.bc46account.producer.InProcessEventPublisher;
+import java.util.Map;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.reactive.AutoConfigureWebTestClient;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.reactive.server.WebTestClient;
+
+/**
+ * Levanta el servicio con el perfil inmemory, sin Mongo, Kafka, Eureka ni Config Server,
+ * y recorre el flujo de alta de cuenta, depósito y consulta por HTTP.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@AutoConfigureWebTestClient
+@ActiveProfiles("inmemory")
+class InMemoryProfileTest {
+
+  @Autowired
+  private WebTestClient webTestClient;
+
+  @Autowired
+  private InProcessEventPublisher eventPublisher;
+
+  @Test
+  void createsAccountsAndAppliesOperationsWithoutExternalServices() {
+    Account created = webTestClient.post().uri("/api/accounts/saveAccount")
+        .bodyValue(Map.of("accountType", "personal", "idProduct", "P002",
+            "idCustomer", "C0001", "accountNumber", "19100000000001",
+            "cci", "00219100000000001000", "availableBalance", "10.00"))
+        .exchange()
+        .expectStatus().isCreated()
+        .expectBody(Account.class)
+        .returnResult().getResponseBody();
+
+    webTestClient.post().uri("/api/accounts/addOperationToAccount/{id}",
+            created.getIdAccount())
+        .bodyValue(Map.of("operation", "DEPOSITAR", "movementType", "DEPOSITO",
+            "moneda", "PEN", "monto", "2.50"))
+        .exchange()
+        .expectStatus().isCreated();
+
+    webTestClient.post().uri("/api/accounts/addOperationToAccount/{id}",
+            created.getIdAccount())
+        .bodyValue(Map.of("operation", "TRANSFERIR_DINERO", "movementType", "RETIRO",
+            "moneda", "PEN", "monto", "1.00", "targetAccount", "19199999999999"))
+        .exchange()
+        .expectStatus().isBadRequest()
+        .expectBody()
+        .jsonPath("$.code").isEqualTo("TARGET_ACCOUNT_NOT_FOUND");
+
+    webTestClient.get().uri("/api/accounts/findById/{id}", created.getIdAccount())
+        .exchange()
+        .expectStatus().isOk()
+        .expectBody()
+        .jsonPath("$.availableBalance").isEqualTo(12.5)
+        .jsonPath("$.bankMovements.length()").isEqualTo(1);
+    assertEquals(1L, eventPublisher.publishedCount());
+  }
+}
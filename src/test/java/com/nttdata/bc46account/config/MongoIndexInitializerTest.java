@@ -0,0 +1,176 @@
+package com.nttdata.bc46account.config;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.mongodb.reactivestreams.client.MongoClient;
+import com.mongodb.reactivestreams.client.MongoClients;
+import com.nttdata.bc46account.model.Account;
+import com.nttdata.bc46account.model.BalanceSnapshot;
+import com.nttdata.bc46account.model.Movement;
+import com.nttdata.bc46account.model.MovementArchive;
+import com.nttdata.bc46account.model.PendingTransfer;
+import com.nttdata.bc46account.repository.AccountRepository;
+import com.nttdata.bc46account.repository.BalanceSnapshotRepository;
+import com.nttdata.bc46account.repository.MovementArchiveRepository;
+import com.nttdata.bc46account.repository.MovementRepository;
+import com.nttdata.bc46account.repository.PendingTransferRepository;
+import java.lang.reflect.Method;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+import org.bson.Document;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.data.mapping.PropertyPath;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.convert.MongoCustomConversions;
+import org.springframework.data.mongodb.core.index.IndexDefinition;
+import org.springframework.data.mongodb.core.index.MongoPersistentEntityIndexResolver;
+import org.springframework.data.mongodb.core.mapping.MongoMappingContext;
+import org.springframework.data.mongodb.core.mapping.MongoPersistentEntity;
+import org.springframework.data.mongodb.repository.Query;
+import org.springframework.data.repository.query.parser.Part;
+import org.springframework.data.repository.query.parser.PartTree;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Comprueba que cada finder derivado de los repositorios tenga un índice cuyo prefijo sean
+ * sus campos de filtro (y luego los de orden). La prueba de planes de ejecución necesita un
+ * Mongo real: mvn test -Daccount.test.mongo-uri=mongodb://localhost:27017.
+ */
+class MongoIndexInitializerTest {
+
+  private static final Map<Class<?>, Class<?>> REPOSITORIES = Map.of(
+      AccountRepository.class, Account.class,
+      MovementRepository.class, Movement.class,
+      BalanceSnapshotRepository.class, BalanceSnapshot.class,
+      PendingTransferRepository.class, PendingTransfer.class,
+      MovementArchiveRepository.class, MovementArchive.class);
+
+  private final MongoMappingContext mappingContext = new MongoMappingContext();
+  private final MongoPersistentEntityIndexResolver indexResolver =
+      new MongoPersistentEntityIndexResolver(mappingContext);
+
+  MongoIndexInitializerTest() {
+    mappingContext.setSimpleTypeHolder(
+        new MongoCustomConversions(List.of()).getSimpleTypeHolder());
+  }
+
+  @Test
+  void everyDerivedFinderHasAMatchingIndexPrefix() {
+    REPOSITORIES.forEach((repository, domainType) -> {
+      List<List<String>> indexes = indexKeys(domainType);
+      for (Method method : repository.getDeclaredMethods()) {
+        if (method.isAnnotationPresent(Query.class)) {
+          continue;
+        }
+        PartTree tree = new PartTree(method.getName(), domainType);
+        MongoPersistentEntity<?> entity = mappingContext.getRequiredPersistentEntity(domainType);
+        Set<String> filters = tree.getParts().stream()
+            .map(Part::getProperty)
+            .map(PropertyPath::getSegment)
+            .map(property -> entity.getRequiredPersistentProperty(property).getFieldName())
+            .collect(Collectors.toSet());
+        List<String> sorts = tree.getSort().stream()
+            .map(order -> entity.getRequiredPersistentProperty(order.getProperty())
+                .getFieldName())
+            .collect(Collectors.toList());
+
+        assertTrue(indexes.stream().anyMatch(keys -> covers(keys, filters, sorts)),
+            repository.getSimpleName() + "." + method.getName() + " no tiene índice para "
+                + filters + " " + sorts);
+      }
+    });
+  }
+
+  @Test
+  void accountNumberAndCciAreUnique() {
+    List<IndexDefinition> indexes = resolve(Account.class);
+    for (String field : List.of("accountNumber", "cci")) {
+      assertTrue(indexes.stream().anyMatch(index ->
+              index.getIndexKeys().keySet().equals(Set.of(field))
+                  && Boolean.TRUE.equals(index.getIndexOptions().get("unique"))),
+          field + " debe tener un índice único");
+    }
+  }
+
+  @Test
+  @EnabledIfSystemProperty(named = "account.test.mongo-uri", matches = ".+")
+  void findersUseIndexScansOnMongo() {
+    try (MongoClient client = MongoClients.create(System.getProperty("account.test.mongo-uri"))) {
+      ReactiveMongoTemplate template = new ReactiveMongoTemplate(client,
+          "bc46-account-index-test");
+      template.getMongoDatabase().flatMap(database -> Mono.from(database.drop())).block();
+      MongoIndexInitializer initializer = new MongoIndexInitializer(template, mappingContext,
+          Duration.ofMinutes(1));
+      assertEquals(List.of(), initializer.ensureIndexes().block());
+      Flux.range(0, 200)
+          .concatMap(i -> template.insert(new Document("_id", String.format("A%04d", i))
+              .append("idCustomer", "C" + i % 20)
+              .append("idProduct", "P00" + i % 3)
+              .append("accountNumber", String.format("191%011d", i))
+              .append("cci", String.format("002191%011d000", i)), "account"))
+          .blockLast();
+
+      assertIndexScan(template, "account", new Document("accountNumber", "19100000000007"),
+          null);
+      assertIndexScan(template, "account", new Document("accountNumber",
+          new Document("$in", List.of("19100000000007", "19100000000008"))), null);
+      assertIndexScan(template, "account", new Document("idCustomer", "C3"), null);
+      assertIndexScan(template, "account", new Document("idCustomer", "C3")
+          .append("idProduct", "P001"), null);
+      assertIndexScan(template, "movement", new Document("idAccount", "A0001"),
+          new Document("creationDatetime", -1).append("_id", -1));
+      assertIndexScan(template, "balance_snapshot", new Document("idAccount", "A0001")
+          .append("asOf", new Document("$lte", new Date())), new Document("asOf", -1));
+    }
+  }
+
+  private static void assertIndexScan(ReactiveMongoTemplate template, String collection,
+                                      Document filter, Document sort) {
+    Document plan = template.getCollection(collection)
+        .flatMap(mongoCollection -> Mono.from(mongoCollection.find(filter)
+            .sort(sort)
+            .explain()))
+        .block();
+    String winningPlan = plan.get("queryPlanner", Document.class)
+        .get("winningPlan", Document.class).toJson();
+    assertTrue(winningPlan.contains("IXSCAN"), collection + " " + filter.toJson() + ": "
+        + winningPlan);
+    assertFalse(winningPlan.contains("COLLSCAN"), collection + " " + filter.toJson() + ": "
+        + winningPlan);
+    assertFalse(winningPlan.contains("\"SORT\""), collection + " " + filter.toJson() + ": "
+        + winningPlan);
+  }
+
+  private static boolean covers(List<String> keys, Set<String> filters, List<String> sorts) {
+    /** Ordenar por un campo que ya se filtra por rango lo resuelve el mismo prefijo. */
+    sorts = sorts.stream().filter(sort -> !filters.contains(sort)).collect(Collectors.toList());
+    if (keys.size() < filters.size() + sorts.size()) {
+      return false;
+    }
+    return new HashSet<>(keys.subList(0, filters.size())).equals(filters)
+        && keys.subList(filters.size(), filters.size() + sorts.size()).equals(sorts);
+  }
+
+  private List<List<String>> indexKeys(Class<?> domainType) {
+    List<List<String>> keys = new ArrayList<>();
+    resolve(domainType).forEach(index ->
+        keys.add(new ArrayList<>(index.getIndexKeys().keySet())));
+    return keys;
+  }
+
+  private List<IndexDefinition> resolve(Class<?> domainType) {
+    List<IndexDefinition> indexes = new ArrayList<>();
+    indexResolver.resolveIndexFor(domainType).forEach(indexes::add);
+    return indexes;
+  }
+}
@@ -0,0 +1,39 @@
+package com.nttdata.bc46account.model;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.exc.InvalidFormatException;
+import java.math.BigDecimal;
+import org.junit.jupiter.api.Test;
+
+class MoneyTest {
+
+  private final ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+
+  @Test
+  void jsonAmountsAreDecimalsAndStoredAsMinorUnits() throws Exception {
+    Movement movement = objectMapper.readValue("{\"monto\": 25.5}", Movement.class);
+    assertEquals(2_550L, movement.getMonto());
+    assertEquals(1_999L, objectMapper.readValue("{\"monto\": \"19.99\"}", Movement.class)
+        .getMonto());
+
+    movement.setMonto(-5L);
+    assertTrue(objectMapper.writeValueAsString(movement).contains("\"monto\":-0.05"));
+    assertThrows(InvalidFormatException.class,
+        () -> objectMapper.readValue("{\"monto\": 0.001}", Movement.class));
+  }
+
+  @Test
+  void sumsOfCentsAreExact() {
+    long balance = 0;
+    for (int i = 0; i < 1_000_000; i++) {
+      balance = Money.add(balance, Money.fromDecimal(new BigDecimal("0.10")));
+    }
+    assertEquals("100000.00", Money.format(balance));
+    assertEquals(29L, Money.fromDouble(0.29));
+    assertEquals("-1.07", Money.format(-107L));
+  }
+}
@@ -0,0 +1,172 @@
+package com.nttdata.bc46account.producer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.nttdata.bc46account.config.KafkaProducerConfig;
+import com.nttdata.bc46account.model.EventDelivery;
+import com.nttdata.bc46account.model.Movement;
+import com.nttdata.bc46account.model.OutboxEvent;
+import com.nttdata.bc46account.repository.inmemory.InMemoryOutboxEventRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.stream.Collectors;
+import org.apache.kafka.clients.consumer.Consumer;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.producer.RecordMetadata;
+import org.apache.kafka.common.TopicPartition;
+import org.apache.kafka.common.serialization.StringDeserializer;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.autoconfigure.kafka.KafkaProperties;
+import org.springframework.kafka.core.DefaultKafkaConsumerFactory;
+import org.springframework.kafka.test.EmbeddedKafkaBroker;
+import org.springframework.kafka.test.utils.KafkaTestUtils;
+import reactor.kafka.sender.KafkaSender;
+
+class OutboxRelayTest {
+
+  private static final String TOPIC = "topic-movimientos-cuentas";
+  private static final int EVENTS = 250;
+
+  private static EmbeddedKafkaBroker broker;
+
+  @BeforeAll
+  static void startBroker() {
+    broker = new EmbeddedKafkaBroker(1, true, 3, TOPIC);
+    broker.afterPropertiesSet();
+  }
+
+  @AfterAll
+  static void stopBroker() {
+    broker.destroy();
+  }
+
+  @Test
+  void relayPublishesEveryPendingEventOnceInPerAccountOrder() {
+    SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    KafkaSender<String, String> kafkaSender = KafkaSender.create(
+        new KafkaProducerConfig().senderOptions(kafkaProperties(), 256));
+    InMemoryOutboxEventRepository repository = new InMemoryOutboxEventRepository();
+    MovementEventOutbox outbox = new MovementEventOutbox(repository,
+        new EventKafkaProducer(kafkaSender, meterRegistry),
+        new ObjectMapper().findAndRegisterModules(), TOPIC, Duration.ofSeconds(30), true,
+        Duration.ofSeconds(10));
+    LocalDateTime start = LocalDateTime.now();
+    OutboxEvent first = null;
+    for (int i = 0; i < EVENTS; i++) {
+      Movement movement = new Movement();
+      movement.setIdMovement(String.format("M%04d", i));
+      movement.setIdAccount("A000" + (i % 3 + 1));
+      movement.setOperation("COBRAR_GIROS");
+      movement.setMonto(-1L);
+      movement.setCreationDatetime(start.plusNanos(i * 1000L));
+      OutboxEvent event = outbox.append(movement).block();
+      first = first == null ? event : first;
+    }
+
+    /** El primero se publica al confirmar la operación; el resto queda para el relay. */
+    EventDelivery delivery = outbox.publishNow(first.getIdEvent()).block();
+    assertTrue(delivery.isPublished());
+    assertNotNull(delivery.getOffset());
+
+    /** M0004 tiene eventos anteriores de su cuenta sin publicar: no se adelanta a ellos. */
+    assertEquals(EventDelivery.PENDING, outbox.publishNow("M0004").block().getStatus());
+    assertNull(repository.findById("M0004").block().getLockedBy());
+    OutboxRelay relay = new OutboxRelay(outbox, 100, Duration.ofMillis(100));
+    assertEquals(EVENTS - 1, relay.relayPending().block());
+    assertEquals(0L, relay.relayPending().block());
+
+    List<OutboxEvent> events = repository.findAll().collectList().block();
+    assertTrue(events.stream().allMatch(event -> event.isPublished()
+        && event.getOffset() != null && event.getLockedBy() == null));
+
+    assertEquals(EVENTS, meterRegistry.get("account.kafka.publish").tag("outcome", "success")
+        .timer().count());
+    kafkaSender.close();
+
+    List<ConsumerRecord<String, String>> records = consumeAll();
+    assertEquals(EVENTS, records.size());
+    Map<String, List<String>> payloadsByAccount = records.stream()
+        .collect(Collectors.groupingBy(ConsumerRecord::key,
+            Collectors.mapping(ConsumerRecord::value, Collectors.toList())));
+    payloadsByAccount.values().forEach(payloads -> {
+      List<String> sorted = new ArrayList<>(payloads);
+      sorted.sort(String::compareTo);
+      assertEquals(sorted, payloads);
+    });
+  }
+
+  @Test
+  void failedEventHoldsBackTheRestOfItsAccountUntilTheNextCycle() {
+    InMemoryOutboxEventRepository repository = new InMemoryOutboxEventRepository();
+    List<String> published = new CopyOnWriteArrayList<>();
+    Set<String> failOnce = ConcurrentHashMap.newKeySet();
+    failOnce.add("M0000");
+    MovementEventPublisher publisher = events -> events.map(event -> {
+      if (failOnce.remove(event.getIdEvent())) {
+        return new MovementEventPublisher.Delivery(event, null,
+            new IllegalStateException("broker caído"));
+      }
+      published.add(event.getIdEvent());
+      return new MovementEventPublisher.Delivery(event,
+          new RecordMetadata(new TopicPartition(TOPIC, 0), published.size(), 0, 0L, -1, -1),
+          null);
+    });
+    MovementEventOutbox outbox = new MovementEventOutbox(repository, publisher,
+        new ObjectMapper().findAndRegisterModules(), TOPIC, Duration.ofSeconds(30), true,
+        Duration.ofSeconds(10));
+    for (int i = 0; i < 4; i++) {
+      Movement movement = new Movement();
+      movement.setIdMovement(String.format("M%04d", i));
+      movement.setIdAccount(i < 3 ? "A0001" : "A0002");
+      movement.setMonto(-1L);
+      outbox.append(movement).block();
+    }
+
+    OutboxRelay relay = new OutboxRelay(outbox, 100, Duration.ofMillis(100));
+    assertEquals(1L, relay.relayPending().block());
+    assertEquals(List.of("M0003"), published);
+    OutboxEvent failed = repository.findById("M0000").block();
+    assertEquals(1, failed.getAttempts());
+    OutboxEvent heldBack = repository.findById("M0001").block();
+    assertEquals(0, heldBack.getAttempts());
+    assertNull(heldBack.getLockedBy());
+
+    assertEquals(3L, relay.relayPending().block());
+    assertEquals(List.of("M0003", "M0000", "M0001", "M0002"), published);
+  }
+
+  private static KafkaProperties kafkaProperties() {
+    KafkaProperties kafkaProperties = new KafkaProperties();
+    kafkaProperties.setBootstrapServers(List.of(broker.getBrokersAsString()));
+    return kafkaProperties;
+  }
+
+  private List<ConsumerRecord<String, String>> consumeAll() {
+    Map<String, Object> consumerProps = KafkaTestUtils.consumerProps("outbox-relay-test", "false",
+        broker);
+    consumerProps.put("auto.offset.reset", "earliest");
+    Consumer<String, String> consumer = new DefaultKafkaConsumerFactory<>(consumerProps,
+        new StringDeserializer(), new StringDeserializer()).createConsumer();
+    broker.consumeFromAnEmbeddedTopic(consumer, TOPIC);
+    List<ConsumerRecord<String, String>> records = new ArrayList<>();
+    long deadline = System.currentTimeMillis() + 20_000;
+    while (records.size() < EVENTS && System.currentTimeMillis() < deadline) {
+      KafkaTestUtils.getRecords(consumer, 1_000).forEach(records::add);
+    }
+    consumer.close();
+    return records;
+  }
+}
@@ -0,0 +1,104 @@
+package com.nttdata.bc46account.repository.inmemory;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import com.nttdata.bc46account.model.Account;
+import java.util.List;
+import java.util.stream.Collectors;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.dao.IncorrectResultSizeDataAccessException;
+import org.springframework.data.domain.Example;
+import org.springframework.data.domain.ExampleMatcher;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import reactor.core.publisher.Flux;
+
+class InMemoryAccountRepositoryTest {
+
+  private InMemoryAccountRepository accountRepository;
+
+  @BeforeEach
+  void setUp() {
+    accountRepository = new InMemoryAccountRepository();
+    accountRepository.insert(account("A0001", "C0001", "P001", 300L)).block();
+    accountRepository.insert(account("A0002", "C0001", "P002", 100L)).block();
+    accountRepository.insert(account("A0003", "C0002", "P001", 200L)).block();
+  }
+
+  @Test
+  void findAllSortsByEachOrderInTurn() {
+    assertEquals(List.of("A0002", "A0003", "A0001"),
+        ids(accountRepository.findAll(Sort.by("availableBalance"))));
+    assertEquals(List.of("A0003", "A0001", "A0002"),
+        ids(accountRepository.findAll(Sort.by(Sort.Order.desc("idCustomer"),
+            Sort.Order.asc("idAccount")))));
+  }
+
+  @Test
+  void queryByExampleAppliesTheMatcher() {
+    Account probe = new Account();
+    probe.setIdCustomer("C0001");
+    ExampleMatcher matcher = ExampleMatcher.matching().withIgnorePaths("availableBalance");
+
+    assertEquals(List.of("A0002", "A0001"), ids(accountRepository
+        .findAll(Example.of(probe, matcher), Sort.by("availableBalance"))));
+    assertEquals(2L, accountRepository.count(Example.of(probe, matcher)).block());
+    assertThrows(IncorrectResultSizeDataAccessException.class,
+        () -> accountRepository.findOne(Example.of(probe, matcher)).block());
+
+    Account byNumber = new Account();
+    byNumber.setAccountNumber("A0003");
+    assertEquals("A0003", accountRepository.findOne(Example.of(byNumber,
+            ExampleMatcher.matching().withIgnorePaths("availableBalance")
+                .withStringMatcher(ExampleMatcher.StringMatcher.ENDING)))
+        .block().getIdAccount());
+
+    Account anyOf = new Account();
+    anyOf.setIdCustomer("C0002");
+    anyOf.setIdProduct("P002");
+    assertEquals(List.of("A0002", "A0003"), accountRepository.findBy(
+        Example.of(anyOf, ExampleMatcher.matchingAny().withIgnorePaths("availableBalance")),
+        query -> query.sortBy(Sort.by("idAccount")).page(PageRequest.of(0, 5)))
+        .block().getContent().stream()
+        .map(Account::getIdAccount)
+        .collect(Collectors.toList()));
+  }
+
+  @Test
+  void accountNumberAndCciAreUnique() {
+    Account sameNumber = account("A0004", "C0003", "P001", 0L);
+    sameNumber.setAccountNumber("191A0001");
+    Account sameCci = account("A0005", "C0003", "P001", 0L);
+    sameCci.setCci("002191A0002");
+
+    assertThrows(DuplicateKeyException.class,
+        () -> accountRepository.insert(sameNumber).block());
+    assertThrows(DuplicateKeyException.class, () -> accountRepository.save(sameCci).block());
+    assertEquals(3L, accountRepository.count().block());
+
+    /** Reemplazar una cuenta con sus propios números no choca consigo misma. */
+    Account existing = accountRepository.findById("A0001").block();
+    existing.setAvailableBalance(0L);
+    accountRepository.save(existing).block();
+    assertEquals(0L, accountRepository.findById("A0001").block().getAvailableBalance());
+  }
+
+  private static List<String> ids(Flux<Account> accounts) {
+    return accounts.map(Account::getIdAccount).collectList().block();
+  }
+
+  private static Account account(String idAccount, String idCustomer, String idProduct,
+                                 long balance) {
+    Account account = new Account();
+    account.setIdAccount(idAccount);
+    account.setIdCustomer(idCustomer);
+    account.setIdProduct(idProduct);
+    account.setAccountNumber("191" + idAccount);
+    account.setCci("002191" + idAccount);
+    account.setAvailableBalance(balance);
+    return account;
+  }
+}
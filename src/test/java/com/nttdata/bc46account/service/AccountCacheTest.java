@@ -0,0 +1,113 @@
+package com.nttdata.bc46account.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import com.nttdata.bc46account.model.Account;
+import com.nttdata.bc46account.model.AccountUpdate;
+import com.nttdata.bc46account.model.Movement;
+import com.nttdata.bc46account.repository.inmemory.InMemoryAccountRepository;
+import com.nttdata.bc46account.repository.inmemory.InMemoryMovementRepository;
+import com.nttdata.bc46account.repository.inmemory.InMemoryOutboxEventRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Mono;
+
+class AccountCacheTest {
+
+  private SimpleMeterRegistry meterRegistry;
+  private AccountCache accountCache;
+  private InMemoryAccountRepository accountRepository;
+  private AccountImpl accountService;
+
+  @BeforeEach
+  void setUp() {
+    meterRegistry = new SimpleMeterRegistry();
+    accountCache = new AccountCache(meterRegistry, 100, Duration.ofMinutes(5));
+    accountRepository = new InMemoryAccountRepository();
+    accountService = TestAccountServices.accountImpl(accountRepository,
+        new InMemoryMovementRepository(), new InMemoryOutboxEventRepository());
+    accountService.accountCache = accountCache;
+
+    accountRepository.save(account("A0001", "19100000000001", 100L)).block();
+  }
+
+  @Test
+  void repeatedReadsHitTheCacheAndReturnIndependentCopies() {
+    AtomicInteger loads = new AtomicInteger();
+
+    Account first = accountCache.getAccount("A0001", id -> {
+      loads.incrementAndGet();
+      return accountRepository.findById(id);
+    }).block();
+    first.setBankMovements(List.of(new Movement()));
+    Account second = accountCache.getAccount("A0001", id -> {
+      loads.incrementAndGet();
+      return accountRepository.findById(id);
+    }).block();
+
+    assertEquals(1, loads.get());
+    assertNull(second.getBankMovements());
+    assertEquals(1.0, meterRegistry.get("cache.gets").tags("cache", "accounts", "result", "hit")
+        .functionCounter().count());
+    assertEquals(1.0, meterRegistry.get("cache.gets").tags("cache", "accounts", "result", "miss")
+        .functionCounter().count());
+  }
+
+  @Test
+  void missingAccountsAreNotCached() {
+    AtomicInteger loads = new AtomicInteger();
+
+    for (int i = 0; i < 2; i++) {
+      assertNull(accountCache.getAccount("A9999", id -> {
+        loads.incrementAndGet();
+        return Mono.empty();
+      }).block());
+    }
+
+    assertEquals(2, loads.get());
+  }
+
+  @Test
+  void operationsAndUpdatesInvalidateCachedBalances() {
+    assertEquals(100L, accountService.findById("A0001").block().getAvailableBalance());
+    assertEquals(1, accountService.findByIdCustomer("C0001").count().block());
+
+    accountService.addOperationToAccount("A0001", withdrawal(40L)).block();
+    assertEquals(60L, accountService.findById("A0001").block().getAvailableBalance());
+    assertEquals(60L, accountService.findByIdCustomer("C0001").blockFirst()
+        .getAvailableBalance());
+
+    accountService.updateAccount(new AccountUpdate(75L, List.of(), List.of()), "A0001").block();
+    assertEquals(75L, accountService.findById("A0001").block().getAvailableBalance());
+
+    accountService.deleteAccountById("A0001").block();
+    assertNull(accountService.findById("A0001").block());
+    assertEquals(0, accountService.findByIdCustomer("C0001").count().block());
+  }
+
+  private static Movement withdrawal(long monto) {
+    Movement movement = new Movement();
+    movement.setOperation("COBRAR_GIROS");
+    movement.setMovementType("RET");
+    movement.setMoneda("PEN");
+    movement.setMonto(monto);
+    return movement;
+  }
+
+  private static Account account(String idAccount, String accountNumber, long balance) {
+    Account account = new Account();
+    account.setIdAccount(idAccount);
+    account.setAccountType("personal");
+    account.setIdProduct("P001");
+    account.setIdCustomer("C0001");
+    account.setAccountNumber(accountNumber);
+    account.setCci("002" + accountNumber + "000");
+    account.setAvailableBalance(balance);
+    return account;
+  }
+}
@@ -0,0 +1,50 @@
+package com.nttdata.bc46account.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import com.nttdata.bc46account.model.Account;
+import com.nttdata.bc46account.repository.inmemory.InMemoryAccountRepository;
+import com.nttdata.bc46account.repository.inmemory.InMemorySequenceRepository;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Flux;
+import reactor.core.scheduler.Schedulers;
+
+class AccountIdGeneratorTest {
+
+  private final InMemorySequenceRepository sequenceRepository = new InMemorySequenceRepository();
+  private final InMemoryAccountRepository accountRepository = new InMemoryAccountRepository();
+
+  @Test
+  void replicasSharingTheSequenceNeverHandOutTheSameId() {
+    AccountIdGenerator replicaA = new AccountIdGenerator(sequenceRepository, accountRepository, 7);
+    AccountIdGenerator replicaB = new AccountIdGenerator(sequenceRepository, accountRepository, 7);
+
+    List<String> ids = Flux.range(0, 2_000)
+        .flatMap(i -> (i % 2 == 0 ? replicaA : replicaB).nextId()
+            .subscribeOn(Schedulers.parallel()), 64)
+        .collectList()
+        .block();
+
+    Set<String> unique = ids.stream().collect(Collectors.toSet());
+    assertEquals(2_000, unique.size());
+  }
+
+  @Test
+  void firstAllocationContinuesAfterExistingCountBasedIds() {
+    Account legacy = new Account();
+    legacy.setIdAccount("A0042");
+    legacy.setIdProduct("P001");
+    legacy.setIdCustomer("C0001");
+    legacy.setAccountNumber("19100000000042");
+    legacy.setCci("00219100000000042000");
+    accountRepository.save(legacy).block();
+
+    AccountIdGenerator generator = new AccountIdGenerator(sequenceRepository, accountRepository, 50);
+
+    assertEquals("A0043", generator.nextId().block());
+    assertEquals("A0044", generator.nextId().block());
+  }
+}
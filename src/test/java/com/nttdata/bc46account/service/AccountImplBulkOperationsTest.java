@@ -0,0 +1,163 @@
+package com.nttdata.bc46account.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import com.nttdata.bc46account.model.Account;
+import com.nttdata.bc46account.model.BulkOperationResult;
+import com.nttdata.bc46account.model.Movement;
+import com.nttdata.bc46account.repository.inmemory.InMemoryAccountRepository;
+import com.nttdata.bc46account.repository.inmemory.InMemoryMovementRepository;
+import com.nttdata.bc46account.repository.inmemory.InMemoryOutboxEventRepository;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Flux;
+
+class AccountImplBulkOperationsTest {
+
+  private InMemoryAccountRepository accountRepository;
+  private InMemoryMovementRepository movementRepository;
+  private InMemoryOutboxEventRepository outboxEventRepository;
+  private AccountImpl accountService;
+
+  @BeforeEach
+  void setUp() {
+    accountRepository = new InMemoryAccountRepository();
+    movementRepository = new InMemoryMovementRepository();
+    outboxEventRepository = new InMemoryOutboxEventRepository();
+    accountService = TestAccountServices.accountImpl(accountRepository, movementRepository,
+        outboxEventRepository, transactions());
+
+    accountRepository.save(account("A0001", "19100000000001", 100L)).block();
+    accountRepository.save(account("A0002", "19100000000002", 0L)).block();
+  }
+
+  /** Sobrescrito por la variante que corre las mismas pruebas con el flag de transacciones. */
+  boolean transactions() {
+    return false;
+  }
+
+  @Test
+  void appliesValidMovementsAndReportsEachFailureInOrder() {
+    List<BulkOperationResult> results = accountService.addOperations(Flux.just(
+            movement("A0001", "TRANSFERIR_DINERO", 30L, "19100000000002"),
+            movement("A0001", "COBRAR_GIROS", 50L, null),
+            movement("A0001", "COBRAR_GIROS", 50L, null),
+            movement("A9999", "COBRAR_GIROS", 1L, null),
+            movement("A0001", "OPERACION_X", 1L, null),
+            movement("A0001", "TRANSFERIR_DINERO", 1L, "19100000009999"),
+            /** Ni con el abono del índice 0 alcanza el saldo. */
+            movement("A0002", "COBRAR_GIROS", 100L, null)))
+        .collectList()
+        .block();
+
+    assertEquals(List.of(0L, 1L, 2L, 3L, 4L, 5L, 6L), results.stream()
+        .map(BulkOperationResult::getIndex).collect(Collectors.toList()));
+    assertEquals(List.of("OK", "OK", "INSUFFICIENT_FUNDS", "ACCOUNT_NOT_FOUND",
+        "INVALID_OPERATION", "TARGET_ACCOUNT_NOT_FOUND", "INSUFFICIENT_FUNDS"), results.stream()
+        .map(result -> result.isSuccess() ? "OK" : result.getCode())
+        .collect(Collectors.toList()));
+    assertEquals(-30L, results.get(0).getMovement().getMonto());
+
+    assertEquals(20L, balanceOf("A0001"));
+    assertEquals(30L, balanceOf("A0002"));
+    assertEquals(2, movementsOf("A0001"));
+    assertEquals(1, movementsOf("A0002"));
+    assertEquals(2, outboxEventRepository.count().block());
+  }
+
+  @Test
+  void largeBatchesAreSplitAndKeepTheBalanceExact() {
+    accountService.bulkBatchSize = 64;
+    List<Movement> movements = IntStream.range(0, 1_000)
+        .mapToObj(i -> i % 2 == 0
+            ? movement("A0001", "TRANSFERIR_DINERO", 1L, "19100000000002")
+            : movement("A0001", "COBRAR_GIROS", 1L, null))
+        .collect(Collectors.toList());
+
+    long applied = accountService.addOperations(Flux.fromIterable(movements))
+        .filter(BulkOperationResult::isSuccess)
+        .count()
+        .block();
+
+    assertEquals(100, applied);
+    assertEquals(0L, balanceOf("A0001"));
+    assertEquals(50L, balanceOf("A0002"));
+    assertEquals(100, movementsOf("A0001"));
+  }
+
+  @Test
+  void everyOperationWithAHandlerIsAcceptedAndGroupedPerAccount() {
+    List<BulkOperationResult> results = accountService.addOperations(Flux.just(
+            movement("A0002", "DEPOSITAR", 40L, null),
+            movement("A0002", "DEPOSITAR", 60L, null),
+            movement("A0002", "PAGAR_SERVICIOS", 70L, null),
+            movement("A0002", "PAGAR_SERVICIOS", 40L, null),
+            movement("A0002", "DEPOSITAR", 0L, null)))
+        .collectList()
+        .block();
+
+    assertEquals(List.of("OK", "OK", "OK", "INSUFFICIENT_FUNDS", "INVALID_OPERATION"),
+        results.stream()
+            .map(result -> result.isSuccess() ? "OK" : result.getCode())
+            .collect(Collectors.toList()));
+    assertEquals(-70L, results.get(2).getMovement().getMonto());
+    assertEquals(30L, balanceOf("A0002"));
+    assertEquals(3, movementsOf("A0002"));
+    assertEquals(3, outboxEventRepository.count().block());
+  }
+
+  @Test
+  void groupedDebitFallsBackToOneByOneWhenTheBalanceChanged() {
+    /** Otra instancia retiró saldo después de que la cuenta quedó en caché. */
+    accountService.accountCache.getAccount("A0001", accountRepository::findById).block();
+    accountRepository.debitIfSufficient("A0001", 60L).block();
+
+    List<BulkOperationResult> results = accountService.addOperations(Flux.just(
+            movement("A0001", "COBRAR_GIROS", 30L, null),
+            movement("A0001", "COBRAR_GIROS", 30L, null)))
+        .collectList()
+        .block();
+
+    assertEquals(List.of("OK", "INSUFFICIENT_FUNDS"), results.stream()
+        .map(result -> result.isSuccess() ? "OK" : result.getCode())
+        .collect(Collectors.toList()));
+    assertEquals(10L, balanceOf("A0001"));
+    assertEquals(1, movementsOf("A0001"));
+  }
+
+  private long balanceOf(String idAccount) {
+    return accountRepository.findById(idAccount).map(Account::getAvailableBalance).block();
+  }
+
+  private long movementsOf(String idAccount) {
+    return movementRepository
+        .findByIdAccountOrderByCreationDatetimeDescIdMovementDesc(idAccount).count().block();
+  }
+
+  private static Movement movement(String idAccount, String operation, long monto,
+                                   String targetAccount) {
+    Movement movement = new Movement();
+    movement.setIdAccount(idAccount);
+    movement.setOperation(operation);
+    movement.setMovementType("BULK");
+    movement.setMoneda("PEN");
+    movement.setMonto(monto);
+    movement.setTargetAccount(targetAccount);
+    return movement;
+  }
+
+  private static Account account(String idAccount, String accountNumber, long balance) {
+    Account account = new Account();
+    account.setIdAccount(idAccount);
+    account.setAccountType("personal");
+    account.setIdProduct("P001");
+    account.setIdCustomer("C0001");
+    account.setAccountNumber(accountNumber);
+    account.setCci("002" + accountNumber + "000");
+    account.setAvailableBalance(balance);
+    return account;
+  }
+}
@@ -0,0 +1,114 @@
+package com.nttdata.bc46account.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import com.nttdata.bc46account.model.Account;
+import com.nttdata.bc46account.model.Movement;
+import com.nttdata.bc46account.repository.inmemory.InMemoryAccountRepository;
+import com.nttdata.bc46account.repository.inmemory.InMemoryMovementRepository;
+import com.nttdata.bc46account.repository.inmemory.InMemoryOutboxEventRepository;
+import java.time.LocalDateTime;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+class AccountImplConcurrencyTest {
+
+  private static final int DEBITS = 10_000;
+  private static final long INITIAL_BALANCE = 8_000L;
+
+  private AccountImpl accountService;
+  private InMemoryAccountRepository accountRepository;
+  private InMemoryMovementRepository movementRepository;
+
+  @BeforeEach
+  void setUp() {
+    accountRepository = new InMemoryAccountRepository();
+    movementRepository = new InMemoryMovementRepository();
+    accountService = TestAccountServices.accountImpl(accountRepository, movementRepository,
+        new InMemoryOutboxEventRepository(), transactions());
+
+    accountRepository.save(account("A0001", "19100000000001", INITIAL_BALANCE)).block();
+    accountRepository.save(account("A0002", "19100000000002", 0L)).block();
+  }
+
+  /** Sobrescrito por la variante que corre las mismas pruebas con el flag de transacciones. */
+  boolean transactions() {
+    return false;
+  }
+
+  @Test
+  void parallelWithdrawalsNeverOverdrawTheAccount() {
+    AtomicInteger rejected = new AtomicInteger();
+
+    long applied = runInParallel(() -> movement("COBRAR_GIROS", null), rejected);
+
+    assertEquals((long) INITIAL_BALANCE, applied);
+    assertEquals(DEBITS - (int) INITIAL_BALANCE, rejected.get());
+    assertEquals(0L, balanceOf("A0001"));
+    assertEquals(applied, movementRepository
+        .findByIdAccountOrderByCreationDatetimeDescIdMovementDesc("A0001").count().block());
+  }
+
+  @Test
+  void parallelTransfersKeepTotalBalanceExact() {
+    AtomicInteger rejected = new AtomicInteger();
+
+    long applied = runInParallel(() -> movement("TRANSFERIR_DINERO", "19100000000002"),
+        rejected);
+
+    assertEquals((long) INITIAL_BALANCE, applied);
+    assertEquals(DEBITS - (int) INITIAL_BALANCE, rejected.get());
+    assertEquals(0L, balanceOf("A0001"));
+    assertEquals(INITIAL_BALANCE, balanceOf("A0002"));
+  }
+
+  private long runInParallel(Supplier<Movement> movements,
+                             AtomicInteger rejected) {
+    Long applied = Flux.range(0, DEBITS)
+        .flatMap(i -> Mono.defer(() -> accountService.addOperationToAccount("A0001",
+                    movements.get()))
+                .subscribeOn(Schedulers.parallel())
+                .onErrorResume(error -> {
+                  rejected.incrementAndGet();
+                  return Mono.empty();
+                }),
+            256)
+        .count()
+        .block();
+    return applied == null ? 0 : applied;
+  }
+
+  private long balanceOf(String idAccount) {
+    return accountRepository.findById(idAccount).block().getAvailableBalance();
+  }
+
+  private static Account account(String idAccount, String accountNumber, long balance) {
+    Account account = new Account();
+    account.setIdAccount(idAccount);
+    account.setAccountType("personal");
+    account.setIdProduct("P001");
+    account.setIdCustomer("C" + idAccount);
+    account.setAccountNumber(accountNumber);
+    account.setCci("002" + accountNumber + "000");
+    account.setAvailableBalance(balance);
+    account.setCreationDatetime(LocalDateTime.now());
+    return account;
+  }
+
+  private static Movement movement(String operation, String targetAccount) {
+    Movement movement = new Movement();
+    movement.setOperation(operation);
+    movement.setMovementType("Retiro");
+    movement.setSourceAccount("19100000000001");
+    movement.setTargetAccount(targetAccount);
+    movement.setMoneda("PEN");
+    movement.setMonto(1L);
+    movement.setCreationDatetime(LocalDateTime.now());
+    return movement;
+  }
+}
@@ -0,0 +1,128 @@
+package com.nttdata.bc46account.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import com.nttdata.bc46account.exceptions.AccountNotFoundException;
+import com.nttdata.bc46account.exceptions.InvalidMovementQueryException;
+import com.nttdata.bc46account.model.Account;
+import com.nttdata.bc46account.model.Movement;
+import com.nttdata.bc46account.model.MovementPage;
+import com.nttdata.bc46account.model.OperationType;
+import com.nttdata.bc46account.repository.inmemory.InMemoryAccountRepository;
+import com.nttdata.bc46account.repository.inmemory.InMemoryMovementRepository;
+import com.nttdata.bc46account.repository.inmemory.InMemoryOutboxEventRepository;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import reactor.test.StepVerifier;
+
+class AccountImplMovementPageTest {
+
+  private static final LocalDateTime START = LocalDateTime.of(2023, 10, 1, 8, 0);
+
+  private AccountImpl accountService;
+  private InMemoryMovementRepository movementRepository;
+
+  @BeforeEach
+  void setUp() {
+    InMemoryAccountRepository accountRepository = new InMemoryAccountRepository();
+    movementRepository = new InMemoryMovementRepository();
+    accountService = TestAccountServices.accountImpl(accountRepository, movementRepository,
+        new InMemoryOutboxEventRepository());
+
+    Account account = new Account();
+    account.setIdAccount("A0001");
+    account.setIdProduct("P001");
+    account.setIdCustomer("C0001");
+    account.setAccountNumber("19100000000001");
+    account.setCci("00219100000000001000");
+    account.setAvailableBalance(0L);
+    accountRepository.save(account).block();
+
+    /** 45 movimientos; cada tres comparten la misma fecha para probar el desempate por id. */
+    for (int i = 0; i < 45; i++) {
+      Movement movement = new Movement();
+      movement.setIdMovement(String.format("M%03d", i));
+      movement.setIdAccount("A0001");
+      movement.setOperation(i % 5 == 0 ? "TRANSFERIR_DINERO" : "COBRAR_GIROS");
+      movement.setMonto(-1L);
+      movement.setCreationDatetime(START.plusDays(i / 3));
+      movementRepository.insert(movement).block();
+    }
+  }
+
+  @Test
+  void cursorWalksTheWholeHistoryNewestFirstWithoutGapsOrRepeats() {
+    List<String> seen = new ArrayList<>();
+    String cursor = null;
+    do {
+      MovementPage page = accountService
+          .findMovementsByAccount("A0001", cursor, null, null, null, 20).block();
+      page.getMovements().forEach(movement -> seen.add(movement.getIdMovement()));
+      cursor = page.getNextCursor();
+    } while (cursor != null);
+
+    List<String> expected = new ArrayList<>();
+    for (int i = 44; i >= 0; i--) {
+      expected.add(String.format("M%03d", i));
+    }
+    assertEquals(expected, seen);
+  }
+
+  @Test
+  void filtersByOperationAndDateRange() {
+    MovementPage page = accountService.findMovementsByAccount("A0001", null,
+        START.plusDays(2), START.plusDays(9), OperationType.TRANSFERIR_DINERO, null).block();
+
+    assertEquals(List.of("M025", "M020", "M015", "M010"), page.getMovements().stream()
+        .map(Movement::getIdMovement).collect(Collectors.toList()));
+    assertNull(page.getNextCursor());
+  }
+
+  @Test
+  void movementsWithoutDateEndTheHistoryWithoutAnInvalidCursor() {
+    for (int i = 0; i < 2; i++) {
+      Movement legacy = new Movement();
+      legacy.setIdMovement(String.format("L%03d", i));
+      legacy.setIdAccount("A0001");
+      legacy.setMonto(-1L);
+      movementRepository.insert(legacy).block();
+    }
+
+    MovementPage page = accountService.findMovementsByAccount("A0001", null, null, null, null,
+        46).block();
+    assertEquals(46, page.getMovements().size());
+    assertNull(page.getMovements().get(45).getCreationDatetime());
+    assertNull(page.getNextCursor());
+  }
+
+  @Test
+  void accountReadsCarryOnlyTheNewestPageOfMovements() {
+    Account account = accountService.findById("A0001").block();
+    assertEquals(AccountImpl.DEFAULT_PAGE_SIZE, account.getBankMovements().size());
+    assertEquals("M044", account.getBankMovements().get(0).getIdMovement());
+
+    assertNull(accountService.findAll().blockFirst().getBankMovements());
+    assertNull(accountService.findByIdCustomer("C0001").blockFirst().getBankMovements());
+  }
+
+  @Test
+  void rejectsInvalidRequests() {
+    StepVerifier.create(accountService.findMovementsByAccount("A0001", "%%%", null, null,
+            null, null))
+        .expectError(InvalidMovementQueryException.class)
+        .verify();
+    StepVerifier.create(accountService.findMovementsByAccount("A0001", null, null, null,
+            null, 500))
+        .expectError(InvalidMovementQueryException.class)
+        .verify();
+    StepVerifier.create(accountService.findMovementsByAccount("A9999", null, null, null,
+            null, null))
+        .expectError(AccountNotFoundException.class)
+        .verify();
+  }
+}
@@ -0,0 +1,166 @@
+package com.nttdata.bc46account.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.nttdata.bc46account.exceptions.InsufficientFundsException;
+import com.nttdata.bc46account.exceptions.InvalidOperationException;
+import com.nttdata.bc46account.model.Account;
+import com.nttdata.bc46account.model.AccountStatement;
+import com.nttdata.bc46account.model.AccountUpdate;
+import com.nttdata.bc46account.model.EventDelivery;
+import com.nttdata.bc46account.model.Movement;
+import com.nttdata.bc46account.model.OperationType;
+import com.nttdata.bc46account.repository.inmemory.InMemoryAccountRepository;
+import com.nttdata.bc46account.repository.inmemory.InMemoryMovementRepository;
+import com.nttdata.bc46account.repository.inmemory.InMemoryOutboxEventRepository;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.stream.Collectors;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+class AccountImplOperationsTest {
+
+  private AccountImpl accountService;
+  private InMemoryAccountRepository accountRepository;
+  private InMemoryMovementRepository movementRepository;
+
+  @BeforeEach
+  void setUp() {
+    accountRepository = new InMemoryAccountRepository();
+    movementRepository = new InMemoryMovementRepository();
+    accountService = TestAccountServices.accountImpl(accountRepository, movementRepository,
+        new InMemoryOutboxEventRepository(), transactions());
+
+    Account account = new Account();
+    account.setIdAccount("A0001");
+    account.setAccountType("personal");
+    account.setIdProduct("P001");
+    account.setIdCustomer("C0001");
+    account.setAccountNumber("19100000000001");
+    account.setCci("00219100000000001000");
+    account.setAvailableBalance(1_000L);
+    account.setCreationDatetime(LocalDateTime.now());
+    accountRepository.save(account).block();
+  }
+
+  /** Sobrescrito por la variante que corre las mismas pruebas con el flag de transacciones. */
+  boolean transactions() {
+    return false;
+  }
+
+  @Test
+  void depositCreditsTheAccount() {
+    StepVerifier.create(accountService.addOperationToAccount("A0001",
+            movement("DEPOSITAR", 250L)))
+        .assertNext(movement -> {
+          assertEquals("A0001", movement.getIdAccount());
+          assertEquals(250L, movement.getMonto());
+          /** Sin publicación inmediata, el evento queda pendiente para el relay. */
+          assertEquals(EventDelivery.PENDING, movement.getDelivery().getStatus());
+        })
+        .verifyComplete();
+
+    assertEquals(1_250L, balanceOf("A0001"));
+    assertEquals(1L, movementRepository
+        .findByIdAccountOrderByCreationDatetimeDescIdMovementDesc("A0001").count().block());
+  }
+
+  @Test
+  void servicePaymentDebitsOnlyWhenTheBalanceIsEnough() {
+    StepVerifier.create(accountService.addOperationToAccount("A0001",
+            movement("PAGAR_SERVICIOS", 400L)))
+        .assertNext(movement -> assertEquals(-400L, movement.getMonto()))
+        .verifyComplete();
+    StepVerifier.create(accountService.addOperationToAccount("A0001",
+            movement("PAGAR_SERVICIOS", 700L)))
+        .expectError(InsufficientFundsException.class)
+        .verify();
+
+    assertEquals(600L, balanceOf("A0001"));
+  }
+
+  @Test
+  void invalidOperationsAreSignalledAsErrors() {
+    StepVerifier.create(accountService.addOperationToAccount("A0001",
+            movement("ABRIR_CAJA", 100L)))
+        .expectError(InvalidOperationException.class)
+        .verify();
+    StepVerifier.create(accountService.addOperationToAccount("A0001",
+            movement(null, 100L)))
+        .expectError(InvalidOperationException.class)
+        .verify();
+    StepVerifier.create(accountService.addOperationToAccount("A0001",
+            movement("DEPOSITAR", -100L)))
+        .expectError(InvalidOperationException.class)
+        .verify();
+
+    assertEquals(1_000L, balanceOf("A0001"));
+  }
+
+  @Test
+  void balanceSetByUpdateAccountIsRecordedAsAnAdjustment() {
+    LocalDateTime from = LocalDateTime.now().minusMinutes(1);
+    accountService.addOperationToAccount("A0001", movement("DEPOSITAR", 250L)).block();
+    AccountUpdate changes = new AccountUpdate();
+    changes.setAvailableBalance(900L);
+    accountService.updateAccount(changes, "A0001").block();
+    accountService.updateAccount(changes, "A0001").block();
+
+    AccountStatement statement = accountService
+        .getStatement("A0001", from, LocalDateTime.now().plusMinutes(1)).block();
+    assertEquals(1_000L, statement.getOpeningBalance());
+    assertEquals(900L, statement.getClosingBalance());
+    assertEquals(List.of(250L, -350L), statement.getMovements().stream()
+        .map(Movement::getMonto)
+        .collect(Collectors.toList()));
+    assertEquals("AJUSTAR_SALDO", statement.getMovements().get(1).getOperation());
+    assertEquals(900L, balanceOf("A0001"));
+    /** El ajuste no es una operación que se pueda pedir por el API. */
+    StepVerifier.create(accountService.addOperationToAccount("A0001",
+            movement("AJUSTAR_SALDO", 100L)))
+        .expectError(InvalidOperationException.class)
+        .verify();
+  }
+
+  @Test
+  void updateWithoutABalanceKeepsItAndRecordsNoAdjustment() throws Exception {
+    /** Cuerpo de un PUT que solo cambia los titulares. */
+    AccountUpdate changes = new ObjectMapper().readValue(
+        "{\"holderAccount\": [{\"nombre\": \"Ana\", \"dni\": \"12345678\"}]}",
+        AccountUpdate.class);
+
+    Account updated = accountService.updateAccount(changes, "A0001").block();
+
+    assertEquals(1_000L, updated.getAvailableBalance());
+    assertEquals("Ana", updated.getHolderAccount().get(0).getNombre());
+    assertEquals(1_000L, balanceOf("A0001"));
+    assertEquals(0L, movementRepository.count().block());
+  }
+
+  @Test
+  void contributorsCannotReplaceARegisteredHandler() {
+    OperationHandlerContributor contributor = registry -> registry
+        .register(OperationType.DEPOSITAR, (account, movement, commitHook) -> Mono.just(movement));
+
+    assertThrows(IllegalStateException.class,
+        () -> accountService.setOperationHandlerContributors(List.of(contributor)));
+  }
+
+  private long balanceOf(String idAccount) {
+    return accountRepository.findById(idAccount).block().getAvailableBalance();
+  }
+
+  private static Movement movement(String operation, long monto) {
+    Movement movement = new Movement();
+    movement.setOperation(operation);
+    movement.setSourceAccount("19100000000001");
+    movement.setMoneda("PEN");
+    movement.setMonto(monto);
+    return movement;
+  }
+}
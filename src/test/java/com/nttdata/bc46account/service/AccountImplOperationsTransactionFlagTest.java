@@ -0,0 +1,14 @@
+package com.nttdata.bc46account.service;
+
+/**
+ * Las pruebas de AccountImplOperationsTest con account.mongo.transactions.enabled=true, sobre
+ * NoOpReactiveTransactionManager: cubren ese camino del código, no el rollback de una
+ * transacción real de Mongo.
+ */
+class AccountImplOperationsTransactionFlagTest extends AccountImplOperationsTest {
+
+  @Override
+  boolean transactions() {
+    return true;
+  }
+}
@@ -0,0 +1,118 @@
+package com.nttdata.bc46account.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import com.nttdata.bc46account.exceptions.AccountBusyException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.core.scheduler.Schedulers;
+
+class AccountOperationLanesTest {
+
+  private SimpleMeterRegistry meterRegistry;
+  private AccountOperationLanes lanes;
+
+  @BeforeEach
+  void setUp() {
+    meterRegistry = new SimpleMeterRegistry();
+    lanes = new AccountOperationLanes(meterRegistry, 2);
+  }
+
+  @Test
+  void operationsOnTheSameAccountRunOneAtATimeInOrder() {
+    AccountOperationLanes unbounded = new AccountOperationLanes(meterRegistry, 10_000);
+    AtomicInteger running = new AtomicInteger();
+    AtomicInteger maxRunning = new AtomicInteger();
+
+    List<Integer> order = Flux.range(0, 200)
+        .concatMap(i -> Mono.just(unbounded.submit("A0001", () -> Mono.fromCallable(() -> {
+          maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+          return i;
+        }).delayElement(Duration.ofMillis(1), Schedulers.parallel())
+            .doOnSuccess(value -> running.decrementAndGet()))))
+        .flatMapSequential(operation -> operation, 200)
+        .collectList()
+        .block();
+
+    assertEquals(1, maxRunning.get());
+    assertEquals(Flux.range(0, 200).collectList().block(), order);
+  }
+
+  @Test
+  void otherAccountsAreNotBlockedByABusyAccount() {
+    Sinks.One<String> slow = Sinks.one();
+    lanes.submit("A0001", slow::asMono).subscribe();
+
+    assertEquals("A0002", lanes.submit("A0002", () -> Mono.just("A0002"))
+        .block(Duration.ofSeconds(1)));
+    slow.tryEmitValue("A0001");
+  }
+
+  @Test
+  void queueBoundAppliesPerAccount() {
+    Sinks.One<String> slow = Sinks.one();
+    lanes.submit("A0001", slow::asMono).subscribe();
+    lanes.submit("A0001", () -> Mono.just("queued")).subscribe();
+
+    assertThrows(AccountBusyException.class,
+        () -> lanes.submit("A0001", () -> Mono.just("rejected")).block());
+    assertEquals("A0002", lanes.submit("A0002", () -> Mono.just("A0002"))
+        .block(Duration.ofSeconds(1)));
+    slow.tryEmitValue("done");
+  }
+
+  @Test
+  void drainedLanesAreDiscarded() {
+    Sinks.One<String> slow = Sinks.one();
+    Mono<String> pending = lanes.submit("A0001", slow::asMono).cache();
+    pending.subscribe();
+    lanes.submit("A0002", () -> Mono.just("A0002")).block();
+
+    assertEquals(1.0, meterRegistry.get("account.lanes.active").gauge().value());
+    slow.tryEmitValue("A0001");
+    assertEquals("A0001", pending.block());
+    assertEquals(0.0, meterRegistry.get("account.lanes.active").gauge().value());
+    assertEquals("again", lanes.submit("A0001", () -> Mono.just("again")).block());
+  }
+
+  @Test
+  void fullLaneRejectsAndReportsQueueDepth() {
+    Sinks.One<String> slow = Sinks.one();
+    lanes.submit("A0001", slow::asMono).subscribe();
+    lanes.submit("A0001", () -> Mono.just("queued")).subscribe();
+
+    assertEquals(2.0, meterRegistry.get("account.lanes.queue.depth").gauge().value());
+    assertThrows(AccountBusyException.class,
+        () -> lanes.submit("A0001", () -> Mono.just("rejected")).block());
+    assertEquals(1.0, meterRegistry.get("account.lanes.rejected").counter().count());
+
+    slow.tryEmitValue("done");
+    assertEquals(0.0, meterRegistry.get("account.lanes.queue.depth").gauge().value());
+  }
+
+  @Test
+  void synchronousOperationsDoNotGrowTheStack() {
+    AccountOperationLanes unbounded = new AccountOperationLanes(meterRegistry, 100_000);
+    Sinks.One<Integer> gate = Sinks.one();
+    unbounded.submit("A0001", gate::asMono).subscribe();
+    List<Mono<Integer>> queued = Flux.range(0, 50_000)
+        .map(i -> unbounded.submit("A0001", () -> Mono.just(i)).cache())
+        .doOnNext(Mono::subscribe)
+        .collectList()
+        .block();
+
+    gate.tryEmitValue(-1);
+
+    assertEquals(49_999, queued.get(queued.size() - 1).block());
+    assertEquals(50_000, queued.stream().map(Mono::block).collect(Collectors.toSet()).size());
+  }
+}
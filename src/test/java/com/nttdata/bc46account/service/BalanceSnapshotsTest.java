@@ -0,0 +1,137 @@
+package com.nttdata.bc46account.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import com.nttdata.bc46account.exceptions.AccountNotFoundException;
+import com.nttdata.bc46account.exceptions.InvalidMovementQueryException;
+import com.nttdata.bc46account.model.Account;
+import com.nttdata.bc46account.model.AccountStatement;
+import com.nttdata.bc46account.model.BalanceSnapshot;
+import com.nttdata.bc46account.model.Movement;
+import com.nttdata.bc46account.repository.inmemory.InMemoryAccountRepository;
+import com.nttdata.bc46account.repository.inmemory.InMemoryBalanceSnapshotRepository;
+import com.nttdata.bc46account.repository.inmemory.InMemoryMovementArchiveRepository;
+import com.nttdata.bc46account.repository.inmemory.InMemoryMovementRepository;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+class BalanceSnapshotsTest {
+
+  private static final LocalDateTime START = LocalDateTime.of(2023, 10, 1, 8, 0);
+
+  /** Rangos [from, to) que se sumaron en el repositorio de movimientos. */
+  private final List<LocalDateTime[]> summedRanges = new ArrayList<>();
+  private InMemoryBalanceSnapshotRepository snapshotRepository;
+  private BalanceSnapshots balanceSnapshots;
+
+  @BeforeEach
+  void setUp() {
+    InMemoryAccountRepository accountRepository = new InMemoryAccountRepository();
+    InMemoryMovementRepository movementRepository = new InMemoryMovementRepository() {
+      @Override
+      public Mono<Long> sumAmounts(String idAccount, LocalDateTime from, LocalDateTime to) {
+        summedRanges.add(new LocalDateTime[] {from, to});
+        return super.sumAmounts(idAccount, from, to);
+      }
+    };
+    snapshotRepository = new InMemoryBalanceSnapshotRepository();
+    balanceSnapshots = new BalanceSnapshots(accountRepository,
+        new MovementHistory(accountRepository, movementRepository,
+            new InMemoryMovementArchiveRepository()),
+        snapshotRepository, 2, Duration.ZERO);
+
+    /** Saldo de apertura de 10.00 sin movimiento y 30 abonos diarios de 0.10. */
+    Account account = new Account();
+    account.setIdAccount("A0001");
+    account.setIdProduct("P001");
+    account.setIdCustomer("C0001");
+    account.setAccountNumber("19100000000001");
+    account.setCci("00219100000000001000");
+    account.setAvailableBalance(1_000L + 30 * 10L);
+    accountRepository.save(account).block();
+    for (int i = 0; i < 30; i++) {
+      Movement movement = new Movement();
+      movement.setIdMovement(String.format("M%03d", i));
+      movement.setIdAccount("A0001");
+      movement.setMonto(10L);
+      movement.setCreationDatetime(START.plusDays(i));
+      movementRepository.insert(movement).block();
+    }
+  }
+
+  @Test
+  void statementWithoutSnapshotsStartsFromTheCurrentBalance() {
+    AccountStatement statement = balanceSnapshots
+        .statement("A0001", START.plusDays(10), START.plusDays(20)).block();
+
+    assertEquals(1_100L, statement.getOpeningBalance());
+    assertEquals(1_200L, statement.getClosingBalance());
+    assertEquals(List.of("M010", "M011", "M012", "M013", "M014", "M015", "M016", "M017",
+            "M018", "M019"),
+        statement.getMovements().stream().map(Movement::getIdMovement)
+            .collect(Collectors.toList()));
+  }
+
+  @Test
+  void statementOnlySumsMovementsSinceTheNearestEarlierSnapshot() {
+    balanceSnapshots.takeSnapshot("A0001", START.plusDays(5)).block();
+    balanceSnapshots.takeSnapshot("A0001", START.plusDays(8)).block();
+    summedRanges.clear();
+
+    AccountStatement statement = balanceSnapshots
+        .statement("A0001", START.plusDays(10), START.plusDays(20)).block();
+
+    assertEquals(1_100L, statement.getOpeningBalance());
+    assertEquals(1_200L, statement.getClosingBalance());
+    assertEquals(1, summedRanges.size());
+    assertEquals(START.plusDays(8), summedRanges.get(0)[0]);
+    assertEquals(START.plusDays(10), summedRanges.get(0)[1]);
+  }
+
+  @Test
+  void statementBeforeTheFirstSnapshotSubtractsBackwards() {
+    BalanceSnapshot snapshot = balanceSnapshots.takeSnapshot("A0001", START.plusDays(25))
+        .block();
+    assertEquals(1_250L, snapshot.getBalance());
+    summedRanges.clear();
+
+    AccountStatement statement = balanceSnapshots
+        .statement("A0001", START.plusDays(10), START.plusDays(12)).block();
+
+    assertEquals(1_100L, statement.getOpeningBalance());
+    assertEquals(1_120L, statement.getClosingBalance());
+    assertEquals(START.plusDays(10), summedRanges.get(0)[0]);
+    assertEquals(START.plusDays(25), summedRanges.get(0)[1]);
+  }
+
+  @Test
+  void takesASnapshotEveryNMovements() {
+    balanceSnapshots.recordMovement("A0001");
+    assertEquals(0L, snapshotRepository.count().block());
+
+    balanceSnapshots.recordMovement("A0001");
+    StepVerifier.create(snapshotRepository.findAll())
+        .assertNext(snapshot -> assertEquals(1_300L, snapshot.getBalance()))
+        .verifyComplete();
+  }
+
+  @Test
+  void rejectsInvalidPeriodsAndUnknownAccounts() {
+    StepVerifier.create(balanceSnapshots.statement("A0001", START.plusDays(2), START))
+        .expectError(InvalidMovementQueryException.class)
+        .verify();
+    StepVerifier.create(balanceSnapshots.statement("A0001", null, START))
+        .expectError(InvalidMovementQueryException.class)
+        .verify();
+    StepVerifier.create(balanceSnapshots.statement("A9999", START, START.plusDays(1)))
+        .expectError(AccountNotFoundException.class)
+        .verify();
+  }
+}
@@ -0,0 +1,161 @@
+package com.nttdata.bc46account.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+
+import com.nttdata.bc46account.model.Account;
+import com.nttdata.bc46account.model.CustomerPortfolio;
+import com.nttdata.bc46account.model.Movement;
+import com.nttdata.bc46account.repository.inmemory.InMemoryAccountRepository;
+import com.nttdata.bc46account.repository.inmemory.InMemoryCustomerPortfolioRepository;
+import com.nttdata.bc46account.repository.inmemory.InMemoryMovementRepository;
+import com.nttdata.bc46account.repository.inmemory.InMemoryOutboxEventRepository;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.OptimisticLockingFailureException;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+class CustomerPortfoliosTest {
+
+  private AccountImpl accountService;
+  private InMemoryAccountRepository accountRepository;
+  private InMemoryCustomerPortfolioRepository portfolioRepository;
+  private CustomerPortfolios customerPortfolios;
+
+  @BeforeEach
+  void setUp() {
+    accountRepository = new InMemoryAccountRepository();
+    InMemoryMovementRepository movementRepository = new InMemoryMovementRepository();
+    accountService = TestAccountServices.accountImpl(accountRepository, movementRepository,
+        new InMemoryOutboxEventRepository());
+    portfolioRepository = new InMemoryCustomerPortfolioRepository();
+    customerPortfolios = new CustomerPortfolios(accountRepository,
+        accountService.movementHistory, portfolioRepository, 500, 8, 3);
+    accountService.customerPortfolios = customerPortfolios;
+
+    accountRepository.save(account("A0001", "P002", "C0001", 100_000L)).block();
+    accountRepository.save(account("A0002", "P002", "C0001", 50_000L)).block();
+    accountRepository.save(account("A0003", "P001", "C0002", 0L)).block();
+  }
+
+  @Test
+  void movementsUpdateThePortfolioIncrementally() {
+    CustomerPortfolio initial = customerPortfolios.findByIdCustomer("C0001").block();
+    assertEquals(2, initial.getAccountCount());
+    assertEquals(150_000L, initial.getTotalBalance());
+
+    accountService.addOperationToAccount("A0001", movement("DEPOSITAR", 200L, null)).block();
+    accountService.addOperationToAccount("A0002", movement("COBRAR_GIROS", 100L, null))
+        .block();
+    accountService.addOperationToAccount("A0001",
+        movement("TRANSFERIR_DINERO", 300L, "19100000000003")).block();
+
+    CustomerPortfolio c1 = portfolioRepository.findById("C0001").block();
+    assertEquals(2, c1.getAccountCount());
+    assertEquals(149_800L, c1.getTotalBalance());
+    assertEquals(149_800L, c1.getProducts().get("P002").getBalance());
+    assertNotNull(c1.getLastMovementDatetime());
+    CustomerPortfolio c2 = portfolioRepository.findById("C0002").block();
+    assertEquals(300L, c2.getProducts().get("P001").getBalance());
+
+    /** El resumen incremental coincide con el reconstruido desde cero. */
+    CustomerPortfolio rebuilt = customerPortfolios.rebuild("C0001").block();
+    assertEquals(c1.getTotalBalance(), rebuilt.getTotalBalance());
+    assertEquals(c1.getLastMovementDatetime(), rebuilt.getLastMovementDatetime());
+  }
+
+  @Test
+  void openingAndClosingAccountsChangeTheCounts() {
+    customerPortfolios.findByIdCustomer("C0001").block();
+    Account opened = account("A0004", "P003", "C0001", 7_000L);
+    accountRepository.save(opened).block();
+    customerPortfolios.accountOpened(opened);
+
+    accountService.deleteAccountById("A0002").block();
+
+    CustomerPortfolio portfolio = portfolioRepository.findById("C0001").block();
+    assertEquals(2, portfolio.getAccountCount());
+    assertEquals(107_000L, portfolio.getTotalBalance());
+    assertEquals(1, portfolio.getProducts().get("P002").getAccountCount());
+    assertEquals(1, portfolio.getProducts().get("P003").getAccountCount());
+  }
+
+  @Test
+  void rebuildAllRecreatesEveryPortfolioAndSkipsCustomersWithoutAccounts() {
+    assertEquals(2L, customerPortfolios.rebuildAll().block());
+    assertEquals(2L, portfolioRepository.count().block());
+
+    CustomerPortfolio none = customerPortfolios.findByIdCustomer("C9999").block();
+    assertEquals(0, none.getAccountCount());
+    assertFalse(portfolioRepository.existsById("C9999").block());
+  }
+
+  @Test
+  void rebuildStartsOverWhenAnIncrementLandsWhileItRecomputes() {
+    List<Long> replacedVersions = new ArrayList<>();
+    InMemoryCustomerPortfolioRepository racingRepository =
+        new InMemoryCustomerPortfolioRepository() {
+          @Override
+          public Mono<Boolean> replaceIfVersion(CustomerPortfolio portfolio,
+                                                long expectedVersion) {
+            replacedVersions.add(expectedVersion);
+            /** Un depósito confirmado después de leer las cuentas, antes de reemplazar. */
+            Mono<Boolean> deposit = replacedVersions.size() > 1 ? Mono.empty()
+                : accountRepository.incrementBalance("A0001", 500L)
+                    .then(applyDelta("C0001", "P002", 0, 500L, null));
+            return deposit.then(super.replaceIfVersion(portfolio, expectedVersion));
+          }
+        };
+    CustomerPortfolios portfolios = new CustomerPortfolios(accountRepository,
+        accountService.movementHistory, racingRepository, 500, 8, 3);
+    portfolios.findByIdCustomer("C0001").block();
+
+    CustomerPortfolio rebuilt = portfolios.rebuild("C0001").block();
+
+    assertEquals(List.of(0L, 1L), replacedVersions);
+    assertEquals(150_500L, rebuilt.getTotalBalance());
+    assertEquals(150_500L, racingRepository.findById("C0001").block().getTotalBalance());
+  }
+
+  @Test
+  void concurrentFirstRebuildsKeepASinglePortfolio() {
+    Flux.range(0, 8)
+        .flatMap(i -> customerPortfolios.rebuild("C0001").subscribeOn(Schedulers.parallel())
+            /** Un rebuild que agota sus intentos deja el resumen a los demás. */
+            .onErrorResume(OptimisticLockingFailureException.class, error -> Mono.empty()))
+        .blockLast();
+
+    CustomerPortfolio portfolio = portfolioRepository.findById("C0001").block();
+    assertEquals(2, portfolio.getAccountCount());
+    assertEquals(150_000L, portfolio.getTotalBalance());
+  }
+
+  private static Account account(String idAccount, String idProduct, String idCustomer,
+                                 long balance) {
+    Account account = new Account();
+    account.setIdAccount(idAccount);
+    account.setAccountType("empresarial");
+    account.setIdProduct(idProduct);
+    account.setIdCustomer(idCustomer);
+    account.setAccountNumber("191000000000" + idAccount.substring(3));
+    account.setCci("002191000000000" + idAccount.substring(3) + "000");
+    account.setAvailableBalance(balance);
+    account.setCreationDatetime(LocalDateTime.now());
+    return account;
+  }
+
+  private static Movement movement(String operation, long monto, String targetAccount) {
+    Movement movement = new Movement();
+    movement.setOperation(operation);
+    movement.setMoneda("PEN");
+    movement.setMonto(monto);
+    movement.setTargetAccount(targetAccount);
+    return movement;
+  }
+}
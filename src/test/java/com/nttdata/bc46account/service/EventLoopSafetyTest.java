@@ -0,0 +1,131 @@
+package com.nttdata.bc46account.service;
+
+import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import com.nttdata.bc46account.exceptions.InvalidOperationException;
+import com.nttdata.bc46account.model.Account;
+import com.nttdata.bc46account.model.Identifiers;
+import com.nttdata.bc46account.model.Movement;
+import com.nttdata.bc46account.repository.inmemory.InMemoryAccountRepository;
+import com.nttdata.bc46account.repository.inmemory.InMemoryMovementRepository;
+import com.nttdata.bc46account.repository.inmemory.InMemoryOutboxEventRepository;
+import java.time.LocalDateTime;
+import java.util.function.Supplier;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import reactor.blockhound.BlockHound;
+import reactor.blockhound.BlockingOperationError;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+import reactor.test.StepVerifier;
+
+/**
+ * Ejecuta el pipeline de operaciones en hilos no bloqueantes de Reactor con BlockHound
+ * instalado: cualquier llamada bloqueante (E/S, sleep, espera de locks) falla la prueba.
+ * Corre en la ejecución event-loop-safety de surefire.
+ */
+@Tag("event-loop-safety")
+class EventLoopSafetyTest {
+
+  private AccountImpl accountService;
+
+  @BeforeAll
+  static void installBlockHound() {
+    BlockHound.install();
+    /** El valor aleatorio del proceso se toma una sola vez, al inicializar ObjectId. */
+    Identifiers.next();
+  }
+
+  @BeforeEach
+  void setUp() {
+    InMemoryAccountRepository accountRepository = new InMemoryAccountRepository();
+    accountService = TestAccountServices.accountImpl(accountRepository,
+        new InMemoryMovementRepository(), new InMemoryOutboxEventRepository());
+    accountRepository.save(account("A0001", "19100000000001")).block();
+    accountRepository.save(account("A0002", "19100000000002")).block();
+  }
+
+  @Test
+  void blockingCallsOnTheEventLoopAreDetected() {
+    StepVerifier.create(onEventLoop(() -> Mono.fromCallable(() -> {
+          Thread.sleep(1);
+          return true;
+        })))
+        .expectError(BlockingOperationError.class)
+        .verify();
+  }
+
+  @Test
+  void operationsDoNotBlockTheEventLoop() {
+    StepVerifier.create(onEventLoop(() -> Flux.concat(
+            accountService.addOperationToAccount("A0001", movement("DEPOSITAR", 500L, null)),
+            accountService.addOperationToAccount("A0001", movement("COBRAR_GIROS", 100L, null)),
+            accountService.addOperationToAccount("A0001",
+                movement("PAGAR_SERVICIOS", 100L, null)),
+            accountService.addOperationToAccount("A0001",
+                movement("TRANSFERIR_DINERO", 100L, "19100000000002")))
+        .then(accountService.findById("A0001"))))
+        .assertNext(account -> assertEquals(1_200L, account.getAvailableBalance()))
+        .verifyComplete();
+
+    StepVerifier.create(onEventLoop(() -> accountService.addOperations(Flux.just(
+            bulkMovement("A0002", "COBRAR_GIROS", 50L, null),
+            bulkMovement("A0002", "TRANSFERIR_DINERO", 50L, "19100000000001")))
+        .filter(result -> result.isSuccess())
+        .count()))
+        .expectNext(2L)
+        .verifyComplete();
+
+    StepVerifier.create(onEventLoop(() -> accountService.findPortfolioByCustomer("C0001")))
+        .assertNext(portfolio -> assertEquals(2_250L, portfolio.getTotalBalance()))
+        .verifyComplete();
+  }
+
+  @Test
+  void invalidOperationsAreSignalledInsteadOfThrown() {
+    Mono<Movement> operation = assertDoesNotThrow(() -> accountService
+        .addOperationToAccount("A0001", movement("ABRIR_CAJA", 100L, null)));
+
+    StepVerifier.create(onEventLoop(() -> operation))
+        .expectError(InvalidOperationException.class)
+        .verify();
+  }
+
+  /** Ensambla y suscribe en Schedulers.parallel(), cuyos hilos BlockHound trata como event loop. */
+  private static <T> Mono<T> onEventLoop(Supplier<Mono<T>> pipeline) {
+    return Mono.defer(pipeline).subscribeOn(Schedulers.parallel());
+  }
+
+  private static Account account(String idAccount, String accountNumber) {
+    Account account = new Account();
+    account.setIdAccount(idAccount);
+    account.setAccountType("empresarial");
+    account.setIdProduct("P002");
+    account.setIdCustomer("C0001");
+    account.setAccountNumber(accountNumber);
+    account.setCci("002" + accountNumber + "000");
+    account.setAvailableBalance(1_000L);
+    account.setCreationDatetime(LocalDateTime.now());
+    return account;
+  }
+
+  private static Movement bulkMovement(String idAccount, String operation, long monto,
+                                       String targetAccount) {
+    Movement movement = movement(operation, monto, targetAccount);
+    movement.setIdAccount(idAccount);
+    return movement;
+  }
+
+  private static Movement movement(String operation, long monto, String targetAccount) {
+    Movement movement = new Movement();
+    movement.setOperation(operation);
+    movement.setMoneda("PEN");
+    movement.setMonto(monto);
+    movement.setTargetAccount(targetAccount);
+    return movement;
+  }
+}
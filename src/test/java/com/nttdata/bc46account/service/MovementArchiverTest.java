@@ -0,0 +1,190 @@
+package com.nttdata.bc46account.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import com.nttdata.bc46account.model.Account;
+import com.nttdata.bc46account.model.AccountStatement;
+import com.nttdata.bc46account.model.AccountUpdate;
+import com.nttdata.bc46account.model.Movement;
+import com.nttdata.bc46account.model.MovementArchive;
+import com.nttdata.bc46account.model.MovementPage;
+import com.nttdata.bc46account.repository.inmemory.InMemoryAccountRepository;
+import com.nttdata.bc46account.repository.inmemory.InMemoryBalanceSnapshotRepository;
+import com.nttdata.bc46account.repository.inmemory.InMemoryMovementArchiveRepository;
+import com.nttdata.bc46account.repository.inmemory.InMemoryMovementRepository;
+import com.nttdata.bc46account.repository.inmemory.InMemoryOutboxEventRepository;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Flux;
+
+class MovementArchiverTest {
+
+  private static final LocalDateTime START = LocalDateTime.of(2023, 10, 1, 0, 0);
+
+  /** Consultas que llegaron al archivo. */
+  private final AtomicInteger archiveReads = new AtomicInteger();
+  private InMemoryAccountRepository accountRepository;
+  private InMemoryMovementRepository movementRepository;
+  private InMemoryMovementArchiveRepository archiveRepository;
+  private AccountImpl accountService;
+  private MovementArchiver archiver;
+
+  @BeforeEach
+  void setUp() {
+    accountRepository = new InMemoryAccountRepository();
+    movementRepository = new InMemoryMovementRepository();
+    archiveRepository = new InMemoryMovementArchiveRepository() {
+      @Override
+      public Flux<MovementArchive> findByIdAccountAndDayLessThanOrderByDayDesc(
+          String idAccount, LocalDateTime before) {
+        archiveReads.incrementAndGet();
+        return super.findByIdAccountAndDayLessThanOrderByDayDesc(idAccount, before);
+      }
+
+      @Override
+      public Flux<MovementArchive> findByIdAccountAndDayLessThanOrderByDayAsc(
+          String idAccount, LocalDateTime before) {
+        archiveReads.incrementAndGet();
+        return super.findByIdAccountAndDayLessThanOrderByDayAsc(idAccount, before);
+      }
+
+      @Override
+      public Flux<MovementArchive> findByIdAccountAndDayGreaterThanEqualAndDayLessThanOrderByDayAsc(
+          String idAccount, LocalDateTime from, LocalDateTime before) {
+        archiveReads.incrementAndGet();
+        return super.findByIdAccountAndDayGreaterThanEqualAndDayLessThanOrderByDayAsc(idAccount,
+            from, before);
+      }
+    };
+    accountService = TestAccountServices.accountImpl(accountRepository, movementRepository,
+        new InMemoryOutboxEventRepository());
+    accountService.movementHistory = new MovementHistory(accountRepository, movementRepository,
+        archiveRepository);
+    accountService.balanceSnapshots = new BalanceSnapshots(accountRepository,
+        accountService.movementHistory, new InMemoryBalanceSnapshotRepository(), 1000,
+        Duration.ZERO);
+    archiver = new MovementArchiver(accountRepository, movementRepository, archiveRepository,
+        accountService.transactionalOperator, Duration.ofDays(90), Duration.ofHours(1), 500, 4);
+
+    /** Saldo de apertura de 10.00 y, durante 30 días, dos abonos diarios de 0.10. */
+    Account account = new Account();
+    account.setIdAccount("A0001");
+    account.setIdProduct("P001");
+    account.setIdCustomer("C0001");
+    account.setAccountNumber("19100000000001");
+    account.setCci("00219100000000001000");
+    account.setAvailableBalance(1_000L + 60 * 10L);
+    accountRepository.save(account).block();
+    for (int i = 0; i < 60; i++) {
+      Movement movement = new Movement();
+      movement.setIdMovement(String.format("M%03d", i));
+      movement.setIdAccount("A0001");
+      movement.setOperation("DEPOSITAR");
+      movement.setMonto(10L);
+      movement.setCreationDatetime(START.plusDays(i / 2).plusHours(8 + 7 * (i % 2)));
+      movementRepository.insert(movement).block();
+    }
+  }
+
+  @Test
+  void movesOldMovementsIntoOneBucketPerDayAndCanRunAgain() {
+    assertEquals(40L, archiver.archiveBefore(START.plusDays(20)).block());
+
+    assertEquals(20L, movementRepository.count().block());
+    assertEquals(20L, archiveRepository.count().block());
+    assertEquals(START.plusDays(20),
+        accountRepository.findById("A0001").block().getArchivedBefore());
+    MovementArchive day = archiveRepository.findById(MovementArchive.idOf("A0001", START))
+        .block();
+    assertEquals(2, day.getCount());
+    assertEquals(20L, day.getTotal());
+    assertEquals(List.of("M000", "M001"), accountService.movementHistory.decode(day).stream()
+        .map(Movement::getIdMovement)
+        .collect(Collectors.toList()));
+
+    assertEquals(0L, archiver.archiveBefore(START.plusDays(20)).block());
+    assertEquals(20L, archiveRepository.count().block());
+  }
+
+  @Test
+  void pagesWalkTheHotAndArchivedTiersWithoutGapsOrRepeats() {
+    archiver.archiveBefore(START.plusDays(20)).block();
+
+    List<String> seen = new ArrayList<>();
+    String cursor = null;
+    do {
+      MovementPage page = accountService
+          .findMovementsByAccount("A0001", cursor, null, null, null, 7).block();
+      page.getMovements().forEach(movement -> seen.add(movement.getIdMovement()));
+      cursor = page.getNextCursor();
+    } while (cursor != null);
+
+    List<String> expected = new ArrayList<>();
+    for (int i = 59; i >= 0; i--) {
+      expected.add(String.format("M%03d", i));
+    }
+    assertEquals(expected, seen);
+  }
+
+  @Test
+  void statementsMatchAfterArchivingAndRecentRangesSkipTheArchive() {
+    AccountStatement before = accountService
+        .getStatement("A0001", START.plusDays(15).plusHours(12), START.plusDays(25)).block();
+    archiver.archiveBefore(START.plusDays(20)).block();
+    archiveReads.set(0);
+
+    AccountStatement after = accountService
+        .getStatement("A0001", START.plusDays(15).plusHours(12), START.plusDays(25)).block();
+    assertEquals(1_310L, after.getOpeningBalance());
+    assertEquals(before.getOpeningBalance(), after.getOpeningBalance());
+    assertEquals(before.getClosingBalance(), after.getClosingBalance());
+    assertEquals(ids(before), ids(after));
+
+    archiveReads.set(0);
+    AccountStatement recent = accountService
+        .getStatement("A0001", START.plusDays(22), START.plusDays(25)).block();
+    assertEquals(6, recent.getMovements().size());
+    MovementPage page = accountService.findMovementsByAccount("A0001", null, null, null, null,
+        10).block();
+    assertEquals(10, page.getMovements().size());
+    assertEquals(0, archiveReads.get());
+  }
+
+  @Test
+  void updatingTheAccountKeepsTheArchiveMark() {
+    archiver.archiveBefore(START.plusDays(20)).block();
+
+    /** Cuerpo de un PUT: trae los campos editables, nunca archivedBefore. */
+    AccountUpdate changes = new AccountUpdate();
+    changes.setAvailableBalance(1_000L + 60 * 10L);
+    changes.setHolderAccount(List.of());
+    accountService.updateAccount(changes, "A0001").block();
+
+    assertEquals(START.plusDays(20),
+        accountRepository.findById("A0001").block().getArchivedBefore());
+    MovementPage page = accountService.findMovementsByAccount("A0001", null, null, null, null,
+        60).block();
+    assertEquals(60, page.getMovements().size());
+    assertEquals("M000", page.getMovements().get(59).getIdMovement());
+  }
+
+  @Test
+  void accountsWithoutOldMovementsAreLeftUntouched() {
+    assertEquals(0L, archiver.archiveBefore(START).block());
+    assertNull(accountRepository.findById("A0001").block().getArchivedBefore());
+    assertEquals(0L, archiveRepository.count().block());
+  }
+
+  private static List<String> ids(AccountStatement statement) {
+    return statement.getMovements().stream()
+        .map(Movement::getIdMovement)
+        .collect(Collectors.toList());
+  }
+}
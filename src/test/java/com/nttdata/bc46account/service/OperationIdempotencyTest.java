@@ -0,0 +1,190 @@
+package com.nttdata.bc46account.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import com.nttdata.bc46account.exceptions.InsufficientFundsException;
+import com.nttdata.bc46account.exceptions.OperationInProgressException;
+import com.nttdata.bc46account.exceptions.TargetAccountNotFoundException;
+import com.nttdata.bc46account.model.Account;
+import com.nttdata.bc46account.model.IdempotencyRecord;
+import com.nttdata.bc46account.model.Movement;
+import com.nttdata.bc46account.repository.inmemory.InMemoryAccountRepository;
+import com.nttdata.bc46account.repository.inmemory.InMemoryIdempotencyRecordRepository;
+import com.nttdata.bc46account.repository.inmemory.InMemoryMovementRepository;
+import com.nttdata.bc46account.repository.inmemory.InMemoryOutboxEventRepository;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.core.scheduler.Schedulers;
+
+class OperationIdempotencyTest {
+
+  private InMemoryAccountRepository accountRepository;
+  private InMemoryMovementRepository movementRepository;
+  private AccountImpl accountService;
+
+  @BeforeEach
+  void setUp() {
+    accountRepository = new InMemoryAccountRepository();
+    movementRepository = new InMemoryMovementRepository();
+    accountService = TestAccountServices.accountImpl(accountRepository, movementRepository,
+        new InMemoryOutboxEventRepository(), transactions());
+    accountRepository.save(account()).block();
+  }
+
+  /** Sobrescrito por la variante que corre las mismas pruebas con el flag de transacciones. */
+  boolean transactions() {
+    return false;
+  }
+
+  @Test
+  void retriesWithTheSameKeyReturnTheFirstMovement() {
+    Movement first = accountService.addOperationToAccount("A0001", withdrawal(), "key-1")
+        .block();
+    Movement retry = accountService.addOperationToAccount("A0001", withdrawal(), "key-1")
+        .block();
+
+    assertEquals(first.getIdMovement(), retry.getIdMovement());
+    assertEquals(90L, accountRepository.findById("A0001").block().getAvailableBalance());
+    assertEquals(1, movementRepository
+        .findByIdAccountOrderByCreationDatetimeDescIdMovementDesc("A0001").count().block());
+  }
+
+  @Test
+  void concurrentRetriesApplyTheOperationOnce() {
+    List<String> results = Flux.range(0, 50)
+        .flatMap(i -> Mono.defer(() -> accountService.addOperationToAccount("A0001",
+                withdrawal(), "key-1"))
+            .map(Movement::getIdMovement)
+            .onErrorResume(OperationInProgressException.class, e -> Mono.empty())
+            .subscribeOn(Schedulers.parallel()))
+        .collectList()
+        .block();
+
+    Set<String> distinct = results.stream().collect(Collectors.toSet());
+    assertEquals(1, distinct.size());
+    assertEquals(90L, accountRepository.findById("A0001").block().getAvailableBalance());
+  }
+
+  @Test
+  void inFlightKeyIsRejectedAndKeyIsReleasedWhenTheOperationWasNotApplied() {
+    OperationIdempotency idempotency = idempotency(new InMemoryIdempotencyRecordRepository(),
+        false);
+    Sinks.One<Movement> firstAttempt = Sinks.one();
+    idempotency.execute("A0001", "key-1", commitHook -> firstAttempt.asMono())
+        .subscribe(m -> { }, e -> { });
+
+    assertThrows(OperationInProgressException.class, () -> idempotency.execute("A0001",
+        "key-1", commitHook -> Mono.just(new Movement())).block());
+
+    firstAttempt.tryEmitError(new InsufficientFundsException("sin saldo"));
+    Movement movement = new Movement();
+    assertEquals(movement, idempotency.execute("A0001", "key-1",
+        commitHook -> Mono.just(movement)).block());
+  }
+
+  @Test
+  void keyIsReleasedWhenTheOperationCompletesEmpty() {
+    InMemoryIdempotencyRecordRepository repository = new InMemoryIdempotencyRecordRepository();
+    OperationIdempotency idempotency = idempotency(repository, false);
+
+    assertNull(idempotency.execute("A0001", "key-1", commitHook -> Mono.empty()).block());
+
+    assertNull(repository.findById("A0001|key-1").block());
+    Movement movement = new Movement();
+    assertEquals(movement, idempotency.execute("A0001", "key-1",
+        commitHook -> Mono.just(movement)).block());
+  }
+
+  @Test
+  void transferToAMissingAccountCanBeRetriedWithTheSameKey() {
+    for (int attempt = 0; attempt < 2; attempt++) {
+      assertThrows(TargetAccountNotFoundException.class, () -> accountService
+          .addOperationToAccount("A0001", transferTo("19199999999999"), "key-1").block());
+    }
+
+    assertEquals(100L, accountRepository.findById("A0001").block().getAvailableBalance());
+    assertEquals(0, movementRepository
+        .findByIdAccountOrderByCreationDatetimeDescIdMovementDesc("A0001").count().block());
+  }
+
+  @Test
+  void keyStaysReservedWhenTheOperationMayHaveBeenApplied() {
+    InMemoryIdempotencyRecordRepository repository = new InMemoryIdempotencyRecordRepository();
+    OperationIdempotency idempotency = idempotency(repository, false);
+
+    assertThrows(IllegalStateException.class, () -> idempotency.execute("A0001", "key-1",
+        commitHook -> Mono.error(new IllegalStateException("timeout"))).block());
+
+    assertThrows(OperationInProgressException.class, () -> idempotency.execute("A0001",
+        "key-1", commitHook -> Mono.just(new Movement())).block());
+    assertNotNull(repository.findById("A0001|key-1").block());
+  }
+
+  @Test
+  void abandonedReservationIsTakenOverOnlyWithTransactions() {
+    InMemoryIdempotencyRecordRepository repository = new InMemoryIdempotencyRecordRepository();
+    LocalDateTime reservedAt = LocalDateTime.now().minusMinutes(5);
+    repository.insert(new IdempotencyRecord("A0001|key-1", null, "crashed", reservedAt,
+        reservedAt.plusDays(1))).block();
+
+    assertThrows(OperationInProgressException.class, () -> idempotency(repository, false)
+        .execute("A0001", "key-1", commitHook -> Mono.just(new Movement())).block());
+
+    Movement movement = new Movement();
+    movement.setIdMovement("M1");
+    assertEquals("M1", idempotency(repository, true).execute("A0001", "key-1",
+            commitHook -> commitHook.beforeCommit(movement).thenReturn(movement))
+        .block().getIdMovement());
+    assertEquals("M1", repository.findById("A0001|key-1").block().getMovement()
+        .getIdMovement());
+  }
+
+  private static OperationIdempotency idempotency(InMemoryIdempotencyRecordRepository repository,
+                                                  boolean transactions) {
+    return new OperationIdempotency(repository, Duration.ofDays(1), Duration.ofMinutes(1), 100,
+        transactions);
+  }
+
+  private static Movement withdrawal() {
+    Movement movement = new Movement();
+    movement.setOperation("COBRAR_GIROS");
+    movement.setMovementType("RET");
+    movement.setMoneda("PEN");
+    movement.setMonto(10L);
+    return movement;
+  }
+
+  private static Movement transferTo(String targetAccount) {
+    Movement movement = new Movement();
+    movement.setOperation("TRANSFERIR_DINERO");
+    movement.setMovementType("RET");
+    movement.setSourceAccount("19100000000001");
+    movement.setTargetAccount(targetAccount);
+    movement.setMoneda("PEN");
+    movement.setMonto(10L);
+    return movement;
+  }
+
+  private static Account account() {
+    Account account = new Account();
+    account.setIdAccount("A0001");
+    account.setAccountType("personal");
+    account.setIdProduct("P001");
+    account.setIdCustomer("C0001");
+    account.setAccountNumber("19100000000001");
+    account.setCci("00219100000000001000");
+    account.setAvailableBalance(100L);
+    return account;
+  }
+}
@@ -0,0 +1,66 @@
+package com.nttdata.bc46account.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import com.nttdata.bc46account.exceptions.InsufficientFundsException;
+import com.nttdata.bc46account.model.Account;
+import com.nttdata.bc46account.model.Movement;
+import com.nttdata.bc46account.repository.inmemory.InMemoryAccountRepository;
+import com.nttdata.bc46account.repository.inmemory.InMemoryMovementRepository;
+import com.nttdata.bc46account.repository.inmemory.InMemoryOutboxEventRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class OperationMetricsTest {
+
+  private SimpleMeterRegistry meterRegistry;
+  private AccountImpl accountService;
+
+  @BeforeEach
+  void setUp() {
+    meterRegistry = new SimpleMeterRegistry();
+    InMemoryAccountRepository accountRepository = new InMemoryAccountRepository();
+    accountService = TestAccountServices.accountImpl(accountRepository,
+        new InMemoryMovementRepository(), new InMemoryOutboxEventRepository());
+    accountService.operationMetrics = new OperationMetrics(meterRegistry);
+
+    Account account = new Account();
+    account.setIdAccount("A0001");
+    account.setAccountType("personal");
+    account.setIdProduct("P001");
+    account.setIdCustomer("C0001");
+    account.setAccountNumber("19100000000001");
+    account.setCci("00219100000000001000");
+    account.setAvailableBalance(100L);
+    accountRepository.save(account).block();
+  }
+
+  @Test
+  void operationsAreTimedByOperationAndOutcome() {
+    accountService.addOperationToAccount("A0001", withdrawal(60L)).block();
+    assertThrows(InsufficientFundsException.class,
+        () -> accountService.addOperationToAccount("A0001", withdrawal(60L)).block());
+
+    assertEquals(1, meterRegistry.get("account.operation")
+        .tags("operation", "COBRAR_GIROS", "outcome", "success").timer().count());
+    assertEquals(1, meterRegistry.get("account.operation")
+        .tags("operation", "COBRAR_GIROS", "outcome", "insufficient_funds").timer().count());
+    assertEquals(1.0, meterRegistry.get("account.operation.insufficient.funds")
+        .tag("operation", "COBRAR_GIROS").counter().count());
+    assertEquals(2, meterRegistry.get("account.operation.mongo")
+        .tags("operation", "COBRAR_GIROS", "call", "debit").timer().count());
+    assertEquals(1, meterRegistry.get("account.operation.mongo")
+        .tags("operation", "COBRAR_GIROS", "call", "append_outbox").timer().count());
+  }
+
+  private static Movement withdrawal(long monto) {
+    Movement movement = new Movement();
+    movement.setOperation("COBRAR_GIROS");
+    movement.setMovementType("RET");
+    movement.setMoneda("PEN");
+    movement.setMonto(monto);
+    return movement;
+  }
+}
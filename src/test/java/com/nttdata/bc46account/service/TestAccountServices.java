@@ -0,0 +1,67 @@
+package com.nttdata.bc46account.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.nttdata.bc46account.config.NoOpReactiveTransactionManager;
+import com.nttdata.bc46account.producer.MovementEventOutbox;
+import com.nttdata.bc46account.repository.AccountRepository;
+import com.nttdata.bc46account.repository.MovementRepository;
+import com.nttdata.bc46account.repository.OutboxEventRepository;
+import com.nttdata.bc46account.repository.inmemory.InMemoryBalanceSnapshotRepository;
+import com.nttdata.bc46account.repository.inmemory.InMemoryCustomerPortfolioRepository;
+import com.nttdata.bc46account.repository.inmemory.InMemoryIdempotencyRecordRepository;
+import com.nttdata.bc46account.repository.inmemory.InMemoryMovementArchiveRepository;
+import com.nttdata.bc46account.repository.inmemory.InMemoryPendingTransferRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import org.springframework.transaction.reactive.TransactionalOperator;
+
+/**
+ * Arma un AccountImpl sobre repositorios en memoria, sin Spring ni Mongo, con o sin
+ * transacciones de Mongo (account.mongo.transactions.enabled).
+ */
+public final class TestAccountServices {
+
+  private TestAccountServices() {
+  }
+
+  public static AccountImpl accountImpl(AccountRepository accountRepository,
+                                        MovementRepository movementRepository,
+                                        OutboxEventRepository outboxEventRepository) {
+    return accountImpl(accountRepository, movementRepository, outboxEventRepository, false);
+  }
+
+  public static AccountImpl accountImpl(AccountRepository accountRepository,
+                                        MovementRepository movementRepository,
+                                        OutboxEventRepository outboxEventRepository,
+                                        boolean transactions) {
+    MovementEventOutbox outbox = new MovementEventOutbox(outboxEventRepository, null,
+        new ObjectMapper().findAndRegisterModules(), "topic-movimientos-cuentas",
+        Duration.ofSeconds(30), false, Duration.ofSeconds(2));
+    AccountImpl accountService = new AccountImpl(outbox);
+    accountService.accountRepository = accountRepository;
+    accountService.movementRepository = movementRepository;
+    accountService.bulkBatchSize = 500;
+    accountService.transactions = transactions;
+    accountService.transactionalOperator =
+        TransactionalOperator.create(new NoOpReactiveTransactionManager());
+    accountService.accountCache =
+        new AccountCache(new SimpleMeterRegistry(), 10_000, Duration.ofSeconds(30));
+    accountService.accountOperationLanes =
+        new AccountOperationLanes(new SimpleMeterRegistry(), 100_000);
+    accountService.operationMetrics = new OperationMetrics(new SimpleMeterRegistry());
+    accountService.operationIdempotency = new OperationIdempotency(
+        new InMemoryIdempotencyRecordRepository(), Duration.ofDays(1), Duration.ofMinutes(1),
+        10_000, transactions);
+    accountService.transferEngine = new TransferEngine(accountRepository, movementRepository,
+        new InMemoryPendingTransferRepository(), outbox, accountService.transactionalOperator,
+        accountService.operationMetrics, transactions, 3, Duration.ofSeconds(30));
+    accountService.movementHistory = new MovementHistory(accountRepository, movementRepository,
+        new InMemoryMovementArchiveRepository());
+    accountService.balanceSnapshots = new BalanceSnapshots(accountRepository,
+        accountService.movementHistory, new InMemoryBalanceSnapshotRepository(), 1000,
+        Duration.ofMinutes(5));
+    accountService.customerPortfolios = new CustomerPortfolios(accountRepository,
+        accountService.movementHistory, new InMemoryCustomerPortfolioRepository(), 500, 8, 3);
+    return accountService;
+  }
+}
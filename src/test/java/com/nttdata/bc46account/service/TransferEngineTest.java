@@ -0,0 +1,279 @@
+package com.nttdata.bc46account.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mongodb.MongoException;
+import com.nttdata.bc46account.config.NoOpReactiveTransactionManager;
+import com.nttdata.bc46account.exceptions.InsufficientFundsException;
+import com.nttdata.bc46account.exceptions.InvalidOperationException;
+import com.nttdata.bc46account.exceptions.TargetAccountNotFoundException;
+import com.nttdata.bc46account.model.Account;
+import com.nttdata.bc46account.model.Movement;
+import com.nttdata.bc46account.model.PendingTransfer;
+import com.nttdata.bc46account.producer.MovementEventOutbox;
+import com.nttdata.bc46account.repository.inmemory.InMemoryAccountRepository;
+import com.nttdata.bc46account.repository.inmemory.InMemoryMovementRepository;
+import com.nttdata.bc46account.repository.inmemory.InMemoryOutboxEventRepository;
+import com.nttdata.bc46account.repository.inmemory.InMemoryPendingTransferRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.mongodb.UncategorizedMongoDbException;
+import org.springframework.transaction.reactive.TransactionalOperator;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+class TransferEngineTest {
+
+  /** Actualizaciones de saldo en el orden en que se aplicaron: "debit:A0002", "credit:A0001". */
+  private final List<String> updates = new CopyOnWriteArrayList<>();
+  private final AtomicInteger transientFailures = new AtomicInteger();
+  private InMemoryAccountRepository accountRepository;
+  private InMemoryMovementRepository movementRepository;
+  private InMemoryOutboxEventRepository outboxEventRepository;
+  private InMemoryPendingTransferRepository pendingTransferRepository;
+  private Duration lease = Duration.ofSeconds(30);
+
+  @BeforeEach
+  void setUp() {
+    accountRepository = new InMemoryAccountRepository() {
+      @Override
+      public Mono<Boolean> debitIfSufficient(String idAccount, long amount) {
+        return Mono.defer(() -> {
+          if (transientFailures.getAndUpdate(n -> Math.max(0, n - 1)) > 0) {
+            MongoException conflict = new MongoException(112, "WriteConflict");
+            conflict.addLabel(MongoException.TRANSIENT_TRANSACTION_ERROR_LABEL);
+            return Mono.error(new UncategorizedMongoDbException("WriteConflict", conflict));
+          }
+          updates.add("debit:" + idAccount);
+          return super.debitIfSufficient(idAccount, amount);
+        });
+      }
+
+      @Override
+      public Mono<Boolean> incrementBalance(String idAccount, long amount) {
+        return Mono.defer(() -> {
+          updates.add("credit:" + idAccount);
+          return super.incrementBalance(idAccount, amount);
+        });
+      }
+    };
+    movementRepository = new InMemoryMovementRepository();
+    outboxEventRepository = new InMemoryOutboxEventRepository();
+    pendingTransferRepository = new InMemoryPendingTransferRepository();
+    accountRepository.save(account("A0001", 1_000L)).block();
+    accountRepository.save(account("A0002", 1_000L)).block();
+  }
+
+  @Test
+  void transactionUpdatesBalancesInAccountIdOrder() {
+    TransferEngine engine = engine(true);
+
+    engine.transfer("A0002", "A0001", leg("M1", "A0002", -300L), leg("M2", "A0001", 300L))
+        .block();
+    engine.transfer("A0001", "A0002", leg("M3", "A0001", -100L), leg("M4", "A0002", 100L))
+        .block();
+
+    assertEquals(List.of("credit:A0001", "debit:A0002", "debit:A0001", "credit:A0002"),
+        updates);
+    assertEquals(1_200L, balanceOf("A0001"));
+    assertEquals(800L, balanceOf("A0002"));
+    assertEquals(4L, movementRepository.count().block());
+  }
+
+  @Test
+  void transactionRetriesTransientWriteConflicts() {
+    transientFailures.set(2);
+
+    StepVerifier.create(engine(true).transfer("A0001", "A0002", leg("M1", "A0001", -300L),
+            leg("M2", "A0002", 300L)))
+        .expectNextCount(1)
+        .verifyComplete();
+
+    assertEquals(700L, balanceOf("A0001"));
+    assertEquals(1_300L, balanceOf("A0002"));
+  }
+
+  @Test
+  void twoPhaseTransferLeavesNoMarkersOrPendingRecords() {
+    TransferEngine engine = engine(false);
+
+    engine.transfer("A0001", "A0002", leg("M1", "A0001", -300L), leg("M2", "A0002", 300L))
+        .block();
+    StepVerifier.create(engine.transfer("A0001", "A0002", leg("M3", "A0001", -900L),
+            leg("M4", "A0002", 900L)))
+        .expectError(InsufficientFundsException.class)
+        .verify();
+
+    assertEquals(700L, balanceOf("A0001"));
+    assertEquals(1_300L, balanceOf("A0002"));
+    assertTrue(accountRepository.findById("A0001").block().getPendingTransfers().isEmpty());
+    assertTrue(accountRepository.findById("A0002").block().getPendingTransfers().isEmpty());
+    assertEquals(0L, pendingTransferRepository.count().block());
+    assertEquals(2L, movementRepository.count().block());
+  }
+
+  @Test
+  void recoveryCompletesATransferAbandonedAfterTheDebit() {
+    PendingTransfer pending = pending("T1");
+    pendingTransferRepository.insert(pending).block();
+    accountRepository.applyTransferLeg("A0001", "T1:D", -300L).block();
+
+    recovery().recoverAbandoned().block();
+    /** Una segunda pasada no vuelve a aplicar nada. */
+    pendingTransferRepository.insert(pending).block();
+    recovery().recoverAbandoned().block();
+
+    assertEquals(700L, balanceOf("A0001"));
+    assertEquals(1_300L, balanceOf("A0002"));
+    assertEquals(2L, movementRepository.count().block());
+    assertEquals(0L, pendingTransferRepository.count().block());
+    assertFalse(accountRepository.hasTransferLeg("A0002", "T1:C").block());
+  }
+
+  @Test
+  void recoveryDiscardsATransferAbandonedBeforeTheDebit() {
+    pendingTransferRepository.insert(pending("T1")).block();
+
+    recovery().recoverAbandoned().block();
+
+    assertEquals(1_000L, balanceOf("A0001"));
+    assertEquals(1_000L, balanceOf("A0002"));
+    assertEquals(0L, movementRepository.count().block());
+    assertEquals(0L, pendingTransferRepository.count().block());
+  }
+
+  @Test
+  void selfTransfersAreRejectedInBothModes() {
+    for (boolean transactions : new boolean[] {true, false}) {
+      StepVerifier.create(engine(transactions).transfer("A0001", "A0001",
+              leg("M1", "A0001", -300L), leg("M2", "A0001", 300L)))
+          .expectError(InvalidOperationException.class)
+          .verify();
+    }
+
+    assertEquals(1_000L, balanceOf("A0001"));
+    assertEquals(0L, movementRepository.count().block());
+  }
+
+  @Test
+  void transactionAbortsWhenTheTargetAccountIsMissing() {
+    /** A0000 ordena antes que A0002: el abono fallido ocurre antes del débito. */
+    StepVerifier.create(engine(true).transfer("A0002", "A0000", leg("M1", "A0002", -300L),
+            leg("M2", "A0000", 300L)))
+        .expectError(TargetAccountNotFoundException.class)
+        .verify();
+
+    assertEquals(List.of("credit:A0000"), updates);
+    assertEquals(1_000L, balanceOf("A0002"));
+    assertEquals(0L, movementRepository.count().block());
+    assertEquals(0L, outboxEventRepository.count().block());
+  }
+
+  @Test
+  void twoPhaseTransferToAMissingAccountRefundsTheSource() {
+    StepVerifier.create(engine(false).transfer("A0001", "A0009", leg("M1", "A0001", -300L),
+            leg("M2", "A0009", 300L)))
+        .expectError(TargetAccountNotFoundException.class)
+        .verify();
+
+    assertEquals(1_000L, balanceOf("A0001"));
+    assertTrue(accountRepository.findById("A0001").block().getPendingTransfers().isEmpty());
+    assertEquals(0L, pendingTransferRepository.count().block());
+    assertEquals(0L, movementRepository.count().block());
+    assertEquals(0L, outboxEventRepository.count().block());
+  }
+
+  @Test
+  void recoveryRefundsATransferWhoseTargetAccountIsGone() {
+    PendingTransfer pending = pending("T1", "A0009");
+    pendingTransferRepository.insert(pending).block();
+    accountRepository.applyTransferLeg("A0001", "T1:D", -300L).block();
+    /** Devolución ya aplicada por un intento que cayó antes de cerrar. */
+    PendingTransfer refunded = pending("T2", "A0009");
+    pendingTransferRepository.insert(refunded).block();
+    accountRepository.applyTransferLeg("A0001", "T2:D", -300L).block();
+    accountRepository.applyTransferLeg("A0001", "T2:R", 300L).block();
+
+    assertEquals(2L, recovery().recoverAbandoned().block());
+    recovery().recoverAbandoned().block();
+
+    assertEquals(1_000L, balanceOf("A0001"));
+    assertTrue(accountRepository.findById("A0001").block().getPendingTransfers().isEmpty());
+    assertEquals(0L, pendingTransferRepository.count().block());
+    assertEquals(0L, movementRepository.count().block());
+  }
+
+  @Test
+  void recoverySkipsATransferStillClaimedByItsRequest() {
+    PendingTransfer pending = pending("T1");
+    pending.setLockedBy("request");
+    pending.setLockedUntil(LocalDateTime.now().plusMinutes(1));
+    pendingTransferRepository.insert(pending).block();
+    accountRepository.applyTransferLeg("A0001", "T1:D", -300L).block();
+
+    recovery().recoverAbandoned().block();
+
+    assertEquals(700L, balanceOf("A0001"));
+    assertEquals(1_000L, balanceOf("A0002"));
+    assertEquals(1L, pendingTransferRepository.count().block());
+    assertEquals(0L, movementRepository.count().block());
+  }
+
+  private TransferEngine engine(boolean transactions) {
+    MovementEventOutbox outbox = new MovementEventOutbox(outboxEventRepository, null,
+        new ObjectMapper().findAndRegisterModules(), "topic-movimientos-cuentas",
+        Duration.ofSeconds(30), false, Duration.ofSeconds(2));
+    return new TransferEngine(accountRepository, movementRepository, pendingTransferRepository,
+        outbox, TransactionalOperator.create(new NoOpReactiveTransactionManager()),
+        new OperationMetrics(new SimpleMeterRegistry()), transactions, 3, lease);
+  }
+
+  private PendingTransferRecovery recovery() {
+    return new PendingTransferRecovery(pendingTransferRepository, engine(false), Duration.ZERO,
+        Duration.ofSeconds(30));
+  }
+
+  private PendingTransfer pending(String idTransfer) {
+    return pending(idTransfer, "A0002");
+  }
+
+  private PendingTransfer pending(String idTransfer, String targetAccount) {
+    return new PendingTransfer(idTransfer, "A0001", targetAccount, 300L,
+        List.of(leg(idTransfer, "A0001", -300L), leg(idTransfer + "-D", targetAccount, 300L)),
+        PendingTransfer.PENDING, null, null, LocalDateTime.now().minusMinutes(5));
+  }
+
+  private long balanceOf(String idAccount) {
+    return accountRepository.findById(idAccount).block().getAvailableBalance();
+  }
+
+  private static Account account(String idAccount, long balance) {
+    Account account = new Account();
+    account.setIdAccount(idAccount);
+    account.setIdProduct("P001");
+    account.setIdCustomer("C" + idAccount);
+    account.setAccountNumber("191" + idAccount);
+    account.setCci("002191" + idAccount);
+    account.setAvailableBalance(balance);
+    return account;
+  }
+
+  private static Movement leg(String idMovement, String idAccount, long monto) {
+    Movement movement = new Movement();
+    movement.setIdMovement(idMovement);
+    movement.setIdAccount(idAccount);
+    movement.setOperation("TRANSFERIR_DINERO");
+    movement.setMonto(monto);
+    movement.setCreationDatetime(LocalDateTime.now());
+    return movement;
+  }
+}